@@ -0,0 +1,76 @@
+package com.example.ecommerce_order_service.benchmark;
+
+import com.example.ecommerce_order_service.auth.JwtAuthenticationCache;
+import com.example.ecommerce_order_service.auth.JwtFilter;
+import com.example.ecommerce_order_service.auth.JwtUtil;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of JwtFilter per request. With one distinct token every request is a cache hit;
+ * with 100k tokens cycling through a 1k-entry cache nearly every request parses and verifies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+    private static final String SECRET = "g+msj/YY6Mz+bkdf6F05zaqdJRYwuu7Wo3yVE6AjhsU=";
+
+    @Param({"1", "100000"})
+    private int distinctTokens;
+
+    private JwtFilter jwtFilter;
+    private String[] authHeaders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        Date expiration = Date.from(Instant.now().plus(Duration.ofHours(1)));
+
+        authHeaders = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            authHeaders[i] = "Bearer " + Jwts.builder()
+                    .subject("user" + i)
+                    .claim("roles", List.of("USER"))
+                    .expiration(expiration)
+                    .signWith(key)
+                    .compact();
+        }
+
+        jwtFilter = new JwtFilter(new JwtUtil(SECRET), new JwtAuthenticationCache(1_000, Duration.ofMinutes(10)),
+                new OrderMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+        request.addHeader("Authorization", authHeaders[next]);
+        next = (next + 1) % distinctTokens;
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
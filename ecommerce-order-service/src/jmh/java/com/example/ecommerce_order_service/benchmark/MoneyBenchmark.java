@@ -0,0 +1,80 @@
+package com.example.ecommerce_order_service.benchmark;
+
+import com.example.ecommerce_order_service.entities.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total plus payment check, the money work of createOrder and requestPayment, in the three exact
+ * representations: raw long minor units (what the service does), the Money value type, and BigDecimal.
+ * Run with -prof gc (the benchmark profile's default) to compare bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Param({"1", "20"})
+    private int itemsPerOrder;
+
+    private int[] quantities;
+    private long[] pricesMinor;
+    private Money[] prices;
+    private BigDecimal[] decimalPrices;
+    private long paymentMinor;
+    private Money payment;
+    private BigDecimal decimalPayment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        quantities = new int[itemsPerOrder];
+        pricesMinor = new long[itemsPerOrder];
+        prices = new Money[itemsPerOrder];
+        decimalPrices = new BigDecimal[itemsPerOrder];
+        long total = 0;
+        for (int i = 0; i < itemsPerOrder; i++) {
+            quantities[i] = 1 + i % 3;
+            pricesMinor[i] = 1999 + i * 105L;
+            prices[i] = Money.ofMinor(pricesMinor[i], USD);
+            decimalPrices[i] = prices[i].getAmount();
+            total += pricesMinor[i] * quantities[i];
+        }
+        paymentMinor = total;
+        payment = Money.ofMinor(total, USD);
+        decimalPayment = payment.getAmount();
+    }
+
+    @Benchmark
+    public boolean longMinorUnits() {
+        long total = 0;
+        for (int i = 0; i < itemsPerOrder; i++) {
+            total = Math.addExact(total, Math.multiplyExact(pricesMinor[i], quantities[i]));
+        }
+        return paymentMinor >= total;
+    }
+
+    @Benchmark
+    public boolean moneyValueType() {
+        Money total = Money.zero(USD);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            total = total.plus(prices[i].times(quantities[i]));
+        }
+        return payment.isAtLeast(total);
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemsPerOrder; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return decimalPayment.compareTo(total) >= 0;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.ecommerce_order_service.benchmark;
+
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import jakarta.persistence.*;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders/sec persisted through Hibernate on an embedded H2 database.
+ * "identity" mirrors the old IDENTITY mapping (one round-trip per row), "pooled" uses the
+ * production entities with pooled sequence ids and JDBC batching.
+ * Inserts/sec = score * (1 + itemsPerOrder).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    @Param({"1", "20"})
+    private int itemsPerOrder;
+
+    @Param({"identity", "pooled"})
+    private String idStrategy;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration configuration = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:order_insert_" + idStrategy + ";DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true");
+
+        if ("identity".equals(idStrategy)) {
+            configuration.addAnnotatedClass(IdentityOrder.class).addAnnotatedClass(IdentityOrderItem.class);
+        } else {
+            configuration.addAnnotatedClass(Order.class).addAnnotatedClass(OrderItem.class);
+        }
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Object insertOrder() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Object order = "identity".equals(idStrategy) ? newIdentityOrder() : newOrder();
+            session.persist(order);
+            transaction.commit();
+            return order;
+        }
+    }
+
+    private Order newOrder() {
+        Order order = new Order();
+        order.setUserId(1L);
+        order.setOrderDate(LocalDateTime.now());
+        order.setOrderStatus(OrderStatus.CREATED);
+
+        List<OrderItem> items = new ArrayList<>(itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId((long) i);
+            item.setQuantity(1);
+            item.setPriceMinor(999);
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        order.setTotalAmountMinor(999L * itemsPerOrder);
+        order.setCurrency("USD");
+        return order;
+    }
+
+    private IdentityOrder newIdentityOrder() {
+        IdentityOrder order = new IdentityOrder();
+        order.userId = 1L;
+        order.orderDate = LocalDateTime.now();
+        order.orderStatus = OrderStatus.CREATED;
+        order.totalAmount = 9.99 * itemsPerOrder;
+
+        for (int i = 0; i < itemsPerOrder; i++) {
+            IdentityOrderItem item = new IdentityOrderItem();
+            item.productId = (long) i;
+            item.quantity = 1;
+            item.price = 9.99;
+            item.order = order;
+            order.orderItems.add(item);
+        }
+        return order;
+    }
+
+    // Pre-change mapping of Order/OrderItem, kept here as the baseline
+    @Entity(name = "IdentityOrder")
+    @Table(name = "identity_orders")
+    static class IdentityOrder {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        long id;
+
+        @Column(nullable = false)
+        Long userId;
+
+        @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+        List<IdentityOrderItem> orderItems = new ArrayList<>();
+
+        @Column(nullable = false)
+        LocalDateTime orderDate;
+
+        @Column(nullable = false)
+        Double totalAmount;
+
+        @Enumerated(EnumType.STRING)
+        OrderStatus orderStatus;
+    }
+
+    @Entity(name = "IdentityOrderItem")
+    @Table(name = "identity_order_item")
+    static class IdentityOrderItem {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        @ManyToOne(fetch = FetchType.LAZY)
+        @JoinColumn(name = "order_id", nullable = false)
+        IdentityOrder order;
+
+        @Column(nullable = false)
+        Long productId;
+
+        @Column(nullable = false)
+        int quantity;
+
+        @Column(nullable = false)
+        double price;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.ecommerce_order_service.benchmark;
+
+import com.example.ecommerce_order_service.DTO.OrderItemProjection;
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.OrderPage;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.inventory.StubInventorySource;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.ArchivedOrderRepository;
+import com.example.ecommerce_order_service.repositories.OrderItemRepository;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import com.example.ecommerce_order_service.repositories.OutboxEventRepository;
+import com.example.ecommerce_order_service.repositories.UserOrderSummaryRepository;
+import com.example.ecommerce_order_service.services.OrderEventOutbox;
+import com.example.ecommerce_order_service.services.OrderServiceImpl;
+import com.example.ecommerce_order_service.services.OrderSummaryStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the order service code around the database, with repositories stubbed out.
+ * createOrder covers entity building, the total calculation, the stock reservation, serializing the outbox event
+ * and the summary delta; getOrdersPage covers assembling OrderResponse DTOs from the order and item projection rows.
+ * Run with -prof gc (the benchmark profile's default) to see bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "20"})
+    private int itemsPerOrder;
+
+    private static final int PAGE_SIZE = 50;
+
+    private OrderServiceImpl orderService;
+    private List<OrderItemRequest> orderItems;
+    private LocalDateTime orderDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderItems = new ArrayList<>(itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            orderItems.add(new OrderItemRequest((long) i, 2, new BigDecimal("19.99")));
+        }
+
+        orderDate = LocalDateTime.now();
+        List<OrderItemProjection> itemRows = new ArrayList<>(PAGE_SIZE * itemsPerOrder);
+        for (long orderId = 1; orderId <= PAGE_SIZE; orderId++) {
+            for (int i = 0; i < itemsPerOrder; i++) {
+                itemRows.add(new OrderItemProjection(orderId, orderId * 100 + i, (long) i, 2, 1999L));
+            }
+        }
+
+        OrderRepository orderRepository = stub(OrderRepository.class, (method, args) -> switch (method) {
+            case "save" -> args[0];
+            // Hibernate builds fresh DTOs for every query, and attaching items mutates them
+            case "findOrderResponsesByUserId" -> orderRows();
+            default -> throw new UnsupportedOperationException(method);
+        });
+        OrderItemRepository orderItemRepository = stub(OrderItemRepository.class, (method, args) -> switch (method) {
+            case "findProjectionsByOrderIdIn" -> itemRows;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        // No archived orders, as for most users
+        ArchivedOrderRepository archivedOrderRepository = stub(ArchivedOrderRepository.class, (method, args) -> switch (method) {
+            case "findOrderResponsesByUserId" -> List.of();
+            default -> throw new UnsupportedOperationException(method);
+        });
+        OutboxEventRepository outboxEventRepository = stub(OutboxEventRepository.class, (method, args) -> switch (method) {
+            case "save" -> args[0];
+            default -> throw new UnsupportedOperationException(method);
+        });
+        UserOrderSummaryRepository summaryRepository = stub(UserOrderSummaryRepository.class, (method, args) -> switch (method) {
+            case "existsById" -> true;
+            case "applyDelta" -> 1;
+            default -> throw new UnsupportedOperationException(method);
+        });
+
+        OrderEventOutbox orderEventOutbox = new OrderEventOutbox(outboxEventRepository, Jackson2ObjectMapperBuilder.json().build());
+        OrderMetrics orderMetrics = new OrderMetrics(new SimpleMeterRegistry());
+        orderService = new OrderServiceImpl(orderRepository, orderItemRepository, null, null, orderEventOutbox, null,
+                orderMetrics, new OrderSummaryStore(summaryRepository, null), Currency.getInstance("USD"), null,
+                event -> { }, null, archivedOrderRepository, null,
+                new InventoryReservations(new StubInventorySource(Long.MAX_VALUE), true, 64), new OrderReadCoalescer(orderMetrics, true));
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(1L, orderItems);
+    }
+
+    @Benchmark
+    public OrderPage getOrdersPage() {
+        return orderService.getOrdersByUserId(1L, null, PAGE_SIZE);
+    }
+
+    private List<OrderResponse> orderRows() {
+        List<OrderResponse> rows = new ArrayList<>(PAGE_SIZE);
+        for (long orderId = 1; orderId <= PAGE_SIZE; orderId++) {
+            rows.add(new OrderResponse(orderId, 1L, orderDate, 1999L * 2 * itemsPerOrder, "USD", OrderStatus.CREATED));
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface StubMethod {
+        Object invoke(String method, Object[] args);
+    }
+
+    // A JDK proxy is far cheaper per call than a mocking framework, so it barely shows up in the numbers
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, StubMethod stubMethod) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> stubMethod.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ecommerce_order_service.benchmark;
+
+import com.example.ecommerce_order_service.DTO.OrderItemResponse;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.DTO.PaymentConfirmedEvent;
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per message of the payloads on the hot paths, in each wire format: OrderResponse bodies written by the
+ * controller and PaymentConfirmedEvent records read by the Kafka listener. The JSON mapper is configured like
+ * Spring Boot's, CBOR is a copy of it as in WireFormatConfig and EventCodec. Encoded sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"1", "20"})
+    private int itemsPerOrder;
+
+    @Param({"JSON", "CBOR"})
+    private String format;
+
+    private ObjectWriter orderResponseWriter;
+    private ObjectReader orderResponseReader;
+    private ObjectReader paymentConfirmedReader;
+    private ObjectWriter paymentConfirmedWriter;
+
+    private OrderResponse orderResponse;
+    private byte[] orderResponseBytes;
+    private PaymentConfirmedEvent paymentConfirmedEvent;
+    private byte[] paymentConfirmedBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper objectMapper = "CBOR".equals(format) ? jsonMapper.copyWith(new CBORFactory()) : jsonMapper;
+        orderResponseWriter = objectMapper.writerFor(OrderResponse.class);
+        orderResponseReader = objectMapper.readerFor(OrderResponse.class);
+        paymentConfirmedWriter = objectMapper.writerFor(PaymentConfirmedEvent.class);
+        paymentConfirmedReader = objectMapper.readerFor(PaymentConfirmedEvent.class);
+
+        List<OrderItemResponse> items = new ArrayList<>(itemsPerOrder);
+        for (int i = 0; i < itemsPerOrder; i++) {
+            items.add(new OrderItemResponse((long) i, 1000L + i, 2, Money.ofMinor(1999, "USD")));
+        }
+        orderResponse = new OrderResponse(42L, 7L, LocalDateTime.now(), Money.ofMinor(1999L * 2 * itemsPerOrder, "USD"), OrderStatus.PAID, items);
+        orderResponseBytes = orderResponseWriter.writeValueAsBytes(orderResponse);
+
+        paymentConfirmedEvent = new PaymentConfirmedEvent();
+        paymentConfirmedEvent.setOrderId(42L);
+        paymentConfirmedEvent.setStatus("CONFIRMED");
+        paymentConfirmedBytes = paymentConfirmedWriter.writeValueAsBytes(paymentConfirmedEvent);
+
+        System.out.printf("%n%s, %d items: OrderResponse %d bytes, PaymentConfirmedEvent %d bytes%n",
+                format, itemsPerOrder, orderResponseBytes.length, paymentConfirmedBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeOrderResponse() throws Exception {
+        return orderResponseWriter.writeValueAsBytes(orderResponse);
+    }
+
+    @Benchmark
+    public OrderResponse readOrderResponse() throws Exception {
+        return orderResponseReader.readValue(orderResponseBytes);
+    }
+
+    @Benchmark
+    public byte[] writePaymentConfirmedEvent() throws Exception {
+        return paymentConfirmedWriter.writeValueAsBytes(paymentConfirmedEvent);
+    }
+
+    @Benchmark
+    public PaymentConfirmedEvent readPaymentConfirmedEvent() throws Exception {
+        return paymentConfirmedReader.readValue(paymentConfirmedBytes);
+    }
+}
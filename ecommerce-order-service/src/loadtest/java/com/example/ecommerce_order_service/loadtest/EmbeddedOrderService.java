@@ -0,0 +1,53 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.EcommerceOrderServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+/**
+ * The full application on a random port, backed by an in-memory H2 database and a single-node
+ * embedded Kafka broker, so a load run needs no external services.
+ */
+public class EmbeddedOrderService implements AutoCloseable {
+
+    private final EmbeddedKafkaKraftBroker kafkaBroker;
+    private final ConfigurableApplicationContext context;
+
+    public EmbeddedOrderService(boolean virtualThreads) {
+        kafkaBroker = new EmbeddedKafkaKraftBroker(1, 3, "payment-confirmed", "order-events");
+        kafkaBroker.afterPropertiesSet();
+
+        // Passed as command-line args so they override application.properties
+        context = new SpringApplicationBuilder(EcommerceOrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:order_load;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.kafka.bootstrap-servers=" + kafkaBroker.getBrokersAsString(),
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    public ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/orders";
+    }
+
+    public String kafkaBootstrapServers() {
+        return kafkaBroker.getBrokersAsString();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        kafkaBroker.destroy();
+    }
+}
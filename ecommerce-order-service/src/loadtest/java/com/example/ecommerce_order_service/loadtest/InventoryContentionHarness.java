@@ -0,0 +1,138 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.exceptions.InsufficientStockException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.inventory.StubInventorySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flash sale on one SKU: thousands of platform threads reserve one unit at a time until the stock is gone,
+ * while a few threads keep reserving products of their own. Prints reservations per second and the latency
+ * of a reservation for both, once per stripe count, and fails if a single unit more than the stock was sold.
+ *
+ * Runs InventoryReservations directly against the stub inventory source, no application context or database;
+ * stripe count 1 is the single-lock baseline, where the other products queue behind the hot one.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.ecommerce_order_service.loadtest.InventoryContentionHarness
+ *     -Dloadtest.args="--threads=2000 --stock=200000 --stripes=1,64 --cold-threads=16 --cold-reservations=5000"
+ */
+public class InventoryContentionHarness {
+    private static final long HOT_PRODUCT_ID = 1;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        int threads = Integer.parseInt(options.getOrDefault("threads", "2000"));
+        long stock = Long.parseLong(options.getOrDefault("stock", "200000"));
+        int coldThreads = Integer.parseInt(options.getOrDefault("cold-threads", "16"));
+        int coldReservations = Integer.parseInt(options.getOrDefault("cold-reservations", "5000"));
+        List<Integer> stripeCounts = new ArrayList<>();
+        for (String count : options.getOrDefault("stripes", "1,64").split(",")) {
+            stripeCounts.add(Integer.parseInt(count.trim()));
+        }
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("Hot SKU with %d units, %d threads; %d threads reserving %d units of their own products each",
+                stock, threads, coldThreads, coldReservations));
+        boolean oversold = false;
+        for (int stripes : stripeCounts) {
+            StubInventorySource inventorySource = new StubInventorySource(Long.MAX_VALUE / 2);
+            inventorySource.setStockLevel(HOT_PRODUCT_ID, stock);
+            InventoryReservations reservations = new InventoryReservations(inventorySource, true, stripes);
+
+            AtomicLong reserved = new AtomicLong();
+            LatencySamples[] hotSamples = new LatencySamples[threads];
+            LatencySamples[] coldSamples = new LatencySamples[coldThreads];
+            List<Thread> workers = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < threads; i++) {
+                LatencySamples samples = hotSamples[i] = new LatencySamples();
+                workers.add(Thread.ofPlatform().unstarted(() -> {
+                    awaitStart(start);
+                    while (reserve(reservations, Map.of(HOT_PRODUCT_ID, 1L), samples)) {
+                        reserved.incrementAndGet();
+                    }
+                }));
+            }
+            for (int i = 0; i < coldThreads; i++) {
+                LatencySamples samples = coldSamples[i] = new LatencySamples();
+                Map<Long, Long> units = Map.of(HOT_PRODUCT_ID + 1 + i, 1L);
+                workers.add(Thread.ofPlatform().unstarted(() -> {
+                    awaitStart(start);
+                    for (int n = 0; n < coldReservations; n++) {
+                        reserve(reservations, units, samples);
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+            LatencySamples hot = merge(hotSamples);
+            LatencySamples cold = merge(coldSamples);
+            long available = reservations.available(HOT_PRODUCT_ID);
+            oversold |= reserved.get() != stock || available != 0;
+            report.add("");
+            report.add(String.format("stripes %-4d %d of %d units reserved in %.2fs (%.0f reservations/s), %d left%s",
+                    stripes, reserved.get(), stock, seconds, (reserved.get() + (long) coldThreads * coldReservations) / seconds,
+                    available, reserved.get() > stock ? "  OVERSOLD" : ""));
+            report.add("  hot SKU    " + hot.summary());
+            report.add("  other SKUs " + cold.summary());
+        }
+
+        System.out.println();
+        report.forEach(System.out::println);
+        if (oversold) {
+            System.exit(1);
+        }
+    }
+
+    // Returns false once the product is sold out; the attempt that finds it sold out is recorded too
+    private static boolean reserve(InventoryReservations reservations, Map<Long, Long> units, LatencySamples samples) {
+        long start = System.nanoTime();
+        try {
+            reservations.reserve(units);
+            return true;
+        } catch (InsufficientStockException e) {
+            return false;
+        } finally {
+            samples.record(System.nanoTime() - start);
+        }
+    }
+
+    private static void awaitStart(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static LatencySamples merge(LatencySamples[] perThread) {
+        LatencySamples merged = new LatencySamples();
+        for (LatencySamples samples : perThread) {
+            merged.merge(samples);
+        }
+        return merged;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
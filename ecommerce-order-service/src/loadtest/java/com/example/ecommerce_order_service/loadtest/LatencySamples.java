@@ -0,0 +1,52 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Raw latency samples in nanoseconds. Not thread-safe: each load thread records into its own
+ * instance and the instances are merged when the run is over.
+ */
+public class LatencySamples {
+    private long[] samples = new long[1024];
+    private int count;
+    private boolean sorted;
+
+    public void record(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+        sorted = false;
+    }
+
+    public void merge(LatencySamples other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        sorted = false;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    // Nearest-rank percentile in milliseconds, NaN when nothing was recorded
+    public double percentileMillis(double percentile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return samples[Math.min(Math.max(index, 0), count - 1)] / 1e6;
+    }
+
+    public String summary() {
+        return String.format("p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms",
+                percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999), percentileMillis(1.0));
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+// Bearer tokens signed with the service's jwt.secret from application.properties
+public final class LoadTestTokens {
+    private static final String SECRET = "g+msj/YY6Mz+bkdf6F05zaqdJRYwuu7Wo3yVE6AjhsU=";
+
+    private LoadTestTokens() {
+    }
+
+    public static String bearer(String subject, String... roles) {
+        return "Bearer " + Jwts.builder()
+                .subject(subject)
+                .claim("roles", List.of(roles))
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(2))))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+}
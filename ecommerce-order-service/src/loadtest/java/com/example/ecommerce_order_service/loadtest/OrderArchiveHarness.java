@@ -0,0 +1,121 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.EcommerceOrderServiceApplication;
+import com.example.ecommerce_order_service.services.IOrderService;
+import com.example.ecommerce_order_service.services.OrderArchiveJob;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds old DELIVERED orders and recent PAID ones, archives the old half with OrderArchiveJob and prints
+ * its throughput, then compares lookups of hot and archived orders: getOrderById (each ID read once, so
+ * every read misses the cache) and the first page of a user's orders, which spans both tables.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.ecommerce_order_service.loadtest.OrderArchiveHarness
+ *     -Dloadtest.args="--orders=200000 --reads=5000 --chunk-size=500"
+ */
+public class OrderArchiveHarness {
+    private static final int USERS = 2000;
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int orders = Integer.parseInt(options.getOrDefault("orders", "200000"));
+        int reads = Integer.parseInt(options.getOrDefault("reads", "5000"));
+        int chunkSize = Integer.parseInt(options.getOrDefault("chunk-size", "500"));
+
+        try (ConfigurableApplicationContext context = startApplication(chunkSize)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            IOrderService orderService = context.getBean("OrderServiceImpl", IOrderService.class);
+            int archivable = orders / 2;
+            seedOrders(jdbcTemplate, 1, archivable, 400, "DELIVERED");
+            seedOrders(jdbcTemplate, archivable + 1, orders - archivable, 1, "PAID");
+
+            long start = System.nanoTime();
+            int archived = context.getBean(OrderArchiveJob.class).archiveOrders();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            List<String> report = new ArrayList<>();
+            report.add(String.format("Archived %d of %d orders in %.2fs (%.0f orders/s, chunks of %d), %d left in orders",
+                    archived, orders, seconds, archived / seconds, chunkSize,
+                    jdbcTemplate.queryForObject("select count(*) from orders", Long.class)));
+            report.add("  getOrderById hot       " + readOrders(orderService, archivable + 1, orders, reads).summary());
+            report.add("  getOrderById archived  " + readOrders(orderService, 1, archivable, reads).summary());
+
+            LatencySamples pages = new LatencySamples();
+            for (int i = 0; i < reads; i++) {
+                long userId = ThreadLocalRandom.current().nextLong(USERS) + 1;
+                long readStart = System.nanoTime();
+                orderService.getOrdersByUserId(userId, null, 50);
+                pages.record(System.nanoTime() - readStart);
+            }
+            report.add("  user page (both)       " + pages.summary());
+
+            System.out.println();
+            report.forEach(System.out::println);
+        }
+    }
+
+    // Distinct IDs in a random order, so every read is a cache miss and hits the database
+    private static LatencySamples readOrders(IOrderService orderService, long firstId, long lastId, int reads) {
+        LatencySamples latencies = new LatencySamples();
+        long span = lastId - firstId + 1;
+        long step = Math.max(1, span / reads);
+        long offset = ThreadLocalRandom.current().nextLong(step);
+        for (long i = 0; i < Math.min(reads, span); i++) {
+            long orderId = firstId + (i * step + offset) % span;
+            long start = System.nanoTime();
+            orderService.getOrderById(orderId);
+            latencies.record(System.nanoTime() - start);
+        }
+        return latencies;
+    }
+
+    private static ConfigurableApplicationContext startApplication(int chunkSize) {
+        // Passed as command-line args so they override application.properties
+        return new SpringApplicationBuilder(EcommerceOrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:order_archive;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.kafka.listener.auto-startup=false",
+                "--orders.outbox.relay-enabled=false",
+                "--orders.payments.processor-enabled=false",
+                "--orders.refunds.settlement-enabled=false",
+                "--orders.archive.cron=-", // the harness runs the job itself
+                "--orders.archive.min-age=365d",
+                "--orders.archive.chunk-size=" + chunkSize,
+                "--orders.archive.chunk-pause=0ms",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    // Orders of 25.00 with a single item, spread over USERS users; ids are assigned here
+    private static void seedOrders(JdbcTemplate jdbcTemplate, long firstOrderId, int orders, int daysAgo, String status) {
+        long last = firstOrderId + orders - 1;
+        jdbcTemplate.update("insert into orders (order_id, user_id, order_date, total_amount_minor, currency, order_status, version, " +
+                "refunded_amount_minor, pending_refund_minor) " +
+                "select x, mod(x, " + USERS + ") + 1, dateadd('DAY', -?, current_timestamp), 2500, 'USD', ?, 0, 0, 0 " +
+                "from system_range(?, ?)", daysAgo, status, firstOrderId, last);
+        jdbcTemplate.update("insert into order_item (id, order_id, product_id, quantity, price_minor, refunded_quantity) " +
+                "select x, x, mod(x, 500) + 1, 1, 2500, 0 from system_range(?, ?)", firstOrderId, last);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
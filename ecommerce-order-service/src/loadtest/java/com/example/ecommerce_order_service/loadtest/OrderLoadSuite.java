@@ -0,0 +1,319 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.DTO.BulkOrderRequest;
+import com.example.ecommerce_order_service.DTO.BulkOrderResult;
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.PaymentConfirmedEvent;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import com.example.ecommerce_order_service.services.IOrderService;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end throughput/latency suite for the whole service on embedded H2 and Kafka.
+ *
+ * 1. Per endpoint, an open-loop load at doubling request rates. The highest rate that holds
+ *    p99 under the SLO with under 1% errors is reported as its max sustainable RPS.
+ * 2. A mixed workload at a fixed rate, reporting p50/p99/p999/max per endpoint.
+ * 3. A burst of payment-confirmed events, timed until every order is PAID.
+ *
+ * Latency is measured from each request's scheduled start, not its actual send, so a stalled
+ * server can't hide queueing delay (coordinated omission).
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--virtual-threads=true --slo-p99-ms=100"
+ */
+public class OrderLoadSuite {
+
+    private static final int SEED_CHUNK = 500;
+
+    private final EmbeddedOrderService service;
+    private final HttpClient httpClient;
+    private final String authorization = LoadTestTokens.bearer("loadtest", "USER", "ADMIN");
+    private final int users;
+
+    private long[] readableOrderIds;
+    private long[] patchableOrderIds;
+    private final AtomicInteger nextPatch = new AtomicInteger();
+    private static final OrderStatus[] PATCH_SEQUENCE = {OrderStatus.PAID, OrderStatus.SHIPPED, OrderStatus.DELIVERED};
+
+    public OrderLoadSuite(EmbeddedOrderService service, int users) {
+        this.service = service;
+        this.users = users;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        double sloP99Millis = Double.parseDouble(options.getOrDefault("slo-p99-ms", "250"));
+        int startRate = Integer.parseInt(options.getOrDefault("start-rate", "100"));
+        int maxRate = Integer.parseInt(options.getOrDefault("max-rate", "12800"));
+        Duration stepDuration = duration(options.getOrDefault("step-duration", "10s"));
+        int mixRate = Integer.parseInt(options.getOrDefault("mix-rate", "500"));
+        Duration mixDuration = duration(options.getOrDefault("mix-duration", "60s"));
+        int paymentEvents = Integer.parseInt(options.getOrDefault("payment-events", "20000"));
+
+        try (EmbeddedOrderService service = new EmbeddedOrderService(virtualThreads)) {
+            OrderLoadSuite suite = new OrderLoadSuite(service, users);
+            suite.seed(20, 120_000);
+
+            Map<String, Supplier<HttpRequest>> endpoints = suite.endpoints();
+            endpoints.values().forEach(request -> suite.runAtRate(Map.of("warmup", request), Map.of("warmup", 1), startRate, stepDuration));
+
+            List<String> report = new ArrayList<>();
+            report.add(String.format("Order service load suite (%s threads, SLO p99 <= %.0fms)",
+                    virtualThreads ? "virtual" : "platform", sloP99Millis));
+
+            report.add("");
+            report.add("Max sustainable RPS per endpoint");
+            endpoints.forEach((name, request) ->
+                    report.add(suite.findMaxSustainableRate(name, request, startRate, maxRate, stepDuration, sloP99Millis)));
+
+            report.add("");
+            report.add(String.format("Mixed workload at %d req/s for %s", mixRate, mixDuration));
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            weights.put("POST /api/orders", 20);
+            weights.put("GET /api/orders/{id}", 45);
+            weights.put("GET /api/orders/user/{userId}", 25);
+            weights.put("PATCH /api/orders/{id}/status", 10);
+            suite.runAtRate(endpoints, weights, mixRate, mixDuration)
+                    .forEach((name, result) -> report.add(String.format("  %-32s %s", name, result)));
+
+            report.add("");
+            report.add(suite.drainPaymentEvents(paymentEvents));
+
+            System.out.println();
+            report.forEach(System.out::println);
+        }
+    }
+
+    // Orders for reads are spread over all users; orders for status patches each allow three transitions
+    private void seed(int ordersPerUser, int patchableOrders) {
+        IOrderService orderService = service.context().getBean("OrderServiceImpl", IOrderService.class);
+        readableOrderIds = createOrders(orderService, users * ordersPerUser);
+        patchableOrderIds = createOrders(orderService, patchableOrders);
+    }
+
+    private long[] createOrders(IOrderService orderService, int count) {
+        long[] orderIds = new long[count];
+        int created = 0;
+        while (created < count) {
+            List<BulkOrderRequest> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = 0; i < SEED_CHUNK && created + i < count; i++) {
+                chunk.add(new BulkOrderRequest(1L + (created + i) % users, orderItems()));
+            }
+            for (BulkOrderResult result : orderService.createOrders(chunk)) {
+                orderIds[created++] = result.getOrderId();
+            }
+        }
+        return orderIds;
+    }
+
+    private Map<String, Supplier<HttpRequest>> endpoints() {
+        Map<String, Supplier<HttpRequest>> endpoints = new LinkedHashMap<>();
+        endpoints.put("POST /api/orders", () -> request("?userId=" + randomUser())
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"productId\":1,\"quantity\":2,\"price\":10.0},{\"productId\":7,\"quantity\":1,\"price\":4.5}]"))
+                .build());
+        endpoints.put("GET /api/orders/{id}", () -> request("/" + readableOrderIds[ThreadLocalRandom.current().nextInt(readableOrderIds.length)])
+                .GET()
+                .build());
+        endpoints.put("GET /api/orders/user/{userId}", () -> request("/user/" + randomUser() + "?limit=20")
+                .GET()
+                .build());
+        endpoints.put("PATCH /api/orders/{id}/status", () -> {
+            // Walks every order through PAID, then SHIPPED, then DELIVERED so each patch is a legal transition
+            int patch = nextPatch.getAndIncrement() % (patchableOrderIds.length * PATCH_SEQUENCE.length);
+            OrderStatus status = PATCH_SEQUENCE[patch / patchableOrderIds.length];
+            return request("/" + patchableOrderIds[patch % patchableOrderIds.length] + "/status")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("\"" + status + "\""))
+                    .build();
+        });
+        return endpoints;
+    }
+
+    private String findMaxSustainableRate(String name, Supplier<HttpRequest> request, int startRate, int maxRate,
+                                          Duration stepDuration, double sloP99Millis) {
+        String sustained = "none";
+        for (int rate = startRate; rate <= maxRate; rate *= 2) {
+            RateResult result = runAtRate(Map.of(name, request), Map.of(name, 1), rate, stepDuration).get(name);
+            System.out.printf("%s @ %d req/s: %s%n", name, rate, result);
+            if (result.p99Millis() > sloP99Millis || result.errorRate() > 0.01) {
+                break;
+            }
+            sustained = rate + " req/s (" + result + ")";
+        }
+        return String.format("  %-32s %s", name, sustained);
+    }
+
+    // Open loop: requests start on schedule whether or not earlier ones have finished
+    private Map<String, RateResult> runAtRate(Map<String, Supplier<HttpRequest>> endpoints, Map<String, Integer> weights,
+                                              int rate, Duration duration) {
+        List<String> names = new ArrayList<>();
+        weights.forEach((name, weight) -> names.addAll(Collections.nCopies(weight, name)));
+
+        Map<String, LatencySamples> samples = new LinkedHashMap<>();
+        Map<String, AtomicInteger> errors = new HashMap<>();
+        for (String name : weights.keySet()) {
+            samples.put(name, new LatencySamples());
+            errors.put(name, new AtomicInteger());
+        }
+
+        long intervalNanos = 1_000_000_000L / rate;
+        long total = rate * duration.toSeconds();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String name = names.get(ThreadLocalRandom.current().nextInt(names.size()));
+                executor.submit(() -> {
+                    boolean ok;
+                    try {
+                        int status = httpClient.send(endpoints.get(name).get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status >= 200 && status < 300;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long latency = System.nanoTime() - scheduled;
+                    if (!ok) {
+                        errors.get(name).incrementAndGet();
+                        return;
+                    }
+                    LatencySamples endpointSamples = samples.get(name);
+                    synchronized (endpointSamples) {
+                        endpointSamples.record(latency);
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, RateResult> results = new LinkedHashMap<>();
+        samples.forEach((name, latencies) -> results.put(name, new RateResult(latencies, errors.get(name).get(), seconds)));
+        return results;
+    }
+
+    // Publishes one PAID event per fresh order as fast as the producer allows and waits until all are applied
+    private String drainPaymentEvents(int count) {
+        IOrderService orderService = service.context().getBean("OrderServiceImpl", IOrderService.class);
+        OrderRepository orderRepository = service.context().getBean(OrderRepository.class);
+        long[] orderIds = createOrders(orderService, count);
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, service.kafkaBootstrapServers());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+
+        long start = System.nanoTime();
+        try (KafkaProducer<String, PaymentConfirmedEvent> producer = new KafkaProducer<>(props)) {
+            for (long orderId : orderIds) {
+                PaymentConfirmedEvent event = new PaymentConfirmedEvent();
+                event.setOrderId(orderId);
+                event.setStatus("PAID");
+                producer.send(new ProducerRecord<>("payment-confirmed", Long.toString(orderId), event));
+            }
+        }
+        double publishSeconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> pending = new ArrayList<>(count);
+        Arrays.stream(orderIds).forEach(pending::add);
+        long deadline = System.nanoTime() + Duration.ofMinutes(5).toNanos();
+        while (!pending.isEmpty() && System.nanoTime() < deadline) {
+            List<Long> stillPending = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += 1000) {
+                List<Long> chunk = pending.subList(from, Math.min(from + 1000, pending.size()));
+                Set<Long> paid = new HashSet<>(orderRepository.findIdsByIdInAndOrderStatusIn(chunk, Set.of(OrderStatus.PAID)));
+                chunk.stream().filter(id -> !paid.contains(id)).forEach(stillPending::add);
+            }
+            pending = stillPending;
+            if (!pending.isEmpty()) {
+                LockSupport.parkNanos(Duration.ofMillis(100).toNanos());
+            }
+        }
+        double drainSeconds = (System.nanoTime() - start) / 1e9;
+
+        return String.format("payment-confirmed: %d events published in %.2fs, %d applied in %.2fs (%.0f events/s end to end)",
+                count, publishSeconds, count - pending.size(), drainSeconds, (count - pending.size()) / drainSeconds);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(service.baseUrl() + path))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    private static List<OrderItemRequest> orderItems() {
+        return List.of(new OrderItemRequest(1L, 2, new BigDecimal("10.00")), new OrderItemRequest(7L, 1, new BigDecimal("4.50")));
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static class RateResult {
+        private final LatencySamples latencies;
+        private final int errors;
+        private final double seconds;
+
+        RateResult(LatencySamples latencies, int errors, double seconds) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+
+        double p99Millis() {
+            return latencies.percentileMillis(0.99);
+        }
+
+        double errorRate() {
+            int total = latencies.count() + errors;
+            return total == 0 ? 0 : (double) errors / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ok=%d (%.0f req/s) errors=%d %s", latencies.count(), latencies.count() / seconds, errors, latencies.summary());
+        }
+    }
+}
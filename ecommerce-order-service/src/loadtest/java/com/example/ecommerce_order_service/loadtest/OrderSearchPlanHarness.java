@@ -0,0 +1,189 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.EcommerceOrderServiceApplication;
+import com.example.ecommerce_order_service.DTO.OrderSearchCriteria;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.services.IOrderService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Seeds a multi-million row orders table (plus two items per order) straight through SQL, then for each
+ * search shape prints the database's plan for the equivalent SQL and the latency of the search through
+ * the service. A shape whose plan falls back to a table scan is flagged, i.e. a missing or unusable index.
+ *
+ * Runs on in-memory H2, so the plans show which index is picked rather than MySQL's exact costs;
+ * run the printed SQL with EXPLAIN against a MySQL copy for those.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.ecommerce_order_service.loadtest.OrderSearchPlanHarness
+ *     -Dloadtest.args="--orders=2000000 --searches=500"
+ */
+public class OrderSearchPlanHarness {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int SEED_CHUNK = 500_000;
+    private static final int PAGE_SIZE = 50;
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int orders = Integer.parseInt(options.getOrDefault("orders", "2000000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "100000"));
+        int products = Integer.parseInt(options.getOrDefault("products", "20000"));
+        int searches = Integer.parseInt(options.getOrDefault("searches", "500"));
+
+        try (ConfigurableApplicationContext context = startApplication()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            IOrderService orderService = context.getBean("OrderServiceImpl", IOrderService.class);
+
+            long seedStart = System.nanoTime();
+            seed(jdbcTemplate, orders, users, products);
+            System.out.printf("Seeded %d orders and %d items in %.1fs%n", orders, orders * 2L,
+                    (System.nanoTime() - seedStart) / 1e9);
+
+            // One order per second from EPOCH, so a day holds 86400 orders
+            LocalDateTime lastOrderDate = EPOCH.plusSeconds(orders);
+            List<Shape> shapes = List.of(
+                    new Shape("user",
+                            "select * from orders where user_id = 42 order by order_date, order_id limit 51",
+                            () -> criteria(randomUser(users), null, null, null, null)),
+                    new Shape("user + date range",
+                            "select * from orders where user_id = 42 and order_date >= timestamp '2024-01-05 00:00:00' " +
+                                    "and order_date < timestamp '2024-01-12 00:00:00' order by order_date, order_id limit 51",
+                            () -> {
+                                LocalDateTime from = randomDate(lastOrderDate);
+                                return criteria(randomUser(users), null, from, from.plusDays(7), null);
+                            }),
+                    new Shape("user + amount range",
+                            "select * from orders where user_id = 42 and currency = 'USD' and total_amount_minor >= 10000 " +
+                                    "and total_amount_minor <= 50000 order by order_date, order_id limit 51",
+                            () -> new OrderSearchCriteria(randomUser(users), null, null, null,
+                                    new BigDecimal("100.00"), new BigDecimal("500.00"), null)),
+                    new Shape("status set + date range",
+                            "select * from orders where order_status in ('PAID', 'SHIPPED') and order_date >= timestamp '2024-01-05 00:00:00' " +
+                                    "and order_date < timestamp '2024-01-05 01:00:00' order by order_date, order_id limit 51",
+                            () -> {
+                                LocalDateTime from = randomDate(lastOrderDate);
+                                return criteria(null, EnumSet.of(OrderStatus.PAID, OrderStatus.SHIPPED), from, from.plusHours(1), null);
+                            }),
+                    new Shape("product",
+                            "select * from orders where order_id in (select order_id from order_item where product_id = 42) " +
+                                    "order by order_date, order_id limit 51",
+                            () -> criteria(null, null, null, null, randomProduct(products))),
+                    new Shape("status + product",
+                            "select * from orders where order_status in ('DELIVERED') and order_id in " +
+                                    "(select order_id from order_item where product_id = 42) order by order_date, order_id limit 51",
+                            () -> criteria(null, EnumSet.of(OrderStatus.DELIVERED), null, null, randomProduct(products))));
+
+            List<String> report = new ArrayList<>();
+            report.add(String.format("Order search on %d orders, %d searches per shape, page size %d", orders, searches, PAGE_SIZE));
+            for (Shape shape : shapes) {
+                String plan = String.join(" ", jdbcTemplate.queryForList("explain " + shape.sql, String.class));
+                LatencySamples latencies = run(orderService, shape.criteria, searches);
+
+                report.add("");
+                report.add(String.format("%-24s %s%s", shape.name, latencies.summary(),
+                        plan.contains("tableScan") ? "  <-- TABLE SCAN" : ""));
+                report.add("  " + plan.replaceAll("\\s+", " "));
+            }
+
+            System.out.println();
+            report.forEach(System.out::println);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication() {
+        // Passed as command-line args so they override application.properties
+        return new SpringApplicationBuilder(EcommerceOrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:order_search;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.kafka.listener.auto-startup=false",
+                "--orders.outbox.relay-enabled=false",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    // Set-based inserts in chunks. Ids are assigned here and the sequences still start at 1, so the harness never creates orders itself
+    private static void seed(JdbcTemplate jdbcTemplate, int orders, int users, int products) {
+        for (int from = 1; from <= orders; from += SEED_CHUNK) {
+            int to = Math.min(orders, from + SEED_CHUNK - 1);
+            jdbcTemplate.update("insert into orders (order_id, user_id, order_date, total_amount_minor, currency, order_status, version) " +
+                    "select x, mod(x * 7919, ?) + 1, dateadd('SECOND', x, timestamp '2024-01-01 00:00:00'), 500 + mod(x * 104729, 100000), 'USD', " +
+                    "case mod(x, 5) when 0 then 'CREATED' when 1 then 'PAID' when 2 then 'SHIPPED' when 3 then 'DELIVERED' else 'CANCELED' end, 0 " +
+                    "from system_range(?, ?)", users, from, to);
+            jdbcTemplate.update("insert into order_item (id, order_id, product_id, quantity, price_minor) " +
+                    "select x, (x + 1) / 2, mod(x * 31, ?) + 1, 1, 250 from system_range(?, ?)",
+                    products, from * 2L - 1, to * 2L);
+        }
+        jdbcTemplate.execute("analyze");
+    }
+
+    private static LatencySamples run(IOrderService orderService, Supplier<OrderSearchCriteria> criteria, int searches) {
+        for (int i = 0; i < Math.max(50, searches / 5); i++) {
+            orderService.searchOrders(criteria.get(), null, PAGE_SIZE); // warm up
+        }
+        LatencySamples latencies = new LatencySamples();
+        for (int i = 0; i < searches; i++) {
+            OrderSearchCriteria search = criteria.get();
+            long start = System.nanoTime();
+            orderService.searchOrders(search, null, PAGE_SIZE);
+            latencies.record(System.nanoTime() - start);
+        }
+        return latencies;
+    }
+
+    private static OrderSearchCriteria criteria(Long userId, EnumSet<OrderStatus> statuses, LocalDateTime from,
+                                                LocalDateTime to, Long productId) {
+        return new OrderSearchCriteria(userId, statuses, from, to, null, null, productId);
+    }
+
+    private static long randomUser(int users) {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    private static long randomProduct(int products) {
+        return ThreadLocalRandom.current().nextLong(1, products + 1);
+    }
+
+    private static LocalDateTime randomDate(LocalDateTime last) {
+        long seconds = Duration.between(EPOCH, last).toSeconds();
+        return EPOCH.plusSeconds(ThreadLocalRandom.current().nextLong(Math.max(1, seconds - 7 * 86_400)));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static class Shape {
+        private final String name;
+        private final String sql;
+        private final Supplier<OrderSearchCriteria> criteria;
+
+        private Shape(String name, String sql, Supplier<OrderSearchCriteria> criteria) {
+            this.name = name;
+            this.sql = sql;
+            this.criteria = criteria;
+        }
+    }
+}
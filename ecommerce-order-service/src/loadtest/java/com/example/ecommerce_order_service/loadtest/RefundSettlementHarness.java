@@ -0,0 +1,131 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.DTO.RefundRequest;
+import com.example.ecommerce_order_service.EcommerceOrderServiceApplication;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.payments.RefundGateway;
+import com.example.ecommerce_order_service.payments.RefundSettlementJob;
+import com.example.ecommerce_order_service.repositories.RefundRepository;
+import com.example.ecommerce_order_service.services.IOrderService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records a burst of full refunds against freshly seeded PAID orders, then drains them with the
+ * settlement job once per batch size and prints settled refunds per second, gateway calls, and the
+ * latency of recording a refund and of a refund from being recorded to being settled.
+ *
+ * Settlement runs against the stub refund gateway, whose per-call latency stands in for the provider's
+ * round trip; batch size 1 is the one-call-per-refund baseline.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.ecommerce_order_service.loadtest.RefundSettlementHarness
+ *     -Dloadtest.args="--refunds=20000 --batch-sizes=1,50,500 --call-latency-ms=20"
+ */
+public class RefundSettlementHarness {
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int refunds = Integer.parseInt(options.getOrDefault("refunds", "20000"));
+        long callLatencyMs = Long.parseLong(options.getOrDefault("call-latency-ms", "20"));
+        List<Integer> batchSizes = new ArrayList<>();
+        for (String size : options.getOrDefault("batch-sizes", "1,50,500").split(",")) {
+            batchSizes.add(Integer.parseInt(size.trim()));
+        }
+
+        try (ConfigurableApplicationContext context = startApplication(callLatencyMs)) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            IOrderService orderService = context.getBean("OrderServiceImpl", IOrderService.class);
+
+            List<String> report = new ArrayList<>();
+            report.add(String.format("Refund settlement of %d refunds, stub gateway latency %dms per call", refunds, callLatencyMs));
+            long firstOrderId = 1;
+            for (int batchSize : batchSizes) {
+                seedPaidOrders(jdbcTemplate, firstOrderId, refunds);
+
+                LatencySamples recording = new LatencySamples();
+                for (long orderId = firstOrderId; orderId < firstOrderId + refunds; orderId++) {
+                    long start = System.nanoTime();
+                    orderService.processRefund(orderId, new RefundRequest(null, null, "load test", null));
+                    recording.record(System.nanoTime() - start);
+                }
+
+                RefundSettlementJob job = new RefundSettlementJob(context.getBean(RefundRepository.class), orderService,
+                        context.getBean(RefundGateway.class), context.getBean(TransactionTemplate.class),
+                        context.getBean(OrderMetrics.class), batchSize, 3, Duration.ofSeconds(1), Duration.ofSeconds(10),
+                        Duration.ofMinutes(5));
+                long start = System.nanoTime();
+                job.settlePendingRefunds();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                LatencySamples settlement = settlementLatencies(jdbcTemplate, firstOrderId, refunds);
+                report.add("");
+                report.add(String.format("batch size %-5d %d settled in %.2fs (%.0f refunds/s, %d gateway calls)",
+                        batchSize, settlement.count(), seconds, settlement.count() / seconds, (refunds + batchSize - 1) / batchSize));
+                report.add("  record refund      " + recording.summary());
+                report.add("  recorded->settled  " + settlement.summary());
+                firstOrderId += refunds;
+            }
+
+            System.out.println();
+            report.forEach(System.out::println);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(long callLatencyMs) {
+        // Passed as command-line args so they override application.properties
+        return new SpringApplicationBuilder(EcommerceOrderServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:refund_settlement;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.kafka.listener.auto-startup=false",
+                "--orders.outbox.relay-enabled=false",
+                "--orders.payments.processor-enabled=false",
+                "--orders.refunds.settlement-enabled=false", // the harness drives its own job per batch size
+                "--orders.refunds.stub.call-latency=" + callLatencyMs + "ms",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN");
+    }
+
+    // One PAID order of 25.00 with a single item per refund; ids are assigned here, the harness never creates orders itself
+    private static void seedPaidOrders(JdbcTemplate jdbcTemplate, long firstOrderId, int orders) {
+        long last = firstOrderId + orders - 1;
+        jdbcTemplate.update("insert into orders (order_id, user_id, order_date, total_amount_minor, currency, order_status, version, " +
+                "refunded_amount_minor, pending_refund_minor) " +
+                "select x, mod(x, 1000) + 1, current_timestamp, 2500, 'USD', 'PAID', 0, 0, 0 from system_range(?, ?)", firstOrderId, last);
+        jdbcTemplate.update("insert into order_item (id, order_id, product_id, quantity, price_minor, refunded_quantity) " +
+                "select x, x, mod(x, 500) + 1, 1, 2500, 0 from system_range(?, ?)", firstOrderId, last);
+    }
+
+    private static LatencySamples settlementLatencies(JdbcTemplate jdbcTemplate, long firstOrderId, int orders) {
+        LatencySamples latencies = new LatencySamples();
+        jdbcTemplate.query("select created_at, settled_at from refunds where order_id between ? and ? and settled_at is not null",
+                rs -> {
+                    Timestamp created = rs.getTimestamp(1);
+                    Timestamp settled = rs.getTimestamp(2);
+                    latencies.record(Duration.between(created.toInstant(), settled.toInstant()).toNanos());
+                }, firstOrderId, firstOrderId + orders - 1);
+        return latencies;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
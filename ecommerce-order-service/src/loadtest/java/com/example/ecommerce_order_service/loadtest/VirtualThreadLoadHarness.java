@@ -0,0 +1,184 @@
+package com.example.ecommerce_order_service.loadtest;
+
+import com.example.ecommerce_order_service.EcommerceOrderServiceApplication;
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.services.IOrderService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the same closed-loop load against the service twice, once with platform request threads and once
+ * with spring.threads.virtual.enabled, and prints throughput and latency percentiles for each mode.
+ *
+ * The app runs in-process on H2 with Kafka listeners and the outbox relay switched off. Every JDBC
+ * connection checkout sleeps for db-latency-ms while holding the connection to mimic a slow MySQL.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.ecommerce_order_service.loadtest.VirtualThreadLoadHarness
+ *     -Dloadtest.args="--clients=1000 --duration=30s --db-latency-ms=20"
+ */
+public class VirtualThreadLoadHarness {
+
+    private static final int USERS = 500;
+
+    // Switched on only after seeding, so the seed data isn't written at "slow MySQL" speed
+    private static volatile long injectedLatencyMillis;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "30s").toUpperCase());
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s").toUpperCase());
+        long dbLatencyMillis = Long.parseLong(options.getOrDefault("db-latency-ms", "20"));
+
+        List<String> report = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            injectedLatencyMillis = 0;
+            try (ConfigurableApplicationContext context = startApplication(mode, virtualThreads)) {
+                seedOrders(context);
+                injectedLatencyMillis = dbLatencyMillis;
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+                runLoad(port, clients, warmup);
+                report.add(mode + " " + runLoad(port, clients, duration));
+            }
+        }
+
+        System.out.printf("%nGET /api/orders/user/{userId}?limit=20, %d clients, %s, %d ms per connection checkout%n",
+                clients, duration, dbLatencyMillis);
+        report.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext startApplication(String mode, boolean virtualThreads) {
+        // Passed as command-line args so they override application.properties
+        return new SpringApplicationBuilder(EcommerceOrderServiceApplication.class)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(slowDataSource()))
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest_" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.kafka.listener.auto-startup=false",
+                        "--orders.outbox.relay-enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    private static BeanPostProcessor slowDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        Connection connection = super.getConnection();
+                        long latencyMillis = injectedLatencyMillis;
+                        if (latencyMillis == 0) {
+                            return connection;
+                        }
+                        try {
+                            Thread.sleep(latencyMillis);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return connection;
+                    }
+                };
+            }
+        };
+    }
+
+    private static void seedOrders(ConfigurableApplicationContext context) {
+        IOrderService orderService = context.getBean("OrderServiceImpl", IOrderService.class);
+        for (long userId = 1; userId <= USERS; userId++) {
+            for (int i = 0; i < 20; i++) {
+                orderService.createOrder(userId, List.of(new OrderItemRequest(1L, 1, new BigDecimal("10.00")), new OrderItemRequest(2L, 3, new BigDecimal("2.50"))));
+            }
+        }
+    }
+
+    private static String runLoad(int port, int clients, Duration duration) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String authorization = LoadTestTokens.bearer("loadtest", "USER");
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        AtomicInteger shed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        LatencySamples latencies = new LatencySamples();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    LatencySamples samples = new LatencySamples();
+                    while (System.nanoTime() < deadline) {
+                        long userId = ThreadLocalRandom.current().nextLong(1, USERS + 1);
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders/user/" + userId + "?limit=20"))
+                                .header("Authorization", authorization)
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                shed.incrementAndGet();
+                                continue;
+                            }
+                            if (status != 200) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        samples.record(System.nanoTime() - start);
+                    }
+                    synchronized (latencies) {
+                        latencies.merge(samples);
+                    }
+                });
+            }
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        return String.format("ok=%d (%.0f req/s) shed=%d failed=%d %s",
+                latencies.count(), latencies.count() / seconds, shed.get(), failed.get(), latencies.summary());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderRequest {
+    private Long userId;
+    private List<OrderItemRequest> orderItems;
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderResult {
+    private long index;      // Position of the order in the submitted stream
+    private Long orderId;    // Null when the order was rejected
+    private String status;   // CREATED or REJECTED
+    private String message;  // Rejection reason, if any
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class OrderCacheStats {
+    private long localHits;
+    private long localMisses;
+    private long localEvictions;
+    private long localSize;
+    private long distributedHits;
+    private long distributedMisses; // Lookups that went to the database
+}
@@ -0,0 +1,40 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Keyset position (orderDate, id) of the last order on a page, encoded as an opaque token for clients
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public static OrderCursor after(OrderResponse order) {
+        return new OrderCursor(order.getOrderDate(), order.getOrderId());
+    }
+
+    public String encode() {
+        String position = orderDate.toString() + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            return new OrderCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new OrderValidationException("Invalid cursor: " + token);
+        }
+    }
+}
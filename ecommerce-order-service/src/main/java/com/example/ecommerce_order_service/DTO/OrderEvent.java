@@ -0,0 +1,41 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Payload published to the order-events topic; fields that do not apply to an event type are null
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderEvent {
+    private OrderEventType eventType;
+    private Long orderId;
+    private Long userId;
+    private OrderStatus orderStatus;
+    private Money totalAmount;
+    private LocalDateTime occurredAt;
+
+    public static OrderEvent created(Order order) {
+        return new OrderEvent(OrderEventType.ORDER_CREATED, order.getId(), order.getUserId(), order.getOrderStatus(),
+                order.getTotalAmount(), LocalDateTime.now());
+    }
+
+    public static OrderEvent statusChanged(Long orderId, OrderStatus orderStatus) {
+        return new OrderEvent(OrderEventType.ORDER_STATUS_CHANGED, orderId, null, orderStatus,
+                null, LocalDateTime.now());
+    }
+
+    // Items added, removed or re-quantified in one edit; carries the recomputed total
+    public static OrderEvent itemsEdited(Long orderId, Long userId, Money totalAmount) {
+        return new OrderEvent(OrderEventType.ORDER_ITEMS_EDITED, orderId, userId, null,
+                totalAmount, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ecommerce_order_service.DTO;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_ITEMS_EDITED
+}
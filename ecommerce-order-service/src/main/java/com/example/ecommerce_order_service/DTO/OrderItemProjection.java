@@ -0,0 +1,23 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Currency;
+
+// Flat order item row (with its owning order ID) selected by JPQL constructor expressions
+@Getter
+@AllArgsConstructor
+public class OrderItemProjection {
+    private Long orderId;
+    private Long orderItemId;
+    private Long productId;
+    private Integer quantity;
+    private Long priceMinor;
+
+    // Items share their order's currency, so it is taken from the order row instead of joined in
+    public OrderItemResponse toOrderItemResponse(Currency currency) {
+        return new OrderItemResponse(orderItemId, productId, quantity, Money.ofMinor(priceMinor, currency));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemQuantityRequest {
+    private Long orderItemId; // Item of the order being changed
+    private int quantity;     // Its new number of units, at least 1
+}
@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -12,5 +14,5 @@ import lombok.Setter;
 public class OrderItemRequest {
     private Long productId;
     private int quantity;
-    private double price;
+    private BigDecimal price; // Unit price in the order currency, at most its number of decimals
 }
@@ -1,5 +1,6 @@
 package com.example.ecommerce_order_service.DTO;
 
+import com.example.ecommerce_order_service.entities.Money;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,5 +14,9 @@ public class OrderItemResponse {
     private Long orderItemId;
     private Long productId;
     private int quantity;
-    private double price;
+    private Money price; // Unit price
+
+    public OrderItemResponse copy() {
+        return new OrderItemResponse(orderItemId, productId, quantity, price);
+    }
 }
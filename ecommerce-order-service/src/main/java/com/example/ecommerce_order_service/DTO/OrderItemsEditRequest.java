@@ -0,0 +1,18 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderItemsEditRequest {
+    private List<OrderItemRequest> add;                    // New items, priced like the items of a new order
+    private List<Long> remove;                             // IDs of items to remove
+    private List<OrderItemQuantityRequest> quantities;     // New quantities of items that stay on the order
+}
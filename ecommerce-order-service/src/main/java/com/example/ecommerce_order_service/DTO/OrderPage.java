@@ -0,0 +1,17 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPage {
+    private List<OrderResponse> orders;
+    private String nextCursor; // Opaque continuation token, null on the last page
+}
@@ -1,5 +1,8 @@
 package com.example.ecommerce_order_service.DTO;
 
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
 import com.example.ecommerce_order_service.entities.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -7,6 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Getter
@@ -17,7 +21,28 @@ public class OrderResponse {
     private Long orderId;
     private Long userId;
     private LocalDateTime orderDate;
-    private double totalAmount;
+    private Money totalAmount;
     private OrderStatus orderStatus;
     private List<OrderItemResponse> orderItems;
+
+    // Used by JPQL constructor expressions; items are attached afterwards
+    public OrderResponse(Long orderId, Long userId, LocalDateTime orderDate, Long totalAmountMinor, String currency, OrderStatus orderStatus) {
+        this(orderId, userId, orderDate, Money.ofMinor(totalAmountMinor, currency), orderStatus, new ArrayList<>());
+    }
+
+    // Copy handed to each reader of a shared cache entry, with its own items in a list that cannot be changed
+    public OrderResponse copy() {
+        List<OrderItemResponse> items = orderItems == null ? List.of() : orderItems.stream().map(OrderItemResponse::copy).toList();
+        return new OrderResponse(orderId, userId, orderDate, totalAmount, orderStatus, items);
+    }
+
+    public static OrderResponse from(Order order) {
+        List<OrderItemResponse> items = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            items.add(new OrderItemResponse(item.getId(), item.getProductId(), item.getQuantity(),
+                    Money.ofMinor(item.getPriceMinor(), order.getCurrency())));
+        }
+        return new OrderResponse(order.getId(), order.getUserId(), order.getOrderDate(), order.getTotalAmount(),
+                order.getOrderStatus(), items);
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// Order search filters; null (or empty) filters are not applied, the ones given must all match
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSearchCriteria {
+    private Long userId;
+    private Set<OrderStatus> statuses;   // Any of these statuses
+    private LocalDateTime from;          // Inclusive
+    private LocalDateTime to;            // Exclusive
+    private BigDecimal minAmount;        // Inclusive, in the order currency
+    private BigDecimal maxAmount;        // Inclusive, in the order currency
+    private Long productId;              // Orders containing this product
+
+    public boolean isEmpty() {
+        return userId == null && (statuses == null || statuses.isEmpty()) && from == null && to == null
+                && minAmount == null && maxAmount == null && productId == null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Lock-free snapshot of an order read before a conditional status transition
+@Getter
+@AllArgsConstructor
+public class OrderState {
+    private Long orderId;
+    private Long userId;
+    private OrderStatus orderStatus;
+    private Long version;
+    private Long totalAmountMinor;
+    private String currency;
+
+    public Money getTotalAmount() {
+        return Money.ofMinor(totalAmountMinor, currency);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.PaymentIntent;
+import com.example.ecommerce_order_service.entities.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentIntentResponse {
+    private Long paymentId;
+    private Long orderId;
+    private PaymentStatus status;
+    private Money amount;
+    private String paymentMethod;
+    private int attempts;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static PaymentIntentResponse from(PaymentIntent intent) {
+        return new PaymentIntentResponse(intent.getId(), intent.getOrderId(), intent.getStatus(), intent.getAmount(),
+                intent.getPaymentMethod(), intent.getAttempts(), intent.getFailureReason(),
+                intent.getCreatedAt(), intent.getUpdatedAt());
+    }
+}
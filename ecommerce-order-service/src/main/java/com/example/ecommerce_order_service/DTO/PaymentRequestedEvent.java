@@ -0,0 +1,11 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// In-process event published when a payment intent is recorded; PaymentProcessor picks it up after commit
+@Getter
+@AllArgsConstructor
+public class PaymentRequestedEvent {
+    private Long paymentId;
+}
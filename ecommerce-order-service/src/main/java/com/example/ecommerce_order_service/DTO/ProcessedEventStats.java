@@ -0,0 +1,12 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProcessedEventStats {
+    private long duplicatesSkippedInMemory;  // Found in the in-memory filter, no query at all
+    private long duplicatesSkippedFromTable; // Found in processed_events
+    private long transitionsRejectedByGuard; // Conditional UPDATE matched no row (status already moved on)
+}
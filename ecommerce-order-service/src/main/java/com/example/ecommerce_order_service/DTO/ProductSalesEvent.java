@@ -0,0 +1,48 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.analytics.SalesMeasure;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process event published when orders are created, their items edited, paid, or canceled after being paid; ProductSalesAnalytics
+ * picks it up after commit. New orders carry their items, for the others they are loaded by order ID.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductSalesEvent {
+    private SalesMeasure measure;
+    private int sign;                         // -1 takes the units back
+    private List<Long> orderIds;
+    private List<OrderItemProjection> items;  // null if they are to be loaded
+
+    public static ProductSalesEvent created(List<Order> orders) {
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        List<OrderItemProjection> items = new ArrayList<>();
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+            for (OrderItem item : order.getOrderItems()) {
+                items.add(new OrderItemProjection(order.getId(), item.getId(), item.getProductId(), item.getQuantity(), item.getPriceMinor()));
+            }
+        }
+        return new ProductSalesEvent(SalesMeasure.ORDERED, 1, orderIds, items);
+    }
+
+    // Units added to (sign 1) or taken off (sign -1) an existing order by an item edit
+    public static ProductSalesEvent edited(Long orderId, List<OrderItemProjection> items, int sign) {
+        return new ProductSalesEvent(SalesMeasure.ORDERED, sign, List.of(orderId), items);
+    }
+
+    public static ProductSalesEvent paid(List<Long> orderIds) {
+        return new ProductSalesEvent(SalesMeasure.SOLD, 1, orderIds, null);
+    }
+
+    public static ProductSalesEvent paymentCanceled(List<Long> orderIds) {
+        return new ProductSalesEvent(SalesMeasure.SOLD, -1, orderIds, null);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// One product's units in the hour starting at hour
+@Getter
+@AllArgsConstructor
+public class ProductSalesPoint {
+    private LocalDateTime hour;
+    private long unitsOrdered;
+    private long unitsSold;
+}
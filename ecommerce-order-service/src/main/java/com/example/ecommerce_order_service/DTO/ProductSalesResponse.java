@@ -0,0 +1,12 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductSalesResponse {
+    private Long productId;
+    private long unitsOrdered;
+    private long unitsSold; // Net of paid orders canceled later
+}
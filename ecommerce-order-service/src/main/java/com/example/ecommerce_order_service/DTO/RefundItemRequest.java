@@ -0,0 +1,15 @@
+package com.example.ecommerce_order_service.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefundItemRequest {
+    private Long orderItemId; // Item of the order being refunded
+    private int quantity;     // Units to refund, at most the units not refunded yet
+}
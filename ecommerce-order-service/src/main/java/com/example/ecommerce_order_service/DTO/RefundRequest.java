@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Getter
 @Setter
@@ -13,6 +14,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 public class RefundRequest {
     private Long paymentId;   // ID of the payment being refunded
-    private BigDecimal refundAmount;  // Amount to be refunded
+    private BigDecimal refundAmount;  // Amount to be refunded, for refunds that are not of items (e.g. price adjustments)
     private String reason; // Optional reason for the refund
+    private List<RefundItemRequest> items; // Items to refund; with neither items nor refundAmount the whole remaining amount is refunded
 }
@@ -0,0 +1,37 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.Refund;
+import com.example.ecommerce_order_service.entities.RefundStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefundResponse {
+    private Long refundId;
+    private Long orderId;
+    private RefundStatus status;
+    private Money amount;
+    private String reason;
+    private List<RefundItemResponse> items;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime settledAt;
+
+    public static RefundResponse from(Refund refund) {
+        List<RefundItemResponse> items = refund.getItems().stream()
+                .map(item -> new RefundItemResponse(item.getOrderItemId(), item.getQuantity(),
+                        Money.ofMinor(item.getAmountMinor(), refund.getCurrency())))
+                .toList();
+        return new RefundResponse(refund.getId(), refund.getOrderId(), refund.getStatus(), refund.getAmount(),
+                refund.getReason(), items, refund.getFailureReason(), refund.getCreatedAt(), refund.getSettledAt());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserOrderSummaryResponse {
+    private Long userId;
+    private Map<OrderStatus, Long> orderCounts; // Orders currently in each status
+    private long totalOrders;
+    private Money totalSpent;                   // Paid, shipped, delivered and refunded orders, net of settled refunds
+    private LocalDateTime lastOrderDate;        // null if the user never ordered
+}
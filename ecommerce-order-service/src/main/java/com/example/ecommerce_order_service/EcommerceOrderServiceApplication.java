@@ -3,8 +3,10 @@ package com.example.ecommerce_order_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication    //(exclude = {DataSourceAutoConfiguration.class })
+@EnableScheduling
 public class EcommerceOrderServiceApplication {
 
 	public static void main(String[] args) {
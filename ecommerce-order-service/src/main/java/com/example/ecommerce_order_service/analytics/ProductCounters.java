@@ -0,0 +1,228 @@
+package com.example.ecommerce_order_service.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Units ordered and sold per product ID. Open addressing with linear probing over parallel long arrays,
+ * so a product costs 24 bytes at most half-full and no boxed keys or entry objects. Key 0 marks an empty
+ * slot, so product 0 is kept in separate fields. Not thread-safe, callers lock around it.
+ */
+final class ProductCounters {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] ordered;
+    private long[] sold;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+    private long zeroOrdered;
+    private long zeroSold;
+
+    ProductCounters() {
+        allocate(MIN_CAPACITY);
+    }
+
+    void add(long productId, long orderedUnits, long soldUnits) {
+        if (productId == 0) {
+            hasZero = true;
+            zeroOrdered += orderedUnits;
+            zeroSold += soldUnits;
+            return;
+        }
+        int slot = slot(productId);
+        while (keys[slot] != 0 && keys[slot] != productId) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = productId;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = find(productId);
+            }
+        }
+        ordered[slot] += orderedUnits;
+        sold[slot] += soldUnits;
+    }
+
+    void addAll(ProductCounters other) {
+        other.forEach(this::add);
+    }
+
+    long ordered(long productId) {
+        if (productId == 0) {
+            return zeroOrdered;
+        }
+        int slot = find(productId);
+        return slot < 0 ? 0 : ordered[slot];
+    }
+
+    long sold(long productId) {
+        if (productId == 0) {
+            return zeroSold;
+        }
+        int slot = find(productId);
+        return slot < 0 ? 0 : sold[slot];
+    }
+
+    int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    void clear() {
+        if (keys.length > MIN_CAPACITY) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(keys, 0);
+            Arrays.fill(ordered, 0);
+            Arrays.fill(sold, 0);
+        }
+        size = 0;
+        hasZero = false;
+        zeroOrdered = 0;
+        zeroSold = 0;
+    }
+
+    void forEach(Visitor visitor) {
+        if (hasZero) {
+            visitor.visit(0, zeroOrdered, zeroSold);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                visitor.visit(keys[slot], ordered[slot], sold[slot]);
+            }
+        }
+    }
+
+    // Product IDs with the most units of the measure, highest first; ties go to the lower ID
+    long[] top(SalesMeasure measure, int limit) {
+        // Min-heap of the best limit products so far, its root is the one to beat
+        long[] heapIds = new long[Math.min(limit, size())];
+        long[] heapUnits = new long[heapIds.length];
+        int[] count = {0};
+        forEach((productId, orderedUnits, soldUnits) -> {
+            long units = measure == SalesMeasure.SOLD ? soldUnits : orderedUnits;
+            if (count[0] < heapIds.length) {
+                heapIds[count[0]] = productId;
+                heapUnits[count[0]] = units;
+                siftUp(heapIds, heapUnits, count[0]++);
+            } else if (heapIds.length > 0 && ranksBefore(units, productId, heapUnits[0], heapIds[0])) {
+                heapIds[0] = productId;
+                heapUnits[0] = units;
+                siftDown(heapIds, heapUnits, count[0]);
+            }
+        });
+
+        // Moving the root to the back repeatedly leaves them sorted best first
+        for (int end = count[0] - 1; end > 0; end--) {
+            swap(heapIds, heapUnits, 0, end);
+            siftDown(heapIds, heapUnits, end);
+        }
+        return heapIds;
+    }
+
+    // Snapshot form: the number of products, then (productId, ordered, sold) for each
+    byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + size() * 3 * Long.BYTES);
+        buffer.putInt(size());
+        forEach((productId, orderedUnits, soldUnits) -> buffer.putLong(productId).putLong(orderedUnits).putLong(soldUnits));
+        return buffer.array();
+    }
+
+    static ProductCounters fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        ProductCounters counters = new ProductCounters();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            counters.add(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+        return counters;
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long productId, long ordered, long sold);
+    }
+
+    private int find(long productId) {
+        int slot = slot(productId);
+        while (keys[slot] != 0) {
+            if (keys[slot] == productId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldOrdered = ordered;
+        long[] oldSold = sold;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                ordered[slot] = oldOrdered[i];
+                sold[slot] = oldSold[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        ordered = new long[capacity];
+        sold = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long productId) {
+        long hash = productId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static boolean ranksBefore(long units, long productId, long otherUnits, long otherProductId) {
+        return units != otherUnits ? units > otherUnits : productId < otherProductId;
+    }
+
+    private static void siftUp(long[] ids, long[] units, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksBefore(units[parent], ids[parent], units[index], ids[index])) {
+                return;
+            }
+            swap(ids, units, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, long[] units, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (ranksBefore(units[worst], ids[worst], units[child], ids[child])) {
+                    worst = child;
+                }
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(ids, units, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(long[] ids, long[] units, int i, int j) {
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        long unit = units[i];
+        units[i] = units[j];
+        units[j] = unit;
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.ecommerce_order_service.analytics;
+
+import com.example.ecommerce_order_service.DTO.OrderItemProjection;
+import com.example.ecommerce_order_service.DTO.ProductSalesEvent;
+import com.example.ecommerce_order_service.DTO.ProductSalesPoint;
+import com.example.ecommerce_order_service.DTO.ProductSalesResponse;
+import com.example.ecommerce_order_service.entities.ProductSalesSnapshot;
+import com.example.ecommerce_order_service.repositories.OrderItemRepository;
+import com.example.ecommerce_order_service.repositories.ProductSalesSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Units ordered and sold per product over the last orders.analytics.window, kept in memory so merchandising
+ * queries never scan order_item. Orders created, paid and canceled after payment are counted once their
+ * transaction commits (see ProductSalesEvent), into a ring of hourly buckets of primitive-keyed counters;
+ * a bucket is cleared when the ring comes round to it again.
+ *
+ * Buckets changed since the last snapshot are saved to product_sales_snapshots every snapshot-interval-ms
+ * and on shutdown, and loaded back on startup, so a restart only loses what was counted after the last
+ * snapshot. Each instance counts the orders it handled and saves them under its orders.analytics.instance-id
+ * (a random ID per start unless set), so replicas never overwrite each other. On startup the snapshots of all
+ * instances are summed per hour: the instance's own ones are counted on and saved again, the others are only
+ * added to query results.
+ */
+@Slf4j
+@Component
+public class ProductSalesAnalytics implements InitializingBean {
+    private final OrderItemRepository orderItemRepository;
+    private final ProductSalesSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final String instanceId;
+    private final HourBucket[] buckets;
+
+    @Autowired
+    public ProductSalesAnalytics(OrderItemRepository orderItemRepository,
+                                 ProductSalesSnapshotRepository snapshotRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${orders.analytics.window:7d}") Duration window,
+                                 @Value("${orders.analytics.instance-id:}") String instanceId) {
+        this(orderItemRepository, snapshotRepository, transactionTemplate, window, Clock.systemDefaultZone(),
+                instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId);
+    }
+
+    ProductSalesAnalytics(OrderItemRepository orderItemRepository,
+                          ProductSalesSnapshotRepository snapshotRepository,
+                          TransactionTemplate transactionTemplate,
+                          Duration window,
+                          Clock clock,
+                          String instanceId) {
+        this.orderItemRepository = orderItemRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.instanceId = instanceId;
+        this.buckets = new HourBucket[(int) Math.max(1, window.toHours())];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new HourBucket();
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        restore();
+    }
+
+    // Never fails the order change, which is already committed; the units are just not counted
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductSales(ProductSalesEvent event) {
+        try {
+            List<OrderItemProjection> items = event.getItems() != null
+                    ? event.getItems()
+                    : orderItemRepository.findProjectionsByOrderIdIn(event.getOrderIds());
+            record(event.getMeasure(), event.getSign(), items);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Product sales of orders {} not counted", event.getOrderIds(), e);
+        }
+    }
+
+    public void record(SalesMeasure measure, int sign, List<OrderItemProjection> items) {
+        long hour = currentHour();
+        HourBucket bucket = buckets[index(hour)];
+        synchronized (bucket) {
+            if (!bucket.rollTo(hour)) {
+                return;
+            }
+            for (OrderItemProjection item : items) {
+                long units = (long) sign * item.getQuantity();
+                bucket.counters.add(item.getProductId(), measure == SalesMeasure.ORDERED ? units : 0,
+                        measure == SalesMeasure.SOLD ? units : 0);
+            }
+            bucket.dirty = true;
+        }
+    }
+
+    // The products with the most units of the measure over the last hours hours (the current one included)
+    public List<ProductSalesResponse> topProducts(SalesMeasure measure, int hours, int limit) {
+        ProductCounters total = new ProductCounters();
+        long now = currentHour();
+        for (long hour = now - hours + 1; hour <= now; hour++) {
+            HourBucket bucket = buckets[index(hour)];
+            synchronized (bucket) {
+                if (bucket.hour == hour) {
+                    total.addAll(bucket.counters);
+                    total.addAll(bucket.restored);
+                }
+            }
+        }
+
+        List<ProductSalesResponse> top = new ArrayList<>(limit);
+        for (long productId : total.top(measure, limit)) {
+            long units = measure == SalesMeasure.SOLD ? total.sold(productId) : total.ordered(productId);
+            if (units > 0) {
+                top.add(new ProductSalesResponse(productId, total.ordered(productId), total.sold(productId)));
+            }
+        }
+        return top;
+    }
+
+    // One point per hour over the last hours hours, oldest first; hours without sales are zero
+    public List<ProductSalesPoint> series(long productId, int hours) {
+        List<ProductSalesPoint> points = new ArrayList<>(hours);
+        long now = currentHour();
+        for (long hour = now - hours + 1; hour <= now; hour++) {
+            long ordered = 0;
+            long sold = 0;
+            HourBucket bucket = buckets[index(hour)];
+            synchronized (bucket) {
+                if (bucket.hour == hour) {
+                    ordered = bucket.counters.ordered(productId) + bucket.restored.ordered(productId);
+                    sold = bucket.counters.sold(productId) + bucket.restored.sold(productId);
+                }
+            }
+            points.add(new ProductSalesPoint(LocalDateTime.ofInstant(Instant.ofEpochSecond(hour * 3600), clock.getZone()), ordered, sold));
+        }
+        return points;
+    }
+
+    public int getWindowHours() {
+        return buckets.length;
+    }
+
+    // Saves this instance's buckets changed since the last snapshot and drops all hours out of the window; returns the hours saved
+    @Scheduled(fixedDelayString = "${orders.analytics.snapshot-interval-ms:60000}")
+    public int saveSnapshot() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<ProductSalesSnapshot> snapshots = new ArrayList<>();
+        for (HourBucket bucket : buckets) {
+            synchronized (bucket) {
+                if (bucket.dirty) {
+                    snapshots.add(new ProductSalesSnapshot(instanceId, bucket.hour, bucket.counters.toBytes(), now));
+                    bucket.dirty = false;
+                }
+            }
+        }
+
+        long oldestHour = currentHour() - buckets.length + 1;
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                snapshotRepository.saveAll(snapshots);
+                snapshotRepository.deleteOlderThan(oldestHour);
+            });
+        } catch (RuntimeException e) {
+            // Saved again with the next snapshot
+            for (ProductSalesSnapshot snapshot : snapshots) {
+                HourBucket bucket = buckets[index(snapshot.getEpochHour())];
+                synchronized (bucket) {
+                    bucket.dirty |= bucket.hour == snapshot.getEpochHour();
+                }
+            }
+            log.warn("⚠️ Could not save product sales snapshot, retrying with the next one", e);
+            return 0;
+        }
+        return snapshots.size();
+    }
+
+    // Sums every instance's snapshots of the hours still in the window; returns the snapshots restored
+    public int restore() {
+        long oldestHour = currentHour() - buckets.length + 1;
+        List<ProductSalesSnapshot> snapshots = snapshotRepository.findByEpochHourGreaterThanEqual(oldestHour);
+        for (ProductSalesSnapshot snapshot : snapshots) {
+            HourBucket bucket = buckets[index(snapshot.getEpochHour())];
+            synchronized (bucket) {
+                if (!bucket.rollTo(snapshot.getEpochHour())) {
+                    continue;
+                }
+                ProductCounters counters = ProductCounters.fromBytes(snapshot.getCounters());
+                // Only this instance's own counts are saved again, so no snapshot is ever counted twice
+                if (instanceId.equals(snapshot.getInstanceId())) {
+                    bucket.counters.addAll(counters);
+                } else {
+                    bucket.restored.addAll(counters);
+                }
+            }
+        }
+        log.info("Restored {} snapshots of product sales", snapshots.size());
+        return snapshots.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+    }
+
+    private long currentHour() {
+        return clock.millis() / 3_600_000;
+    }
+
+    private int index(long hour) {
+        return (int) Math.floorMod(hour, (long) buckets.length);
+    }
+
+    // Counters of one hour, guarded by the bucket's monitor
+    private static final class HourBucket {
+        private long hour = Long.MIN_VALUE;
+        private final ProductCounters counters = new ProductCounters(); // Counted by this instance
+        private final ProductCounters restored = new ProductCounters(); // Other instances' snapshots, never saved
+        private boolean dirty; // Changed since the last snapshot
+
+        // Clears the bucket if it still holds an hour that has left the window; false if it holds a later hour
+        private boolean rollTo(long hour) {
+            if (this.hour > hour) {
+                return false;
+            }
+            if (this.hour < hour) {
+                this.hour = hour;
+                counters.clear();
+                restored.clear();
+            }
+            return true;
+        }
+    }
+}
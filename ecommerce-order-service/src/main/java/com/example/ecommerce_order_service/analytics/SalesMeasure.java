@@ -0,0 +1,6 @@
+package com.example.ecommerce_order_service.analytics;
+
+public enum SalesMeasure {
+    ORDERED, // Units in orders placed, counted when the order is created
+    SOLD     // Units in orders paid, counted when paid and taken back if the paid order is canceled
+}
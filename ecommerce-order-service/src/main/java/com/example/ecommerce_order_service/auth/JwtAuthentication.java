@@ -0,0 +1,18 @@
+package com.example.ecommerce_order_service.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+// Verified contents of a bearer token, cached so repeat requests skip parsing and signature checks
+@Getter
+@AllArgsConstructor
+public class JwtAuthentication {
+    private final UserDetails principal;
+    private final List<GrantedAuthority> authorities;
+    private final Instant expiresAt; // Null if the token has no exp claim
+}
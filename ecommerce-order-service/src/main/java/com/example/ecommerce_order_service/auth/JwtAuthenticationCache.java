@@ -0,0 +1,87 @@
+package com.example.ecommerce_order_service.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Bounded cache from the SHA-256 of a bearer token to its verified {@link JwtAuthentication}.
+ * Entries never outlive the token's own expiry, and are capped at {@code jwt.cache.max-ttl}.
+ * Raw tokens are not kept in memory.
+ */
+@Component
+public class JwtAuthenticationCache {
+    private final Cache<String, JwtAuthentication> cache;
+    private final long maxTtlNanos;
+    private final Clock clock;
+
+    @Autowired
+    public JwtAuthenticationCache(@Value("${jwt.cache.max-size:10000}") long maxSize,
+                                  @Value("${jwt.cache.max-ttl:10m}") Duration maxTtl) {
+        this(maxSize, maxTtl, Ticker.systemTicker(), Clock.systemUTC());
+    }
+
+    // The ticker times entries out, the clock is compared with the tokens' exp claims
+    JwtAuthenticationCache(long maxSize, Duration maxTtl, Ticker ticker, Clock clock) {
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, JwtAuthentication>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtAuthentication value, long currentTime) {
+                        return timeToLiveNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtAuthentication value, long currentTime, long currentDuration) {
+                        return timeToLiveNanos(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtAuthentication value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // Returns the cached authentication, or runs the verifier (which may throw JwtException) on a miss
+    public JwtAuthentication get(String token, Function<String, JwtAuthentication> verifier) {
+        return cache.get(hash(token), key -> verifier.apply(token));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private long timeToLiveNanos(JwtAuthentication authentication) {
+        if (authentication.getExpiresAt() == null) {
+            return maxTtlNanos;
+        }
+        long untilExpiry = Duration.between(clock.instant(), authentication.getExpiresAt()).toNanos();
+        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
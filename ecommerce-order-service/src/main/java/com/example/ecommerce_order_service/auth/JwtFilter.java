@@ -1,5 +1,8 @@
 package com.example.ecommerce_order_service.auth;
 
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,23 +10,24 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final JwtAuthenticationCache authenticationCache;
+    private final OrderMetrics orderMetrics;
 
     @Override
     protected void doFilterInternal(
@@ -38,24 +42,21 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7);
-        String username = jwtUtil.extractUsername(token);
-        List<String> roles = jwtUtil.extractRoles(token); // Extract roles from JWT
 
-        if(username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Create user with roles extracted from JWT
-            UserDetails userDetails = User.withUsername(username)
-                    .password("") // No password needed
-                    .roles(roles.toArray(new String[0])) // Convert roles list to String[]
-                    .build();
-
-            if (jwtUtil.validateToken(token, username)) {
-                List<GrantedAuthority> authorities = roles.stream()
-                        .map(role -> (GrantedAuthority) () -> "ROLE_" + role) // Prefix roles with "ROLE_"
-                        .toList();
+        if(SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtAuthentication jwtAuthentication;
+            try {
+                jwtAuthentication = authenticationCache.get(token, this::verifyToken);
+            } catch (JwtException e) {
+                // Invalid or expired token: continue unauthenticated, the entry point answers 401
+                filterChain.doFilter(request, response);
+                return;
+            }
 
+            if (jwtAuthentication != null) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails, null, authorities);
+                                jwtAuthentication.getPrincipal(), null, jwtAuthentication.getAuthorities());
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
@@ -63,4 +64,37 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Parses and verifies the token exactly once; the result is cached until the token expires
+    private JwtAuthentication verifyToken(String token) {
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            claims = jwtUtil.extractClaims(token);
+        } finally {
+            orderMetrics.recordJwtVerification(System.nanoTime() - start);
+        }
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
+        }
+
+        List<String> roles = jwtUtil.extractRoles(claims); // Extract roles from JWT
+        if (roles == null) {
+            roles = List.of();
+        }
+
+        // Create user with roles extracted from JWT
+        UserDetails userDetails = User.withUsername(username)
+                .password("") // No password needed
+                .roles(roles.toArray(new String[0])) // Convert roles list to String[]
+                .build();
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role)) // Prefix roles with "ROLE_"
+                .toList();
+
+        Date expiration = claims.getExpiration();
+        return new JwtAuthentication(userDetails, authorities, expiration == null ? null : expiration.toInstant());
+    }
 }
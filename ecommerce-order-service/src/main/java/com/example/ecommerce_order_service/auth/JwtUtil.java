@@ -1,6 +1,7 @@
 package com.example.ecommerce_order_service.auth;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -15,10 +16,12 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
     private final SecretKey signingKey;
+    private final JwtParser jwtParser; // Immutable and thread-safe, so built once
 
     public JwtUtil(@Value("${jwt.secret}") String secretKey) {
         byte[] keyBytes = Decoders.BASE64.decode(secretKey);
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     // Extract username from token
@@ -28,16 +31,17 @@ public class JwtUtil {
 
     // Extract roles from token
     public List<String> extractRoles(String token) {
-        Claims claims = extractClaims(token);
+        return extractRoles(extractClaims(token));
+    }
+
+    // Extract roles from already verified claims
+    public List<String> extractRoles(Claims claims) {
         return claims.get("roles", List.class);
     }
 
     // Extract Claims from Token
     public Claims extractClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(signingKey)
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
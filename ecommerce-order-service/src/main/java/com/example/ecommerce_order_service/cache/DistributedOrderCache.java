@@ -0,0 +1,12 @@
+package com.example.ecommerce_order_service.cache;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+
+// Second cache tier shared between service instances (e.g. Redis). Implementations must be thread-safe.
+public interface DistributedOrderCache {
+    OrderResponse get(Long orderId); // Returns null on a miss
+
+    void put(Long orderId, OrderResponse order);
+
+    void evict(Long orderId);
+}
@@ -0,0 +1,30 @@
+package com.example.ecommerce_order_service.cache;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Unbounded map-backed stand-in for a shared cache, for tests and single-node setups
+public class InMemoryDistributedOrderCache implements DistributedOrderCache {
+    private final Map<Long, OrderResponse> orders = new ConcurrentHashMap<>();
+
+    @Override
+    public OrderResponse get(Long orderId) {
+        return orders.get(orderId);
+    }
+
+    @Override
+    public void put(Long orderId, OrderResponse order) {
+        orders.put(orderId, order);
+    }
+
+    @Override
+    public void evict(Long orderId) {
+        orders.remove(orderId);
+    }
+
+    public int size() {
+        return orders.size();
+    }
+}
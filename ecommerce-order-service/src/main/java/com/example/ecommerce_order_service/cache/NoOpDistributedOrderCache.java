@@ -0,0 +1,19 @@
+package com.example.ecommerce_order_service.cache;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+
+// Used when no shared cache is configured; every lookup falls through to the database
+public class NoOpDistributedOrderCache implements DistributedOrderCache {
+    @Override
+    public OrderResponse get(Long orderId) {
+        return null;
+    }
+
+    @Override
+    public void put(Long orderId, OrderResponse order) {
+    }
+
+    @Override
+    public void evict(Long orderId) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecommerce_order_service.cache;
+
+import com.example.ecommerce_order_service.DTO.OrderCacheStats;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of {@link OrderResponse} by order ID.
+ * The local tier is bounded by size and TTL; misses fall through to the {@link DistributedOrderCache}
+ * and then to the supplied loader. Writers must call {@link #evictAfterCommit(Long)}.
+ * Entries are never handed out: every read returns its own copy, so a caller changing it cannot change the cache.
+ */
+@Component
+public class OrderCache {
+    private final Cache<Long, OrderResponse> localCache;
+    private final DistributedOrderCache distributedCache;
+    private final LongAdder distributedHits = new LongAdder();
+    private final LongAdder distributedMisses = new LongAdder();
+
+    public OrderCache(DistributedOrderCache distributedCache,
+                      @Value("${orders.cache.max-size:10000}") long maxSize,
+                      @Value("${orders.cache.ttl:5m}") Duration ttl) {
+        this.distributedCache = distributedCache;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Returns null (and caches nothing) when the loader finds no order
+    public OrderResponse get(Long orderId, Function<Long, OrderResponse> loader) {
+        OrderResponse cached = localCache.get(orderId, id -> {
+            OrderResponse order = distributedCache.get(id);
+            if (order != null) {
+                distributedHits.increment();
+                return order;
+            }
+
+            distributedMisses.increment();
+            order = loader.apply(id);
+            if (order != null) {
+                distributedCache.put(id, order);
+            }
+            return order;
+        });
+        return cached == null ? null : cached.copy();
+    }
+
+    public void evict(Long orderId) {
+        localCache.invalidate(orderId);
+        distributedCache.evict(orderId);
+    }
+
+    // Evicts now and again once the surrounding transaction completes, so a reader that loaded
+    // the pre-commit row in between cannot leave a stale entry behind
+    public void evictAfterCommit(Long orderId) {
+        evict(orderId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(orderId);
+                }
+            });
+        }
+    }
+
+    public OrderCacheStats stats() {
+        CacheStats stats = localCache.stats();
+        return new OrderCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                localCache.estimatedSize(), distributedHits.sum(), distributedMisses.sum());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.ecommerce_order_service.cache;
+
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight reads: concurrent callers for the same key share one load instead of each running
+ * their own queries. The first caller runs the loader; callers arriving while it runs wait for its
+ * result (or its exception) and nothing is kept once it completes.
+ *
+ * Callers inside a transaction always load for themselves, since what they read may include their
+ * own uncommitted writes. A joiner can get a result whose load started up to one load time before
+ * it called, but never one that started before a write it could have seen: writers forget the loads
+ * of the orders they change, and creating orders forgets the user's loads, once they commit.
+ */
+@Component
+public class OrderReadCoalescer {
+    private final boolean enabled;
+    private final OrderMetrics orderMetrics;
+    private final Map<Long, CompletableFuture<Object>> orderFlights = new ConcurrentHashMap<>();
+    private final Map<UserOrdersKey, CompletableFuture<Object>> userOrderFlights = new ConcurrentHashMap<>();
+
+    public OrderReadCoalescer(OrderMetrics orderMetrics,
+                              @Value("${orders.reads.coalescing-enabled:true}") boolean enabled) {
+        this.orderMetrics = orderMetrics;
+        this.enabled = enabled;
+    }
+
+    public <T> T order(Long orderId, Supplier<T> loader) {
+        return load(orderFlights, orderId, loader, false);
+    }
+
+    // One user's orders; cursor and limit are part of the key, null and 0 for the unpaged list
+    public <T> T userOrders(Long userId, String cursor, int limit, Supplier<T> loader) {
+        return load(userOrderFlights, new UserOrdersKey(userId, cursor, limit), loader, true);
+    }
+
+    // Once the current transaction commits, later callers for the order start a load of their own
+    public void forgetOrderAfterCommit(Long orderId) {
+        afterCommit(() -> orderFlights.remove(orderId));
+    }
+
+    // Once the current transaction commits, later callers for the user's orders start a load of their own
+    public void forgetUserOrdersAfterCommit(Long userId) {
+        afterCommit(() -> forgetUserOrders(userId));
+    }
+
+    private void afterCommit(Runnable forget) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget.run();
+                }
+            });
+        } else {
+            forget.run();
+        }
+    }
+
+    private void forgetUserOrders(Long userId) {
+        userOrderFlights.keySet().removeIf(key -> key.userId().equals(userId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, T> T load(Map<K, CompletableFuture<Object>> flights, K key, Supplier<T> loader, boolean userOrders) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            orderMetrics.recordCoalescedRead(userOrders, true);
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        orderMetrics.recordCoalescedRead(userOrders, false);
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private record UserOrdersKey(Long userId, String cursor, int limit) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ecommerce_order_service.config;
+
+import com.example.ecommerce_order_service.cache.DistributedOrderCache;
+import com.example.ecommerce_order_service.cache.NoOpDistributedOrderCache;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+// An auto-configuration (listed in META-INF/spring), so the condition is evaluated after every application bean is registered
+@AutoConfiguration
+public class CacheConfig {
+
+    // Only the local cache tier is active unless another DistributedOrderCache bean is provided
+    @Bean
+    @ConditionalOnMissingBean(DistributedOrderCache.class)
+    public DistributedOrderCache distributedOrderCache() {
+        return new NoOpDistributedOrderCache();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ecommerce_order_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Seeds the id sequences of orders and order items, which used to be IDENTITY columns, above the ids already taken.
+ * On MySQL Hibernate emulates a sequence with a one-row table whose next_val schema update creates at 1, so on an
+ * existing database the first pooled inserts would collide with old rows. Runs during startup like
+ * MoneyColumnsMigration and is a no-op once next_val is past MAX(id), or where the database has real sequences.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceMigration implements InitializingBean {
+    // allocationSize of the generators: a pooled block hands out ids up to that many below the value it read
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        seed("orders_seq", "orders", "order_id");
+        seed("order_item_seq", "order_item", "id");
+    }
+
+    private void seed(String sequenceTable, String table, String idColumn) throws SQLException {
+        if (!hasColumn(sequenceTable, "next_val")) {
+            return;
+        }
+        long maxId = jdbcTemplate.queryForObject("select coalesce(max(" + idColumn + "), 0) from " + table, Long.class);
+        int rows = jdbcTemplate.update("update " + sequenceTable + " set next_val = ? where next_val <= ?",
+                maxId + ALLOCATION_SIZE + 1, maxId + ALLOCATION_SIZE);
+        if (rows > 0) {
+            log.info("Seeded {} above the highest {} id {}", sequenceTable, table, maxId);
+        }
+    }
+
+    // Identifier case in the metadata depends on the database (lower case on MySQL, upper case on H2)
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String tableName : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, tableName, null)) {
+                    while (columns.next()) {
+                        if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ecommerce_order_service.config;
+
+import com.example.ecommerce_order_service.inventory.InventorySource;
+import com.example.ecommerce_order_service.inventory.StubInventorySource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+// Auto-configured like CacheConfig, so an application InventorySource is always seen before the stub is considered
+@Slf4j
+@AutoConfiguration
+public class InventoryConfig {
+
+    // Stock levels come from the local stub unless another InventorySource bean is provided
+    @Bean
+    @ConditionalOnMissingBean(InventorySource.class)
+    public InventorySource inventorySource(@Value("${orders.inventory.stub.default-stock:1000000}") long defaultStock,
+                                           @Value("${orders.inventory.enabled:false}") boolean enabled) {
+        if (enabled) {
+            log.warn("⚠️ No InventorySource configured, stock levels come from the local stub inventory, which does not prevent overselling");
+        }
+        return new StubInventorySource(defaultStock);
+    }
+}
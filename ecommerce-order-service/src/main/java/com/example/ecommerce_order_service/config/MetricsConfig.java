@@ -0,0 +1,83 @@
+package com.example.ecommerce_order_service.config;
+
+import com.example.ecommerce_order_service.DTO.OrderCacheStats;
+import com.example.ecommerce_order_service.DTO.ProcessedEventStats;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.metrics.SqlStatementCounter;
+import com.example.ecommerce_order_service.services.ProcessedEventStore;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+@Configuration
+public class MetricsConfig {
+
+    // Makes @Timed work on Spring beans (OrderServiceImpl)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter(MeterRegistry registry) {
+        return new SqlStatementCounter(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    // The stats objects are built at scrape time only
+    @Bean
+    public MeterBinder orderCacheMetrics(OrderCache orderCache) {
+        return registry -> {
+            cacheCounter(registry, orderCache, "local", "hit", OrderCacheStats::getLocalHits);
+            cacheCounter(registry, orderCache, "local", "miss", OrderCacheStats::getLocalMisses);
+            cacheCounter(registry, orderCache, "distributed", "hit", OrderCacheStats::getDistributedHits);
+            cacheCounter(registry, orderCache, "distributed", "miss", OrderCacheStats::getDistributedMisses);
+            FunctionCounter.builder("orders.cache.evictions", orderCache, cache -> cache.stats().getLocalEvictions())
+                    .description("Entries evicted from the local order cache by size or TTL")
+                    .register(registry);
+            Gauge.builder("orders.cache.size", orderCache, cache -> cache.stats().getLocalSize())
+                    .description("Estimated entries in the local order cache")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder processedEventMetrics(ProcessedEventStore processedEventStore) {
+        return registry -> {
+            duplicateEventCounter(registry, processedEventStore, "memory", ProcessedEventStats::getDuplicatesSkippedInMemory);
+            duplicateEventCounter(registry, processedEventStore, "table", ProcessedEventStats::getDuplicatesSkippedFromTable);
+            FunctionCounter.builder("orders.events.rejected", processedEventStore, store -> store.stats().getTransitionsRejectedByGuard())
+                    .description("Payment events whose conditional status UPDATE matched no row")
+                    .register(registry);
+        };
+    }
+
+    private static void cacheCounter(MeterRegistry registry, OrderCache orderCache, String tier, String result,
+                                     ToDoubleFunction<OrderCacheStats> count) {
+        FunctionCounter.builder("orders.cache.gets", orderCache, cache -> count.applyAsDouble(cache.stats()))
+                .description("Order cache lookups")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void duplicateEventCounter(MeterRegistry registry, ProcessedEventStore store, String source,
+                                              ToDoubleFunction<ProcessedEventStats> count) {
+        FunctionCounter.builder("orders.events.duplicates", store, s -> count.applyAsDouble(s.stats()))
+                .description("Duplicate payment events skipped, by where the duplicate was detected")
+                .tag("source", source)
+                .register(registry);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ecommerce_order_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Currency;
+
+/**
+ * One-off migration of the floating point money columns to whole minor units. Hibernate's schema update
+ * adds the new columns (hence the dependency on the entity manager factory); this copies the old values
+ * over, rounded to the currency's minor unit, and drops the old columns so inserts no longer need them.
+ * Runs during startup, before the web server and listeners start, and is a no-op once the old columns are gone.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class MoneyColumnsMigration implements InitializingBean {
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Currency orderCurrency;
+
+    public MoneyColumnsMigration(DataSource dataSource, Currency orderCurrency) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.orderCurrency = orderCurrency;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        long factor = (long) Math.pow(10, orderCurrency.getDefaultFractionDigits());
+
+        if (hasColumn("orders", "total_amount")) {
+            int rows = jdbcTemplate.update("update orders set total_amount_minor = round(total_amount * " + factor + "), currency = ?",
+                    orderCurrency.getCurrencyCode());
+            jdbcTemplate.execute("alter table orders drop column total_amount");
+            log.info("Migrated {} order totals to {} minor units", rows, orderCurrency.getCurrencyCode());
+        }
+        if (hasColumn("order_item", "price")) {
+            int rows = jdbcTemplate.update("update order_item set price_minor = round(price * " + factor + ")");
+            jdbcTemplate.execute("alter table order_item drop column price");
+            log.info("Migrated {} order item prices to {} minor units", rows, orderCurrency.getCurrencyCode());
+        }
+        if (hasColumn("user_order_summary", "total_spent")) {
+            int rows = jdbcTemplate.update("update user_order_summary set total_spent_minor = round(total_spent * " + factor + ")");
+            jdbcTemplate.execute("alter table user_order_summary drop column total_spent");
+            log.info("Migrated {} order summary totals to {} minor units", rows, orderCurrency.getCurrencyCode());
+        }
+    }
+
+    // Identifier case in the metadata depends on the database (lower case on MySQL, upper case on H2)
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String tableName : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, tableName, null)) {
+                    while (columns.next()) {
+                        if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ecommerce_order_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Currency;
+
+@Configuration
+public class MoneyConfig {
+
+    // Currency of new orders; amounts are stored in its minor units (e.g. cents)
+    @Bean
+    public Currency orderCurrency(@Value("${orders.currency:USD}") String currencyCode) {
+        return Currency.getInstance(currencyCode);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ecommerce_order_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * One-off migration of orders.order_status from the native MySQL ENUM Hibernate created to VARCHAR.
+ * Schema update never alters an existing column, so without this the ENUM would reject the refund statuses.
+ * Runs during startup like MoneyColumnsMigration and is a no-op once the column is VARCHAR.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class OrderStatusColumnMigration implements InitializingBean {
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStatusColumnMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if ("ENUM".equalsIgnoreCase(columnType("orders", "order_status"))) {
+            jdbcTemplate.execute("alter table orders modify order_status varchar(32)");
+            log.info("Migrated orders.order_status from ENUM to VARCHAR");
+        }
+    }
+
+    // Identifier case in the metadata depends on the database (lower case on MySQL, upper case on H2)
+    private String columnType(String table, String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String tableName : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, tableName, null)) {
+                    while (columns.next()) {
+                        if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                            return columns.getString("TYPE_NAME");
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce_order_service.config;
+
+import com.example.ecommerce_order_service.payments.PaymentGateway;
+import com.example.ecommerce_order_service.payments.RefundGateway;
+import com.example.ecommerce_order_service.payments.StubPaymentGateway;
+import com.example.ecommerce_order_service.payments.StubRefundGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+// The stub gateways only back off for gateways the application defines; as an auto-configuration that holds regardless of bean order
+@Slf4j
+@AutoConfiguration
+public class PaymentConfig {
+
+    // Payments are approved by the local stub unless another PaymentGateway bean is provided
+    @Bean
+    @ConditionalOnMissingBean(PaymentGateway.class)
+    public PaymentGateway paymentGateway(@Value("${orders.payments.stub.latency:50ms}") Duration latency,
+                                         @Value("${orders.payments.stub.failure-rate:0}") double failureRate) {
+        log.warn("⚠️ No PaymentGateway configured, payments are approved by the local stub gateway");
+        return new StubPaymentGateway(latency, failureRate);
+    }
+
+    // Refunds are settled by the local stub unless another RefundGateway bean is provided
+    @Bean
+    @ConditionalOnMissingBean(RefundGateway.class)
+    public RefundGateway refundGateway(@Value("${orders.refunds.stub.call-latency:100ms}") Duration callLatency,
+                                       @Value("${orders.refunds.stub.per-refund-latency:0ms}") Duration perRefundLatency) {
+        log.warn("⚠️ No RefundGateway configured, refunds are settled by the local stub gateway");
+        return new StubRefundGateway(callLatency, perRefundLatency);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.ecommerce_order_service.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * One-off migration of the product_sales_snapshots primary key from epoch_hour to (instance_id, epoch_hour).
+ * Schema update adds instance_id but never changes an existing key, so without this replicas would still
+ * collide on the hour. Rows saved before have an empty instance_id and are summed like any other instance's.
+ * Runs during startup like MoneyColumnsMigration and is a no-op once the key includes instance_id.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductSalesSnapshotKeyMigration implements InitializingBean {
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductSalesSnapshotKeyMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        Set<String> key = primaryKeyColumns("product_sales_snapshots");
+        if (!key.isEmpty() && !key.contains("instance_id")) {
+            jdbcTemplate.execute("alter table product_sales_snapshots drop primary key, add primary key (instance_id, epoch_hour)");
+            log.info("Migrated the product_sales_snapshots key to (instance_id, epoch_hour)");
+        }
+    }
+
+    // Identifier case in the metadata depends on the database (lower case on MySQL, upper case on H2)
+    private Set<String> primaryKeyColumns(String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String tableName : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet keys = metaData.getPrimaryKeys(connection.getCatalog(), null, tableName)) {
+                    while (keys.next()) {
+                        columns.add(keys.getString("COLUMN_NAME").toLowerCase());
+                    }
+                }
+            }
+        }
+        return columns;
+    }
+}
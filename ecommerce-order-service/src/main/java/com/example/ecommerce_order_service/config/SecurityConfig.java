@@ -43,10 +43,13 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui.html",
+                                "/actuator/health",
+                                "/actuator/prometheus", // Scraped without a JWT
                                 "/api/user/**" // Allow your public endpoints
                         ).permitAll()
                         .requestMatchers("/api/orders/**").hasRole("USER")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/analytics/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exception -> exception
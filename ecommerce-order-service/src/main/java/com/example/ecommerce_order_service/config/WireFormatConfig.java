@@ -0,0 +1,21 @@
+package com.example.ecommerce_order_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * CBOR bodies for internal clients that send Accept (or Content-Type) application/cbor: the JSON model
+     * in binary form, written with the same Jackson settings as the JSON. Boot puts this bean where its
+     * default CBOR converter would be, after the JSON one, so JSON stays the default.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+}
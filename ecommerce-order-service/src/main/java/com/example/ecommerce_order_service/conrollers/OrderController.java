@@ -4,7 +4,6 @@ import com.example.ecommerce_order_service.DTO.*;
 import com.example.ecommerce_order_service.entities.Order;
 import com.example.ecommerce_order_service.entities.OrderStatus;
 import com.example.ecommerce_order_service.exceptions.OrderValidationException;
-import com.example.ecommerce_order_service.exceptions.PaymentProcessingException;
 import com.example.ecommerce_order_service.exceptions.RefundProcessingException;
 import com.example.ecommerce_order_service.exceptions.ResourceNotFoundException;
 import com.example.ecommerce_order_service.services.IOrderService;
@@ -13,12 +12,31 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -26,9 +44,20 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth") // <==== All endpoints require JWT **except where overridden**
 public class OrderController {
     private final IOrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader bulkOrderReader;
+    private final int bulkChunkSize;
+    private final int maxPageSize;
 
-    public OrderController(@Qualifier("OrderServiceImpl") IOrderService orderService) {
+    public OrderController(@Qualifier("OrderServiceImpl") IOrderService orderService,
+                           ObjectMapper objectMapper,
+                           @Value("${orders.bulk.chunk-size:500}") int bulkChunkSize,
+                           @Value("${orders.page.max-size:500}") int maxPageSize) {
         this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.bulkOrderReader = objectMapper.readerFor(BulkOrderRequest.class);
+        this.bulkChunkSize = bulkChunkSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @Operation(summary = "Create a new order", description = "Creates an order for a user with a list of items.")
@@ -38,13 +67,67 @@ public class OrderController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping()
-    public ResponseEntity<Order> createOrder(@RequestParam Long userId, @RequestBody List<OrderItemRequest> orderItems) {
+    public ResponseEntity<OrderResponse> createOrder(@RequestParam Long userId, @RequestBody List<OrderItemRequest> orderItems) {
         if (orderItems.isEmpty()) {
             throw new OrderValidationException("Order must contain at least one item.");
         }
 
-        Order order = orderService.createOrder(userId, orderItems);
-        return ResponseEntity.ok(order);
+        Order order;
+        try {
+            order = orderService.createOrder(userId, orderItems);
+        } catch (IllegalArgumentException e) {
+            // missing price, or a price with more decimals than the order currency
+            throw new OrderValidationException(e.getMessage());
+        }
+        return ResponseEntity.ok(OrderResponse.from(order));
+    }
+
+    @Operation(summary = "Create orders in bulk",
+            description = "Streams a JSON array or NDJSON body of orders ({userId, orderItems}), persists them in chunked transactions " +
+                    "and writes one NDJSON result line per order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orders processed, see per-order results"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public void createOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        List<BulkOrderRequest> chunk = new ArrayList<>(bulkChunkSize);
+        long index = 0;
+        BulkOrderResult parseError = null;
+
+        // parse incrementally so only one chunk of orders is ever held in memory
+        try (MappingIterator<BulkOrderRequest> orders = bulkOrderReader.readValues(request.getInputStream())) {
+            while (orders.hasNextValue()) {
+                chunk.add(orders.nextValue());
+                if (chunk.size() == bulkChunkSize) {
+                    index = writeBulkResults(out, orderService.createOrders(chunk), index);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // orders read before the malformed one are still persisted; the rest of the stream is dropped
+            parseError = new BulkOrderResult(0, null, "REJECTED", "Malformed order: " + e.getOriginalMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            index = writeBulkResults(out, orderService.createOrders(chunk), index);
+        }
+        if (parseError != null) {
+            parseError.setIndex(index);
+            writeNdjsonLine(out, parseError);
+        }
+        out.flush();
+    }
+
+    private long writeBulkResults(OutputStream out, List<BulkOrderResult> results, long index) throws IOException {
+        for (BulkOrderResult result : results) {
+            result.setIndex(index++);
+            writeNdjsonLine(out, result);
+        }
+        out.flush();
+        return index;
     }
 
     @Operation(summary = "Retrieve a specific order by ID", description = "Returns details of an order.")
@@ -62,38 +145,143 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
-    @Operation(summary = "Get all orders for a user", description = "Retrieves all orders for a specific user.")
+    @Operation(summary = "Get orders for a user", description = "Retrieves a page of a user's orders ordered by date. " +
+            "Pass the returned nextCursor to fetch the following page.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("user/{userId}")
-    public ResponseEntity<List<OrderResponse>> getUserOrders(@PathVariable Long userId) {
-        List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
+    public ResponseEntity<OrderPage> getUserOrders(@PathVariable Long userId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        OrderPage orders = orderService.getOrdersByUserId(userId, cursor, validatePageSize(limit));
         return ResponseEntity.ok(orders);
     }
 
-    @Operation(summary = "Get orders by status", description = "Retrieves all orders by their status (CREATED, PAID, SHIPPED, DELIVERED).")
+    @Operation(summary = "Stream all orders for a user", description = "Streams every order of a user as NDJSON, archived ones included, in (orderDate, id) order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orders streamed successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "user/{userId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamUserOrders(@PathVariable Long userId, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        orderService.streamOrdersByUserId(userId, order -> writeNdjsonLine(out, order));
+        out.flush();
+    }
+
+    @Operation(summary = "Get a user's order summary", description = "Returns order counts by status, total spent and the last order date " +
+            "from the precomputed per-user summary, without reading the user's orders.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Summary retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("user/{userId}/summary")
+    public ResponseEntity<UserOrderSummaryResponse> getUserOrderSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.getOrderSummary(userId));
+    }
+
+    @Operation(summary = "Rebuild all order summaries", description = "Recomputes every user's order summary from the orders table.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Summaries rebuilt, returns the number of users"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("summaries/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Integer> rebuildOrderSummaries() {
+        return ResponseEntity.ok(orderService.rebuildOrderSummaries());
+    }
+
+    @Operation(summary = "Get orders by status", description = "Retrieves a page of orders by their status (CREATED, PAID, SHIPPED, DELIVERED). " +
+            "Pass the returned nextCursor to fetch the following page.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid order status"),
+            @ApiResponse(responseCode = "400", description = "Invalid order status, cursor or page size"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("status/{status}")
-    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable String status) {
+    public ResponseEntity<OrderPage> getOrdersByStatus(@PathVariable String status,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "50") int limit) {
+        OrderPage orders = orderService.getOrdersByStatus(parseOrderStatus(status), cursor, validatePageSize(limit));
+        return ResponseEntity.ok(orders);
+    }
+
+    @Operation(summary = "Stream orders by status", description = "Streams every order with the given status as NDJSON.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orders streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid order status"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "status/{status}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamOrdersByStatus(@PathVariable String status, HttpServletResponse response) throws IOException {
+        OrderStatus orderStatus = parseOrderStatus(status);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        orderService.streamOrdersByStatus(orderStatus, order -> writeNdjsonLine(out, order));
+        out.flush();
+    }
+
+    @Operation(summary = "Search orders", description = "Retrieves a page of orders matching all given filters, ordered by date: " +
+            "userId, status (repeatable, any of), from (inclusive) and to (exclusive) order dates, minAmount and maxAmount " +
+            "(inclusive, order currency) and productId. At least one filter is required. " +
+            "Pass the returned nextCursor with the same filters to fetch the following page.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid filter, cursor or page size"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<OrderPage> searchOrders(@RequestParam(required = false) Long userId,
+                                                  @RequestParam(name = "status", required = false) List<String> statuses,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestParam(required = false) BigDecimal minAmount,
+                                                  @RequestParam(required = false) BigDecimal maxAmount,
+                                                  @RequestParam(required = false) Long productId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int limit) {
+        Set<OrderStatus> orderStatuses = EnumSet.noneOf(OrderStatus.class);
+        if (statuses != null) {
+            statuses.forEach(status -> orderStatuses.add(parseOrderStatus(status)));
+        }
+
+        OrderSearchCriteria criteria = new OrderSearchCriteria(userId, orderStatuses, from, to, minAmount, maxAmount, productId);
+        return ResponseEntity.ok(orderService.searchOrders(criteria, cursor, validatePageSize(limit)));
+    }
+
+    private OrderStatus parseOrderStatus(String status) {
         try {
-            OrderStatus orderStatus = OrderStatus.valueOf(status.toUpperCase());
-            List<OrderResponse> orders = orderService.getOrdersByStatus(orderStatus);
-            return ResponseEntity.ok(orders);
+            return OrderStatus.valueOf(status.toUpperCase());
         } catch (IllegalArgumentException e) {
             throw new OrderValidationException("Invalid order status: " + status);
         }
     }
 
+    private int validatePageSize(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new OrderValidationException("Page size must be between 1 and " + maxPageSize);
+        }
+        return limit;
+    }
+
+    private void writeNdjsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Operation(summary = "Cancel an order", description = "Cancels an order if it has not been shipped or delivered.")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Order cancelled successfully"),
-            @ApiResponse(responseCode = "400", description = "Order cannot be cancelled"),
+            @ApiResponse(responseCode = "409", description = "Order cannot be cancelled in its current status"),
             @ApiResponse(responseCode = "404", description = "Order not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -104,52 +292,81 @@ public class OrderController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Update order status", description = "Updates the status of an existing order.")
+    @Operation(summary = "Update order status", description = "Updates the status of an existing order. " +
+            "PARTIALLY_REFUNDED and REFUNDED are only set by refund settlement.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Order status updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid order status"),
+            @ApiResponse(responseCode = "409", description = "Transition not allowed from the current status, or to a refund status"),
             @ApiResponse(responseCode = "404", description = "Order not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PatchMapping("{orderId}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long orderId, @RequestBody OrderStatus status) {
-        Order order = orderService.updateOrderStatus(orderId, status);
+    public ResponseEntity<OrderResponse> updateOrderStatus(@PathVariable Long orderId, @RequestBody OrderStatus status) {
+        OrderResponse order = orderService.updateOrderStatus(orderId, status);
         return ResponseEntity.ok(order);
     }
 
-    @Operation(summary = "Process payment for an order", description = "Processes payment for an existing order.")
+    @Operation(summary = "Pay for an order", description = "Records the payment and charges it asynchronously. " +
+            "Poll the URL in the Location header for the outcome; the order becomes PAID once the payment succeeds.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Payment processed successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid payment request"),
+            @ApiResponse(responseCode = "202", description = "Payment accepted (or already in progress) and pending"),
+            @ApiResponse(responseCode = "402", description = "Amount does not cover the order total"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "Order cannot be paid in its current status"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/{orderId}/pay")
-    public ResponseEntity<Void> processPayment(@PathVariable Long orderId, @RequestBody PaymentRequest paymentRequest) {
-        try {
-            orderService.processPayment(orderId, paymentRequest);
-            return ResponseEntity.ok().build();
-        } catch (PaymentProcessingException e) {
-            throw new PaymentProcessingException("Payment failed: " + e.getMessage());
-        }
+    public ResponseEntity<PaymentIntentResponse> processPayment(@PathVariable Long orderId, @RequestBody PaymentRequest paymentRequest) {
+        PaymentIntentResponse payment = orderService.requestPayment(orderId, paymentRequest);
+        URI statusUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/orders/{orderId}/payments/{paymentId}")
+                .buildAndExpand(orderId, payment.getPaymentId())
+                .toUri();
+        return ResponseEntity.accepted().location(statusUrl).body(payment);
+    }
+
+    @Operation(summary = "Get payment status", description = "Returns the status of a payment returned by the pay endpoint.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Payment found"),
+            @ApiResponse(responseCode = "404", description = "Payment not found for this order"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{orderId}/payments/{paymentId}")
+    public ResponseEntity<PaymentIntentResponse> getPayment(@PathVariable Long orderId, @PathVariable Long paymentId) {
+        return ResponseEntity.ok(orderService.getPayment(orderId, paymentId));
     }
 
-    @Operation(summary = "Process refund for an order", description = "Processes a refund for an order that has been paid.")
+    @Operation(summary = "Process refund for an order", description = "Records a refund of items, of an amount, or of everything " +
+            "not refunded yet, for a paid order, also after it was canceled. Refunds are settled in batches; the order becomes " +
+            "PARTIALLY_REFUNDED or REFUNDED once its refund is settled, while a canceled order stays CANCELED.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Refund processed successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid refund request"),
+            @ApiResponse(responseCode = "202", description = "Refund recorded and pending settlement"),
+            @ApiResponse(responseCode = "400", description = "Invalid refund request or amount exceeds what is refundable"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/{orderId}/refund")
     @PreAuthorize("hasRole('ADMIN')") // Ensures only ADMIN can access this endpoint
-    public ResponseEntity<Void> processRefund(@PathVariable Long orderId, @RequestBody RefundRequest refundRequest) {
+    public ResponseEntity<RefundResponse> processRefund(@PathVariable Long orderId, @RequestBody RefundRequest refundRequest) {
         try {
-            orderService.processRefund(orderId, refundRequest);
-            return ResponseEntity.ok().build();
+            return ResponseEntity.accepted().body(orderService.processRefund(orderId, refundRequest));
         } catch (RefundProcessingException e) {
             throw new RefundProcessingException("Refund failed: " + e.getMessage());
         }
     }
 
+    @Operation(summary = "List refunds of an order", description = "Returns every refund of the order with its settlement status.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Refunds retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{orderId}/refunds")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<RefundResponse>> getRefunds(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.getRefunds(orderId));
+    }
+
     @Operation(summary = "Retrieve all order items by order ID", description = "Gets all items for a given order.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Order items retrieved successfully"),
@@ -162,10 +379,28 @@ public class OrderController {
         return ResponseEntity.ok(orderItems);
     }
 
-    @Operation(summary = "Remove an order item", description = "Removes an item from an order.")
+    @Operation(summary = "Edit the items of an order", description = "Adds, removes and changes the quantity of any number of " +
+            "items in one transaction, then recomputes the order total from its items. Only orders that are still CREATED and " +
+            "have no payment in progress can be edited; either the whole edit applies or none of it.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Order items edited successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid edit, e.g. an item of another order or no item left"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "Order cannot be edited in its current status, or insufficient stock"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PatchMapping("/{orderId}/items")
+    public ResponseEntity<OrderResponse> editOrderItems(@PathVariable Long orderId, @RequestBody OrderItemsEditRequest edit) {
+        return ResponseEntity.ok(orderService.editOrderItems(orderId, edit));
+    }
+
+    @Operation(summary = "Remove an order item", description = "Removes an item from an order, under the same rules as " +
+            "editing its items: only orders that are still CREATED and have no payment in progress.")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Order item removed successfully"),
-            @ApiResponse(responseCode = "404", description = "Order item not found"),
+            @ApiResponse(responseCode = "400", description = "Item is not on the order, or it is the order's last item"),
+            @ApiResponse(responseCode = "404", description = "Order not found"),
+            @ApiResponse(responseCode = "409", description = "Order cannot be edited in its current status"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @DeleteMapping("/{orderId}/items/{orderItemId}")
@@ -0,0 +1,80 @@
+package com.example.ecommerce_order_service.conrollers;
+
+import com.example.ecommerce_order_service.DTO.ProductSalesPoint;
+import com.example.ecommerce_order_service.DTO.ProductSalesResponse;
+import com.example.ecommerce_order_service.analytics.ProductSalesAnalytics;
+import com.example.ecommerce_order_service.analytics.SalesMeasure;
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics/products")
+@Tag(name = "Product Analytics", description = "Units ordered and sold per product over a rolling window")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class ProductAnalyticsController {
+    private final ProductSalesAnalytics productSalesAnalytics;
+    private final int maxPageSize;
+
+    public ProductAnalyticsController(ProductSalesAnalytics productSalesAnalytics,
+                                      @Value("${orders.page.max-size:500}") int maxPageSize) {
+        this.productSalesAnalytics = productSalesAnalytics;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Operation(summary = "Get the top products", description = "Returns the products with the most units ordered or sold " +
+            "(measure ORDERED or SOLD) over the last hours hours, the current one included, highest first. " +
+            "Served from memory, without reading order items.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Top products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid measure, hours or limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("top")
+    public ResponseEntity<List<ProductSalesResponse>> getTopProducts(@RequestParam(defaultValue = "SOLD") String measure,
+                                                                     @RequestParam(defaultValue = "24") int hours,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new OrderValidationException("Limit must be between 1 and " + maxPageSize);
+        }
+        return ResponseEntity.ok(productSalesAnalytics.topProducts(parseMeasure(measure), validateHours(hours), limit));
+    }
+
+    @Operation(summary = "Get a product's hourly sales", description = "Returns units ordered and sold in each of the last " +
+            "hours hours, oldest first.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Time series retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid hours"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("{productId}/hourly")
+    public ResponseEntity<List<ProductSalesPoint>> getHourlySales(@PathVariable Long productId,
+                                                                  @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(productSalesAnalytics.series(productId, validateHours(hours)));
+    }
+
+    private SalesMeasure parseMeasure(String measure) {
+        try {
+            return SalesMeasure.valueOf(measure.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new OrderValidationException("Invalid measure: " + measure);
+        }
+    }
+
+    private int validateHours(int hours) {
+        if (hours < 1 || hours > productSalesAnalytics.getWindowHours()) {
+            throw new OrderValidationException("Hours must be between 1 and " + productSalesAnalytics.getWindowHours());
+        }
+        return hours;
+    }
+}
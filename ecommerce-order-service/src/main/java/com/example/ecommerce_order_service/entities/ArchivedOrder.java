@@ -0,0 +1,48 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order moved out of the orders table by OrderArchiveJob after it had been in a final status for
+ * longer than orders.archive.min-age. Archived orders are read-only; lookups fall back to this table
+ * when an order is not in orders. Same IDs and columns as Order, minus the refund reservation and version.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = @Index(name = "idx_orders_archive_user_date", columnList = "user_id, order_date"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedOrder {
+    @Id
+    @Column(name = "order_id")
+    private long id; // Assigned, the ID the order had in orders
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Column(name = "total_amount_minor", nullable = false)
+    private long totalAmountMinor;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "refunded_amount_minor", nullable = false)
+    private long refundedAmountMinor;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 32)
+    private OrderStatus orderStatus;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,31 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Item of an ArchivedOrder, copied from order_item with its ID; only ever read by order ID
+@Entity
+@Table(name = "order_item_archive", indexes = @Index(name = "idx_order_item_archive_order", columnList = "order_id"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedOrderItem {
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "price_minor", nullable = false)
+    private long priceMinor;
+
+    @Column(name = "refunded_quantity", nullable = false)
+    private int refundedQuantity;
+}
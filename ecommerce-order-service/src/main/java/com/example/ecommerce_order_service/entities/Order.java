@@ -2,21 +2,30 @@ package com.example.ecommerce_order_service.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Keyset listings and searches filter on user or status and page by (order_date, order_id);
+// InnoDB appends the primary key to secondary indexes, so both serve the full sort order
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date"),
+        @Index(name = "idx_orders_status_date", columnList = "order_status, order_date")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "orders_seq", allocationSize = 50) // pooled ids keep JDBC insert batching enabled
     @Column(name = "order_id")
     private long id;
 
@@ -30,9 +39,43 @@ public class Order {
     @Column(nullable = false)
     private LocalDateTime orderDate = LocalDateTime.now();
 
-    @Column(nullable = false)
-    private Double totalAmount;
+    @Column(name = "total_amount_minor", nullable = false)
+    private long totalAmountMinor; // In minor units of the currency, see Money
+
+    @Column(nullable = false, length = 3)
+    private String currency; // ISO 4217 code
+
+    @ColumnDefault("0")
+    @Column(name = "refunded_amount_minor", nullable = false)
+    private long refundedAmountMinor; // Settled refunds, minor units
+
+    @ColumnDefault("0")
+    @Column(name = "pending_refund_minor", nullable = false)
+    private long pendingRefundMinor; // Requested refunds not settled yet; reserved so refunds never exceed the total
 
     @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR) // not a MySQL ENUM, so new statuses need no column change
+    @Column(length = 32)
     private OrderStatus orderStatus = OrderStatus.CREATED; // Default to CREATED
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt; // First move to PAID; a canceled order that has it was charged and can still be refunded
+
+    @Version
+    @Column(nullable = false)
+    private long version; // Bumped by every update, conditional status UPDATEs compare against it
+
+    public Money getTotalAmount() {
+        return Money.ofMinor(totalAmountMinor, currency);
+    }
+
+    // Refunds go to paid orders, including ones canceled after payment, which keep their CANCELED status
+    public boolean isRefundable() {
+        return orderStatus.canTransitionTo(OrderStatus.REFUNDED) || (orderStatus == OrderStatus.CANCELED && paidAt != null);
+    }
+
+    // What can still be refunded: the total minus settled and pending refunds
+    public long getRefundableMinor() {
+        return totalAmountMinor - refundedAmountMinor - pendingRefundMinor;
+    }
 }
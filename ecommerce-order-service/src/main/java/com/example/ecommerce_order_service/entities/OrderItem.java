@@ -1,19 +1,23 @@
 package com.example.ecommerce_order_service.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table
+@Table(indexes = @Index(name = "idx_order_item_product", columnList = "product_id"))
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
@@ -24,6 +28,10 @@ public class OrderItem {
     @Column(nullable = false)
     private int quantity;
 
-    @Column(nullable = false)
-    private double price;
+    @Column(name = "price_minor", nullable = false)
+    private long priceMinor; // Unit price in minor units of the order's currency
+
+    @ColumnDefault("0")
+    @Column(name = "refunded_quantity", nullable = false)
+    private int refundedQuantity; // Units in pending or settled refunds
 }
@@ -1,11 +1,16 @@
 package com.example.ecommerce_order_service.entities;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum OrderStatus {
     CREATED("CREATED"),
     PAID("PAID"),
     SHIPPED("SHIPPED"),
     DELIVERED("DELIVERED"),
-    CANCELED("CANCELED");
+    CANCELED("CANCELED"),
+    PARTIALLY_REFUNDED("PARTIALLY_REFUNDED"),
+    REFUNDED("REFUNDED");
 
 
     private final String status;
@@ -17,4 +22,32 @@ public enum OrderStatus {
     public String getStatus() {
         return status;
     }
+
+    // Statuses in which items may still be added, removed or re-quantified: nothing has been charged for the order yet
+    public static Set<OrderStatus> itemEditableStatuses() {
+        return EnumSet.of(CREATED);
+    }
+
+    // Statuses only refund settlement may set, never a status update
+    public boolean isSetByRefund() {
+        return this == PARTIALLY_REFUNDED || this == REFUNDED;
+    }
+
+    // State machine guard for status changes
+    public boolean canTransitionTo(OrderStatus next) {
+        return next.previousStatuses().contains(this);
+    }
+
+    // Statuses an order may move to this one from; used as the WHERE guard of conditional status UPDATEs.
+    // The refund statuses are only entered by refund settlement, and a partially refunded order is no longer shipped.
+    public Set<OrderStatus> previousStatuses() {
+        return switch (this) {
+            case CREATED -> EnumSet.noneOf(OrderStatus.class);
+            case PAID -> EnumSet.of(CREATED);
+            case SHIPPED -> EnumSet.of(PAID);
+            case DELIVERED -> EnumSet.of(SHIPPED);
+            case CANCELED -> EnumSet.of(CREATED, PAID);
+            case PARTIALLY_REFUNDED, REFUNDED -> EnumSet.of(PAID, SHIPPED, DELIVERED, PARTIALLY_REFUNDED);
+        };
+    }
 }
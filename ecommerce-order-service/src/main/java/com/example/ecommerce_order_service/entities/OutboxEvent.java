@@ -0,0 +1,39 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Order event written in the same transaction as the change it describes, deleted once relayed to Kafka
+@Entity
+@Table(name = "order_outbox")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, length = 32)
+    private String eventType;
+
+    @Column(nullable = false, length = 2000)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Set while a relay instance is publishing the event; an expired claim means that relay died mid-batch
+    private LocalDateTime claimedUntil;
+
+    public boolean isClaimedAt(LocalDateTime now) {
+        return claimedUntil != null && claimedUntil.isAfter(now);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A requested payment, recorded by the pay endpoint and worked off by PaymentProcessor. Rows are only
+ * inserted through JPA; every later change is a conditional UPDATE on the status, so two workers can
+ * never charge the same intent at the same time.
+ *
+ * activeOrderId is the order ID while the intent is PENDING, PROCESSING or SUCCEEDED and null once it
+ * FAILED, so the unique index allows one live payment per order but any number of failed attempts.
+ */
+@Entity
+@Table(name = "payment_intents", indexes = {
+        @Index(name = "uk_payment_intents_active_order", columnList = "active_order_id", unique = true),
+        @Index(name = "idx_payment_intents_status_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_payment_intents_order", columnList = "order_id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentIntent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_intent_seq")
+    @SequenceGenerator(name = "payment_intent_seq", sequenceName = "payment_intents_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "active_order_id")
+    private Long activeOrderId;
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor; // In minor units of the currency, see Money
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(length = 64)
+    private String paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PaymentStatus status;
+
+    @Column(nullable = false)
+    private int attempts; // Gateway calls made so far
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime claimedAt; // When a worker moved it to PROCESSING
+
+    @Column(length = 128)
+    private String gatewayReference;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    private LocalDateTime confirmedAt; // When the payment-confirmed event for a SUCCEEDED intent was acknowledged by Kafka
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static PaymentIntent pending(Long orderId, Money amount, String paymentMethod, LocalDateTime now) {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setOrderId(orderId);
+        intent.setActiveOrderId(orderId);
+        intent.setAmountMinor(amount.getMinorUnits());
+        intent.setCurrency(amount.getCurrencyCode());
+        intent.setPaymentMethod(paymentMethod);
+        intent.setStatus(PaymentStatus.PENDING);
+        intent.setNextAttemptAt(now);
+        intent.setCreatedAt(now);
+        intent.setUpdatedAt(now);
+        return intent;
+    }
+
+    public Money getAmount() {
+        return Money.ofMinor(amountMinor, currency);
+    }
+}
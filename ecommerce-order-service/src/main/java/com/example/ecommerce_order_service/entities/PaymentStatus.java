@@ -0,0 +1,14 @@
+package com.example.ecommerce_order_service.entities;
+
+// Lifecycle of a payment intent: PENDING -> PROCESSING -> SUCCEEDED or FAILED, back to PENDING on a retryable error
+public enum PaymentStatus {
+    PENDING,
+    PROCESSING,
+    SUCCEEDED,
+    FAILED;
+
+    // Still holds the order's single active payment slot
+    public boolean isActive() {
+        return this != FAILED;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// An (order, status) event that has already been applied; redeliveries of it are skipped
+@Entity
+@Table(name = "processed_events")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessedEvent implements Persistable<String> {
+    @Id
+    @Column(name = "event_key", length = 64)
+    private String eventKey;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+
+    @Transient
+    private boolean isNew = true; // Keys are assigned, so tell Spring Data to persist without a SELECT first
+
+    public ProcessedEvent(String eventKey, LocalDateTime processedAt) {
+        this.eventKey = eventKey;
+        this.processedAt = processedAt;
+    }
+
+    @Override
+    public String getId() {
+        return eventKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// One instance's hour of ProductSalesAnalytics counters, saved periodically so a restart resumes the rolling window.
+// Keyed by instance as well, so replicas counting the same hour never overwrite each other's snapshot.
+@Entity
+@Table(name = "product_sales_snapshots")
+@IdClass(ProductSalesSnapshot.Key.class)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSalesSnapshot {
+    @Id
+    @Column(name = "instance_id", length = 64)
+    private String instanceId;
+
+    @Id
+    @Column(name = "epoch_hour")
+    private long epochHour; // Hours since the epoch, UTC
+
+    @Lob
+    @Column(nullable = false, length = 64 * 1024 * 1024) // Long enough for LONGBLOB on MySQL
+    private byte[] counters; // Packed (productId, units ordered, units sold) triples
+
+    @Column(name = "saved_at", nullable = false)
+    private LocalDateTime savedAt;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String instanceId;
+        private long epochHour;
+    }
+}
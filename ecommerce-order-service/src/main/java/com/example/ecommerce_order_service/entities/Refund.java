@@ -0,0 +1,80 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A requested refund of (part of) an order. The amount is reserved on the order when the refund is
+ * recorded and settled later in batches by RefundSettlementJob; only then does the order move to
+ * PARTIALLY_REFUNDED or REFUNDED. Item lines are empty for refunds of an amount rather than of items.
+ */
+@Entity
+@Table(name = "refunds", indexes = {
+        @Index(name = "idx_refunds_status_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_refunds_order", columnList = "order_id"),
+        @Index(name = "idx_refunds_batch", columnList = "batch_id")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class Refund {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refund_seq")
+    @SequenceGenerator(name = "refund_seq", sequenceName = "refunds_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    private Long paymentId; // Payment being refunded, if the order was paid through the pay endpoint
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor; // In minor units of the currency, see Money
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(length = 255)
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RefundStatus status;
+
+    @Column(nullable = false)
+    private int attempts; // Failed settlement calls so far
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "batch_id", length = 36)
+    private String batchId; // Settlement batch it was last submitted in
+
+    private LocalDateTime submittedAt;
+
+    @Column(length = 128)
+    private String gatewayReference;
+
+    @Column(length = 500)
+    private String failureReason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime settledAt;
+
+    @OneToMany(mappedBy = "refund", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RefundItem> items = new ArrayList<>();
+
+    public Money getAmount() {
+        return Money.ofMinor(amountMinor, currency);
+    }
+}
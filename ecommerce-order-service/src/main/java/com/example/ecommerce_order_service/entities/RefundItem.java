@@ -0,0 +1,33 @@
+package com.example.ecommerce_order_service.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+// Units of one order item covered by a refund
+@Entity
+@Table(name = "refund_item")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefundItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refund_item_seq")
+    @SequenceGenerator(name = "refund_item_seq", sequenceName = "refund_item_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "refund_id", nullable = false)
+    private Refund refund;
+
+    @Column(name = "order_item_id", nullable = false)
+    private Long orderItemId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor; // Unit price times quantity
+}
@@ -0,0 +1,9 @@
+package com.example.ecommerce_order_service.entities;
+
+// PENDING -> SUBMITTED (in a settlement batch) -> SUCCEEDED or FAILED, back to PENDING if the batch call failed
+public enum RefundStatus {
+    PENDING,
+    SUBMITTED,
+    SUCCEEDED,
+    FAILED
+}
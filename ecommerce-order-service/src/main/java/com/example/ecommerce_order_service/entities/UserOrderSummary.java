@@ -0,0 +1,72 @@
+package com.example.ecommerce_order_service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Per-user aggregate of all orders, maintained incrementally by every order change and rebuilt from orders on demand
+@Entity
+@Table(name = "user_order_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserOrderSummary implements Persistable<Long> {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Orders currently in each status
+    @Column(nullable = false)
+    private long createdCount;
+
+    @Column(nullable = false)
+    private long paidCount;
+
+    @Column(nullable = false)
+    private long shippedCount;
+
+    @Column(nullable = false)
+    private long deliveredCount;
+
+    @Column(nullable = false)
+    private long canceledCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long partiallyRefundedCount;
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long refundedCount;
+
+    @Column(name = "total_spent_minor", nullable = false)
+    private long totalSpentMinor; // Sum of order totals minus settled refunds (minor units) over paid, shipped, delivered and refunded orders
+
+    private LocalDateTime lastOrderDate;
+
+    @Transient
+    private boolean isNew = true; // Keys are assigned, so tell Spring Data to persist without a SELECT first
+
+    public UserOrderSummary(Long userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ecommerce_order_service.exceptions;
+
+public class ConcurrentOrderUpdateException extends RuntimeException {
+    public ConcurrentOrderUpdateException(String message) {
+        super(message);
+    }
+}
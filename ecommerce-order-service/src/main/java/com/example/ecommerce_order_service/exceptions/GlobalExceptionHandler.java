@@ -40,6 +40,27 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
+    // Handle Status Changes Not Allowed From The Current Status
+    @ExceptionHandler(InvalidOrderStateException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidOrderStateException(InvalidOrderStateException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), ex.getMessage(), "Invalid order state");
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    // Handle Orders For More Units Than Are In Stock
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorDetails> handleInsufficientStockException(InsufficientStockException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), ex.getMessage(), "Insufficient stock");
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    // Handle Updates That Kept Losing To Concurrent Writers
+    @ExceptionHandler(ConcurrentOrderUpdateException.class)
+    public ResponseEntity<ErrorDetails> handleConcurrentOrderUpdateException(ConcurrentOrderUpdateException ex) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), ex.getMessage(), "Concurrent modification");
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     // Handle Generic Validation Errors (DTO Validation)
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
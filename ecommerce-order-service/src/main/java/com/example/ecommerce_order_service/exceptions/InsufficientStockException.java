@@ -0,0 +1,7 @@
+package com.example.ecommerce_order_service.exceptions;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
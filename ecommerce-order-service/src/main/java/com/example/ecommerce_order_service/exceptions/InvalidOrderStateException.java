@@ -0,0 +1,7 @@
+package com.example.ecommerce_order_service.exceptions;
+
+public class InvalidOrderStateException extends RuntimeException {
+    public InvalidOrderStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ecommerce_order_service.exceptions;
+
+// Temporary payment provider failure (unreachable, overloaded, 5xx); the charge is retried
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.ecommerce_order_service.inventory;
+
+import com.example.ecommerce_order_service.exceptions.InsufficientStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Available units per product, checked and reserved in memory when an order is created so flash sales
+ * cannot oversell, without a call to the inventory system per order.
+ *
+ * Counts are guarded by a fixed set of stripe locks chosen by product ID. An order locks the stripes of
+ * all its products in ascending order, checks every product and only then takes the units, so either all
+ * of its items are reserved or none. Orders for different products rarely share a lock.
+ *
+ * A product's count starts from the InventorySource level the first time it is ordered. Every sync reads
+ * the levels again and sets each count to the level minus the units reserved (net of releases) since the
+ * sync before, which the source is not expected to reflect yet. Restocks and sales elsewhere thus show up
+ * within one sync interval while recent reservations here stay taken.
+ */
+@Slf4j
+@Component
+public class InventoryReservations {
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    private final InventorySource inventorySource;
+    private final boolean enabled;
+    private final ReentrantLock[] stripes;
+    private final Map<Long, ProductStock> stocks = new ConcurrentHashMap<>();
+
+    public InventoryReservations(InventorySource inventorySource,
+                                 @Value("${orders.inventory.enabled:false}") boolean enabled,
+                                 @Value("${orders.inventory.stripes:64}") int stripeCount) {
+        this.inventorySource = inventorySource;
+        this.enabled = enabled;
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Reserves the units of every product or, if one of them is short, none and throws InsufficientStockException
+    public void reserve(Map<Long, Long> unitsByProduct) {
+        if (!enabled || unitsByProduct.isEmpty()) {
+            return;
+        }
+        loadMissing(unitsByProduct.keySet());
+
+        int[] locked = lockStripes(unitsByProduct.keySet());
+        try {
+            for (Map.Entry<Long, Long> entry : unitsByProduct.entrySet()) {
+                long available = stocks.get(entry.getKey()).available;
+                if (available < entry.getValue()) {
+                    throw new InsufficientStockException("Product #" + entry.getKey() + " has " + Math.max(0, available)
+                            + " units in stock, cannot order " + entry.getValue() + ".");
+                }
+            }
+            for (Map.Entry<Long, Long> entry : unitsByProduct.entrySet()) {
+                ProductStock stock = stocks.get(entry.getKey());
+                stock.available -= entry.getValue();
+                stock.reservedSinceSync += entry.getValue();
+            }
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    // Reserves now and releases again if the current transaction does not commit
+    public void reserveForTransaction(Map<Long, Long> unitsByProduct) {
+        reserve(unitsByProduct);
+        if (enabled && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(unitsByProduct);
+                    }
+                }
+            });
+        }
+    }
+
+    public void release(Map<Long, Long> unitsByProduct) {
+        if (!enabled || unitsByProduct.isEmpty()) {
+            return;
+        }
+        int[] locked = lockStripes(unitsByProduct.keySet());
+        try {
+            for (Map.Entry<Long, Long> entry : unitsByProduct.entrySet()) {
+                ProductStock stock = stocks.get(entry.getKey());
+                if (stock != null) {
+                    stock.available += entry.getValue();
+                    stock.reservedSinceSync -= entry.getValue();
+                }
+            }
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    // Releases once the current transaction commits, e.g. the items of a canceled order
+    public void releaseAfterCommit(Map<Long, Long> unitsByProduct) {
+        if (!enabled || unitsByProduct.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(unitsByProduct);
+                }
+            });
+        } else {
+            release(unitsByProduct);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Units that can still be ordered, or -1 if the product has not been ordered since startup
+    public long available(long productId) {
+        ProductStock stock = stocks.get(productId);
+        if (stock == null) {
+            return -1;
+        }
+        ReentrantLock lock = stripes[stripe(productId)];
+        lock.lock();
+        try {
+            return stock.available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns the number of products whose level was read
+    @Scheduled(fixedDelayString = "${orders.inventory.sync-interval-ms:10000}")
+    public int sync() {
+        if (!enabled || stocks.isEmpty()) {
+            return 0;
+        }
+        List<Long> productIds = new ArrayList<>(stocks.keySet());
+        // Reservations from before the previous sync are in the levels about to be read, later ones may not be
+        for (Long productId : productIds) {
+            withStock(productId, stock -> {
+                stock.reservedBeforeSync = stock.reservedSinceSync;
+                stock.reservedSinceSync = 0;
+            });
+        }
+
+        int synced = 0;
+        for (int from = 0; from < productIds.size(); from += SYNC_BATCH_SIZE) {
+            Map<Long, Long> levels = inventorySource.stockLevels(productIds.subList(from, Math.min(from + SYNC_BATCH_SIZE, productIds.size())));
+            for (Map.Entry<Long, Long> level : levels.entrySet()) {
+                withStock(level.getKey(), stock ->
+                        stock.available = level.getValue() - stock.reservedBeforeSync - stock.reservedSinceSync);
+            }
+            synced += levels.size();
+        }
+        log.debug("Synced stock levels of {} products", synced);
+        return synced;
+    }
+
+    // Products seen for the first time get their level from the source, outside of any stripe lock
+    private void loadMissing(Collection<Long> productIds) {
+        List<Long> missing = null;
+        for (Long productId : productIds) {
+            if (!stocks.containsKey(productId)) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(productId);
+            }
+        }
+        if (missing == null) {
+            return;
+        }
+        Map<Long, Long> levels = inventorySource.stockLevels(missing);
+        for (Long productId : missing) {
+            // Unknown products get no stock
+            stocks.putIfAbsent(productId, new ProductStock(levels.getOrDefault(productId, 0L)));
+        }
+    }
+
+    private void withStock(Long productId, Consumer<ProductStock> update) {
+        ProductStock stock = stocks.get(productId);
+        if (stock == null) {
+            return;
+        }
+        ReentrantLock lock = stripes[stripe(productId)];
+        lock.lock();
+        try {
+            update.accept(stock);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Locks each stripe once, in ascending order so two orders can never wait on each other
+    private int[] lockStripes(Collection<Long> productIds) {
+        int[] indexes = productIds.stream().mapToInt(this::stripe).distinct().toArray();
+        Arrays.sort(indexes);
+        for (int index : indexes) {
+            stripes[index].lock();
+        }
+        return indexes;
+    }
+
+    private void unlock(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private int stripe(long productId) {
+        long hash = productId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (stripes.length - 1);
+    }
+
+    // Guarded by the product's stripe lock
+    private static final class ProductStock {
+        private long available;
+        private long reservedSinceSync;  // Net units reserved since the last sync started
+        private long reservedBeforeSync; // Net units reserved between the two syncs before that
+
+        private ProductStock(long available) {
+            this.available = available;
+        }
+    }
+}
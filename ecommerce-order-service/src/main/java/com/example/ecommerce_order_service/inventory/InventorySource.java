@@ -0,0 +1,16 @@
+package com.example.ecommerce_order_service.inventory;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Stock levels from the inventory system of record. Called by InventoryReservations the first time a
+ * product is ordered and on every sync, a batch of products per call, never per order item.
+ *
+ * A level is the units the inventory system considers available; it is expected to take this service's
+ * orders into account (from the order-events topic) within one sync interval. Products missing from the
+ * result are unknown and cannot be ordered. An exception fails the order that needed the level.
+ */
+public interface InventorySource {
+    Map<Long, Long> stockLevels(Collection<Long> productIds);
+}
@@ -0,0 +1,33 @@
+package com.example.ecommerce_order_service.inventory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local stand-in for the inventory system, used when no other InventorySource bean is defined. Every
+ * product has default-stock units unless set otherwise. It never sees orders, so units reserved more than
+ * one sync ago count as back in stock once the next sync runs.
+ */
+public class StubInventorySource implements InventorySource {
+    private final long defaultStock;
+    private final Map<Long, Long> levels = new ConcurrentHashMap<>();
+
+    public StubInventorySource(long defaultStock) {
+        this.defaultStock = defaultStock;
+    }
+
+    @Override
+    public Map<Long, Long> stockLevels(Collection<Long> productIds) {
+        Map<Long, Long> result = new HashMap<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            result.put(productId, levels.getOrDefault(productId, defaultStock));
+        }
+        return result;
+    }
+
+    public void setStockLevel(long productId, long units) {
+        levels.put(productId, units);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ecommerce_order_service.kafka;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Value deserializer for records written as JSON or CBOR. The format comes from the contentType header
+ * (JSON when it is missing, as from producers that never set it); otherwise it behaves exactly like
+ * JsonDeserializer, including the spring.json.* trusted package, type header and default type settings.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+    private final JsonDeserializer<Object> cbor = new JsonDeserializer<>(cborMapper());
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+        cbor.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return (EventFormat.of(headers) == EventFormat.CBOR ? cbor : json).deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+        cbor.close();
+    }
+
+    // Same settings as the mapper JsonDeserializer creates for itself (JacksonUtils.enhancedObjectMapper), over CBOR;
+    // copyWith cannot be used on that mapper, as a JsonMapper only copies with a JSON factory
+    private static ObjectMapper cborMapper() {
+        return CBORMapper.builder()
+                .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .findAndAddModules()
+                .build();
+    }
+}
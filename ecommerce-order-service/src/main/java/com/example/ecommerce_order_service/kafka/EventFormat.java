@@ -0,0 +1,32 @@
+package com.example.ecommerce_order_service.kafka;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+// Encoding of a Kafka record value, announced in its contentType header; records without the header are JSON
+public enum EventFormat {
+    JSON("application/json"),
+    CBOR("application/cbor");
+
+    public static final String HEADER = "contentType";
+
+    private final String contentType;
+
+    EventFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static EventFormat of(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(HEADER);
+        if (header == null) {
+            return JSON;
+        }
+        return CBOR.contentType.equalsIgnoreCase(new String(header.value(), StandardCharsets.UTF_8)) ? CBOR : JSON;
+    }
+}
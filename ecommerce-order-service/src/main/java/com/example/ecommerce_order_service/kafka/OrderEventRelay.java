@@ -0,0 +1,137 @@
+package com.example.ecommerce_order_service.kafka;
+
+import com.example.ecommerce_order_service.entities.OutboxEvent;
+import com.example.ecommerce_order_service.repositories.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox rows to the order-events topic in batches and deletes them once Kafka acknowledged them.
+ * Records are keyed by order ID, so all events of one order land on the same partition in outbox order.
+ * A batch is claimed in a short transaction and published outside of it, so no row lock is held while waiting on
+ * Kafka; other relay instances skip a run while the oldest events are claimed, and take them over once the claim expires.
+ * Delivery is at-least-once: a failed or timed-out send leaves it and every later row for the next run.
+ * Values are written in orders.kafka.event-format, see EventCodec.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OrderEventRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventCodec eventCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    public OrderEventRelay(OutboxEventRepository outboxEventRepository,
+                           KafkaTemplate<String, byte[]> kafkaTemplate,
+                           EventCodec eventCodec,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${orders.outbox.topic:order-events}") String topic,
+                           @Value("${orders.outbox.batch-size:500}") int batchSize,
+                           @Value("${orders.outbox.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.eventCodec = eventCodec;
+        this.transactionTemplate = transactionTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    // Drains full batches back to back, then waits linger-ms before looking again
+    @Scheduled(fixedDelayString = "${orders.outbox.linger-ms:200}")
+    public void relayPendingEvents() {
+        while (relayBatch()) {
+            log.debug("Outbox batch of {} relayed, continuing", batchSize);
+        }
+    }
+
+    // Returns true if a full batch was relayed and more events may be waiting
+    private boolean relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        List<Long> published = publish(batch);
+        List<Long> unpublished = batch.subList(published.size(), batch.size()).stream().map(OutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!published.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(published);
+            }
+            // the next run retries them right away instead of once the claim expires
+            if (!unpublished.isEmpty()) {
+                outboxEventRepository.updateClaimedUntil(unpublished, null);
+            }
+        });
+        return published.size() == batchSize;
+    }
+
+    // The oldest events up to the first one another relay still holds; claimed for longer than publishing can take
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = new ArrayList<>();
+        for (OutboxEvent event : outboxEventRepository.findOldest(Limit.of(batchSize))) {
+            if (event.isClaimedAt(now)) {
+                break;
+            }
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            outboxEventRepository.updateClaimedUntil(batch.stream().map(OutboxEvent::getId).toList(),
+                    now.plus(Duration.ofMillis(2 * sendTimeoutMs)));
+        }
+        return batch;
+    }
+
+    // IDs of the leading events Kafka acknowledged, stopping at the first failure so later events keep their order
+    private List<Long> publish(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ProducerRecord<String, byte[]> record = eventCodec.recordFromJson(topic, String.valueOf(event.getOrderId()), event.getPayload());
+            record.headers()
+                    .add("eventId", String.valueOf(event.getId()).getBytes(StandardCharsets.UTF_8))
+                    .add("eventType", event.getEventType().getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+        }
+
+        // one deadline for the whole batch, so the claim cannot run out while the relay is still waiting
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> published = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.add(batch.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("⚠️ Failed to publish outbox event #{}, will retry: {}", batch.get(i).getId(), e.getMessage());
+                break;
+            }
+        }
+
+        return published;
+    }
+}
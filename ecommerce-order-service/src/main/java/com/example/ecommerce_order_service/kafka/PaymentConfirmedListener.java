@@ -2,30 +2,67 @@ package com.example.ecommerce_order_service.kafka;
 
 import com.example.ecommerce_order_service.DTO.PaymentConfirmedEvent;
 import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
 import com.example.ecommerce_order_service.services.IOrderService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Slf4j
 @Component
 public class PaymentConfirmedListener {
     private final IOrderService orderService;
+    private final OrderMetrics orderMetrics;
 
-    public PaymentConfirmedListener(@Qualifier("OrderServiceImpl") IOrderService orderService) {
+    public PaymentConfirmedListener(@Qualifier("OrderServiceImpl") IOrderService orderService, OrderMetrics orderMetrics) {
         this.orderService = orderService;
+        this.orderMetrics = orderMetrics;
+    }
+
+    @KafkaListener(topics = "${orders.payments.topic:payment-confirmed}", groupId = "order-service-group", containerFactory = "batchKafkaListenerContainerFactory")
+    public void handlePaymentConfirmedEvents(List<PaymentConfirmedEvent> events,
+                                             @Header(KafkaHeaders.RECEIVED_TIMESTAMP) List<Long> timestamps) {
+        long start = System.nanoTime();
+        try {
+            applyPaymentConfirmedEvents(events);
+        } finally {
+            orderMetrics.recordPaymentBatch(System.nanoTime() - start, timestamps);
+        }
     }
 
-    @KafkaListener(topics = "payment-confirmed", groupId = "order-service-group", containerFactory = "kafkaListenerContainerFactory")
-    public void handlePaymentConfirmedEvent(PaymentConfirmedEvent event) {
-        log.info("✅ Received payment-confirmed event: {}", event);
+    private void applyPaymentConfirmedEvents(List<PaymentConfirmedEvent> events) {
+        log.info("✅ Received {} payment-confirmed events", events.size());
 
-        if("PAID".equalsIgnoreCase(event.getStatus())) {
-            orderService.updateOrderStatus(event.getOrderId(), OrderStatus.PAID);
-            log.info("📦 Order #{} marked as PAID", event.getOrderId());
-        } else {
-            log.warn("⚠️ Unexpected payment status: {}", event.getStatus());
+        // Deduplicate by order ID, the last event for an order in the batch wins
+        Map<Long, OrderStatus> transitions = new LinkedHashMap<>();
+        for (PaymentConfirmedEvent event : events) {
+            if (event.getOrderId() == null) {
+                log.warn("⚠️ Payment-confirmed event without order ID: {}", event);
+            } else if("PAID".equalsIgnoreCase(event.getStatus())) {
+                transitions.put(event.getOrderId(), OrderStatus.PAID);
+            } else {
+                log.warn("⚠️ Unexpected payment status: {}", event.getStatus());
+            }
         }
+
+        if (transitions.isEmpty()) {
+            return;
+        }
+
+        Map<OrderStatus, List<Long>> orderIdsByStatus = new EnumMap<>(OrderStatus.class);
+        transitions.forEach((orderId, status) ->
+                orderIdsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(orderId));
+
+        int updated = orderService.updateOrderStatuses(orderIdsByStatus);
+        log.info("📦 {} of {} orders updated from payment-confirmed batch", updated, transitions.size());
     }
 }
@@ -0,0 +1,181 @@
+package com.example.ecommerce_order_service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters recorded on hot paths. They are registered once here, so recording is a plain call
+ * on a held meter: no registry lookup, tag arrays or Timer.Sample per request.
+ */
+@Component
+public class OrderMetrics {
+    private final DistributionSummary orderItems;
+    private final Timer jwtVerification;
+    private final Timer paymentEventLatency;
+    private final Timer paymentEventProcessing;
+    private final DistributionSummary paymentBatchSize;
+    private final Timer gatewayApproved;
+    private final Timer gatewayDeclined;
+    private final Timer gatewayFailed;
+    private final Counter gatewayShortCircuited;
+    private final DistributionSummary refundBatchSize;
+    private final Timer refundBatchCall;
+    private final Timer refundSettlementLatency;
+    private final Counter refundsFailed;
+    private final Timer hotOrderRead;
+    private final Timer archivedOrderRead;
+    private final Counter ordersArchived;
+    private final Counter orderReadsLoaded;
+    private final Counter orderReadsJoined;
+    private final Counter userOrderReadsLoaded;
+    private final Counter userOrderReadsJoined;
+
+    public OrderMetrics(MeterRegistry registry) {
+        this.orderItems = DistributionSummary.builder("orders.created.items")
+                .description("Items per created order")
+                .baseUnit("items")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.jwtVerification = Timer.builder("orders.jwt.verification")
+                .description("Parsing and signature verification of a JWT not found in the authentication cache")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.paymentEventLatency = Timer.builder("orders.payment-confirmed.latency")
+                .description("Time from a payment-confirmed event being produced to its status change being committed")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.paymentEventProcessing = Timer.builder("orders.payment-confirmed.processing")
+                .description("Listener time per payment-confirmed event (batch time divided by batch size)")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.paymentBatchSize = DistributionSummary.builder("orders.payment-confirmed.batch.size")
+                .description("Payment-confirmed events per listener batch")
+                .baseUnit("events")
+                .register(registry);
+        this.gatewayApproved = gatewayTimer(registry, "approved");
+        this.gatewayDeclined = gatewayTimer(registry, "declined");
+        this.gatewayFailed = gatewayTimer(registry, "failed");
+        this.gatewayShortCircuited = Counter.builder("orders.payments.gateway.short-circuited")
+                .description("Payment attempts postponed because the gateway circuit breaker was open")
+                .register(registry);
+        this.refundBatchSize = DistributionSummary.builder("orders.refunds.settlement.batch.size")
+                .description("Refunds per settlement call to the refund gateway")
+                .baseUnit("refunds")
+                .register(registry);
+        this.refundBatchCall = Timer.builder("orders.refunds.settlement.call")
+                .description("Refund gateway call per settlement batch")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.refundSettlementLatency = Timer.builder("orders.refunds.settlement.latency")
+                .description("Time from a refund being recorded to it being settled")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.refundsFailed = Counter.builder("orders.refunds.failed")
+                .description("Refunds rejected by the gateway or given up after max-attempts")
+                .register(registry);
+        this.hotOrderRead = orderReadTimer(registry, "hot");
+        this.archivedOrderRead = orderReadTimer(registry, "archive");
+        this.ordersArchived = Counter.builder("orders.archive.archived")
+                .description("Orders moved from orders to orders_archive")
+                .register(registry);
+        this.orderReadsLoaded = coalescedReadCounter(registry, "order", "loaded");
+        this.orderReadsJoined = coalescedReadCounter(registry, "order", "joined");
+        this.userOrderReadsLoaded = coalescedReadCounter(registry, "user-orders", "loaded");
+        this.userOrderReadsJoined = coalescedReadCounter(registry, "user-orders", "joined");
+    }
+
+    public void recordOrderCreated(int itemCount) {
+        orderItems.record(itemCount);
+    }
+
+    public void recordJwtVerification(long nanos) {
+        jwtVerification.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // producedAtMillis are the records' Kafka timestamps, one per event in the batch
+    public void recordPaymentBatch(long batchNanos, List<Long> producedAtMillis) {
+        int count = producedAtMillis.size();
+        paymentBatchSize.record(count);
+        if (count == 0) {
+            return;
+        }
+
+        long perEventNanos = batchNanos / count;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            paymentEventProcessing.record(perEventNanos, TimeUnit.NANOSECONDS);
+            paymentEventLatency.record(Math.max(0, now - producedAtMillis.get(i)), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Outcome of one gateway call: approved, declined, or failed (exception or timeout, retried)
+    public void recordGatewayCall(boolean failed, boolean approved, long nanos) {
+        Timer timer = failed ? gatewayFailed : approved ? gatewayApproved : gatewayDeclined;
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordGatewayShortCircuited() {
+        gatewayShortCircuited.increment();
+    }
+
+    // Settled refunds per second is the rate of orders.refunds.settlement.latency
+    public void recordRefundBatch(int refunds, long callNanos) {
+        refundBatchSize.record(refunds);
+        refundBatchCall.record(callNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRefundSettled(long latencyMillis) {
+        refundSettlementLatency.record(Math.max(0, latencyMillis), TimeUnit.MILLISECONDS);
+    }
+
+    public void recordRefundsFailed(int count) {
+        refundsFailed.increment(count);
+    }
+
+    // Single-order load on a cache miss; an archive read includes the miss on the orders table before it
+    public void recordOrderRead(boolean archived, long nanos) {
+        (archived ? archivedOrderRead : hotOrderRead).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOrdersArchived(int count) {
+        ordersArchived.increment(count);
+    }
+
+    // A read that ran its own load or joined one already in flight; joined / (loaded + joined) is the coalescing ratio
+    public void recordCoalescedRead(boolean userOrders, boolean joined) {
+        Counter counter = userOrders
+                ? (joined ? userOrderReadsJoined : userOrderReadsLoaded)
+                : (joined ? orderReadsJoined : orderReadsLoaded);
+        counter.increment();
+    }
+
+    private static Counter coalescedReadCounter(MeterRegistry registry, String read, String outcome) {
+        return Counter.builder("orders.read.coalescing")
+                .description("Coalesced reads by whether the caller loaded or joined a load in flight")
+                .tag("read", read)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer orderReadTimer(MeterRegistry registry, String source) {
+        return Timer.builder("orders.read")
+                .description("Loads of a single order with its items by the table it was found in")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Timer gatewayTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("orders.payments.gateway")
+                .description("Payment gateway calls by outcome")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ecommerce_order_service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Records how many SQL statements each request issued, tagged with the matched URI template
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private final SqlStatementCounter sqlStatementCounter;
+    private final MeterRegistry registry;
+    private final Map<String, DistributionSummary> statementsByUri = new ConcurrentHashMap<>();
+
+    public RequestMetricsFilter(SqlStatementCounter sqlStatementCounter, MeterRegistry registry) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        sqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            // The pattern is the mapping's own String (hash already cached), so steady-state lookups allocate nothing
+            statementsByUri.computeIfAbsent(uri, this::statementsSummary).record(sqlStatementCounter.reset());
+        }
+    }
+
+    private DistributionSummary statementsSummary(String uri) {
+        return DistributionSummary.builder("orders.sql.statements.per.request")
+                .description("SQL statements issued while handling one request")
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ecommerce_order_service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook that sees every SQL statement before it is prepared. Counts them in total and
+ * per thread, so {@link RequestMetricsFilter} can report how many statements one request issued.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private final Counter statements;
+    private final ThreadLocal<int[]> perThread = ThreadLocal.withInitial(() -> new int[1]);
+
+    public SqlStatementCounter(MeterRegistry registry) {
+        this.statements = Counter.builder("orders.sql.statements")
+                .description("SQL statements prepared by Hibernate")
+                .register(registry);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        statements.increment();
+        perThread.get()[0]++;
+        return sql;
+    }
+
+    // Returns the statements counted on this thread since the last call and starts over
+    public int reset() {
+        int[] count = perThread.get();
+        int statementCount = count[0];
+        count[0] = 0;
+        return statementCount;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ecommerce_order_service.payments;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Consecutive-failure circuit breaker. After failureThreshold failures in a row it opens and rejects calls
+ * for openDuration, then lets a single probe through (half-open): a success closes it, a failure opens it
+ * again. Every caller that is allowed through must report the outcome with recordSuccess or recordFailure.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMillis;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() < openUntilMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN; // this caller is the probe
+                return true;
+            default:
+                return false; // a probe is already in flight
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openUntilMillis = clock.millis() + openDuration.toMillis();
+        }
+    }
+
+    // Earliest time a rejected call is worth trying again
+    public synchronized long retryAtMillis() {
+        return state == State.OPEN ? openUntilMillis : clock.millis() + openDuration.toMillis();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
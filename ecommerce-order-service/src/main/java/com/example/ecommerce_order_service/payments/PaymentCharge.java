@@ -0,0 +1,15 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.entities.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PaymentCharge {
+    private Long paymentId; // Idempotency key, the same for every attempt of one payment intent
+    private Long orderId;
+    private Money amount;
+    private String paymentMethod;
+    private int attempt; // 1 for the first call
+}
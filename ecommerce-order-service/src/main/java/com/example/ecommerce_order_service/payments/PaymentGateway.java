@@ -0,0 +1,13 @@
+package com.example.ecommerce_order_service.payments;
+
+/**
+ * Charges a payment with the payment provider. Calls are made from PaymentProcessor's worker pool, with a
+ * timeout, retries and a circuit breaker around them.
+ *
+ * A charge may be retried after a timeout or a crash, so implementations must be idempotent on
+ * PaymentCharge.paymentId (pass it to the provider as the idempotency key). A decline is a result;
+ * any exception is treated as a temporary failure and retried.
+ */
+public interface PaymentGateway {
+    PaymentResult charge(PaymentCharge charge);
+}
@@ -0,0 +1,302 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.DTO.OrderState;
+import com.example.ecommerce_order_service.DTO.PaymentConfirmedEvent;
+import com.example.ecommerce_order_service.DTO.PaymentRequestedEvent;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.entities.PaymentIntent;
+import com.example.ecommerce_order_service.entities.PaymentStatus;
+import com.example.ecommerce_order_service.kafka.EventCodec;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import com.example.ecommerce_order_service.repositories.PaymentIntentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Works off payment intents recorded by the pay endpoint, off the request thread.
+ *
+ * A new intent is handed to a bounded worker pool once its transaction commits. A worker claims it
+ * (PENDING -> PROCESSING, compare-and-set), calls the PaymentGateway with a timeout behind a circuit
+ * breaker, and records the outcome: SUCCEEDED, FAILED on a decline or once max-attempts is used up, or
+ * back to PENDING with exponential backoff and jitter. A successful payment is published as a
+ * payment-confirmed event, so the order moves to PAID through PaymentConfirmedListener like payments
+ * confirmed by the payment service.
+ *
+ * The database is the queue: when the pool is full a submission is dropped and the sweep picks the
+ * intent up later, the same as retries that come due, claims left behind by a crashed worker and
+ * successes whose event was not acknowledged by Kafka. Several instances can run side by side, the
+ * claim decides which one makes a call.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.payments.processor-enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentProcessor {
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentGateway paymentGateway;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventCodec eventCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMetrics orderMetrics;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService gatewayCalls;
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet(); // Submitted to the pool and not finished
+    private final String topic;
+    private final Duration callTimeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+    private final long sendTimeoutMs;
+
+    public PaymentProcessor(PaymentIntentRepository paymentIntentRepository,
+                            OrderRepository orderRepository,
+                            PaymentGateway paymentGateway,
+                            KafkaTemplate<String, byte[]> kafkaTemplate,
+                            EventCodec eventCodec,
+                            TransactionTemplate transactionTemplate,
+                            OrderMetrics orderMetrics,
+                            @Value("${orders.payments.workers:8}") int workerCount,
+                            @Value("${orders.payments.queue-capacity:1000}") int queueCapacity,
+                            @Value("${orders.payments.topic:payment-confirmed}") String topic,
+                            @Value("${orders.payments.call-timeout:5s}") Duration callTimeout,
+                            @Value("${orders.payments.max-attempts:5}") int maxAttempts,
+                            @Value("${orders.payments.initial-backoff:1s}") Duration initialBackoff,
+                            @Value("${orders.payments.max-backoff:1m}") Duration maxBackoff,
+                            @Value("${orders.payments.claim-timeout:2m}") Duration claimTimeout,
+                            @Value("${orders.payments.send-timeout-ms:10000}") long sendTimeoutMs,
+                            @Value("${orders.payments.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                            @Value("${orders.payments.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        if (!claimTimeout.minus(callTimeout).isPositive()) {
+            throw new IllegalArgumentException("orders.payments.claim-timeout must be longer than orders.payments.call-timeout");
+        }
+        this.paymentIntentRepository = paymentIntentRepository;
+        this.orderRepository = orderRepository;
+        this.paymentGateway = paymentGateway;
+        this.kafkaTemplate = kafkaTemplate;
+        this.eventCodec = eventCodec;
+        this.transactionTemplate = transactionTemplate;
+        this.orderMetrics = orderMetrics;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration, Clock.systemDefaultZone());
+        // Fixed pool with a bounded queue: a burst of payments waits in the table, not in memory
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("payment-worker-", 0).factory());
+        // The gateway call itself runs on a virtual thread so the worker can give up on it after callTimeout
+        this.gatewayCalls = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-gateway-", 0).factory());
+        this.topic = topic;
+        this.callTimeout = callTimeout;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimTimeout = claimTimeout;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentRequested(PaymentRequestedEvent event) {
+        submit(event.getPaymentId());
+    }
+
+    // Returns false if the pool is full or the intent is already being worked on; the sweep retries it
+    public boolean submit(Long paymentId) {
+        if (!inFlight.add(paymentId)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    process(paymentId);
+                } catch (RuntimeException e) {
+                    // Left PROCESSING, the claim expires and the sweep hands it out again
+                    log.error("Payment #{} failed unexpectedly", paymentId, e);
+                } finally {
+                    inFlight.remove(paymentId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(paymentId);
+            log.debug("Payment worker queue full, payment #{} left for the sweep", paymentId);
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.payments.sweep-interval-ms:1000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = write(() -> paymentIntentRepository.releaseExpiredClaims(
+                PaymentStatus.PROCESSING, PaymentStatus.PENDING, now.minus(claimTimeout), now));
+        if (released > 0) {
+            log.warn("⚠️ Released {} payment claims older than {}", released, claimTimeout);
+        }
+
+        int capacity = Math.min(SWEEP_BATCH_SIZE, workers.getQueue().remainingCapacity());
+        if (capacity > 0) {
+            paymentIntentRepository.findDueIds(PaymentStatus.PENDING, now, Limit.of(capacity)).forEach(this::submit);
+        }
+
+        // Give the worker that recorded the success time to publish before publishing again
+        paymentIntentRepository.findUnconfirmed(PaymentStatus.SUCCEEDED, now.minus(callTimeout), Limit.of(SWEEP_BATCH_SIZE))
+                .forEach(this::publishConfirmation);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(callTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        gatewayCalls.shutdownNow();
+    }
+
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    private void process(Long paymentId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (write(() -> paymentIntentRepository.claim(paymentId, PaymentStatus.PENDING, PaymentStatus.PROCESSING, now)) == 0) {
+            return; // claimed elsewhere, finished or not due
+        }
+        PaymentIntent intent = paymentIntentRepository.findById(paymentId).orElseThrow();
+
+        // The order may have been canceled (or paid another way) since the intent was recorded
+        Optional<OrderStatus> orderStatus = orderRepository.findStateById(intent.getOrderId()).map(OrderState::getOrderStatus);
+        if (orderStatus.isEmpty() || !orderStatus.get().canTransitionTo(OrderStatus.PAID)) {
+            fail(intent, intent.getAttempts(), "Order is " + orderStatus.map(Enum::name).orElse("missing") + ", not charged.");
+            return;
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            orderMetrics.recordGatewayShortCircuited();
+            reschedule(intent, intent.getAttempts(), toLocalDateTime(circuitBreaker.retryAtMillis()), "Payment gateway unavailable.");
+            return;
+        }
+        charge(intent);
+    }
+
+    private void charge(PaymentIntent intent) {
+        int attempt = intent.getAttempts() + 1;
+        PaymentCharge charge = new PaymentCharge(intent.getId(), intent.getOrderId(), intent.getAmount(),
+                intent.getPaymentMethod(), attempt);
+
+        long start = System.nanoTime();
+        Future<PaymentResult> call = gatewayCalls.submit(() -> paymentGateway.charge(charge));
+        PaymentResult result = null;
+        String error;
+        try {
+            result = call.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            error = result == null ? "Payment gateway returned no result." : null;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            error = "Payment gateway did not answer within " + callTimeout + ".";
+        } catch (ExecutionException e) {
+            error = "Payment gateway error: " + e.getCause().getMessage();
+        } catch (InterruptedException e) {
+            // Shutting down; the claim expires and another instance retries it
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        orderMetrics.recordGatewayCall(error != null, result != null && result.isApproved(), System.nanoTime() - start);
+
+        if (error != null) {
+            circuitBreaker.recordFailure();
+            if (attempt >= maxAttempts) {
+                fail(intent, attempt, error + " Gave up after " + attempt + " attempts.");
+            } else {
+                log.debug("Payment #{} attempt {} failed, retrying: {}", intent.getId(), attempt, error);
+                reschedule(intent, attempt, LocalDateTime.now().plus(backoff(attempt)), error);
+            }
+            return;
+        }
+
+        circuitBreaker.recordSuccess();
+        if (!result.isApproved()) {
+            fail(intent, attempt, "Payment declined: " + result.getDeclineReason());
+            return;
+        }
+        String reference = result.getReference();
+        LocalDateTime now = LocalDateTime.now();
+        if (write(() -> paymentIntentRepository.markSucceeded(intent.getId(), PaymentStatus.PROCESSING,
+                PaymentStatus.SUCCEEDED, attempt, reference, now)) == 1) {
+            publishConfirmation(intent);
+        }
+    }
+
+    // Sends the same event the payment service would; the listener ignores duplicates, so resending is safe
+    private void publishConfirmation(PaymentIntent intent) {
+        PaymentConfirmedEvent event = new PaymentConfirmedEvent();
+        event.setOrderId(intent.getOrderId());
+        event.setStatus(OrderStatus.PAID.name());
+        try {
+            kafkaTemplate.send(eventCodec.record(topic, String.valueOf(intent.getOrderId()), event))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            write(() -> paymentIntentRepository.markConfirmed(intent.getId(), LocalDateTime.now()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("⚠️ Failed to publish confirmation of payment #{}, will retry: {}", intent.getId(), e.getMessage());
+        }
+    }
+
+    private void reschedule(PaymentIntent intent, int attempts, LocalDateTime nextAttemptAt, String reason) {
+        write(() -> paymentIntentRepository.reschedule(intent.getId(), PaymentStatus.PROCESSING, PaymentStatus.PENDING,
+                attempts, nextAttemptAt, reason, LocalDateTime.now()));
+    }
+
+    private void fail(PaymentIntent intent, int attempts, String reason) {
+        log.info("Payment #{} for order #{} failed: {}", intent.getId(), intent.getOrderId(), reason);
+        write(() -> paymentIntentRepository.markFailed(intent.getId(), PaymentStatus.PROCESSING, PaymentStatus.FAILED,
+                attempts, reason, LocalDateTime.now()));
+    }
+
+    // initialBackoff * 2^(attempt - 1), capped at maxBackoff, then a random point in its upper half
+    private Duration backoff(int attempt) {
+        long cap = maxBackoff.toMillis();
+        long delay = Math.min(cap, initialBackoff.toMillis() << Math.min(attempt - 1, 30));
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private int write(Supplier<Integer> update) {
+        Integer rows = transactionTemplate.execute(status -> update.get());
+        return rows == null ? 0 : rows;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
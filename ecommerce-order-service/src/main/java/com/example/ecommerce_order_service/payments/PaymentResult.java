@@ -0,0 +1,21 @@
+package com.example.ecommerce_order_service.payments;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Final answer of the provider for a charge; temporary failures are exceptions instead
+@Getter
+@AllArgsConstructor
+public class PaymentResult {
+    private boolean approved;
+    private String reference; // Provider's transaction ID when approved
+    private String declineReason;
+
+    public static PaymentResult approved(String reference) {
+        return new PaymentResult(true, reference, null);
+    }
+
+    public static PaymentResult declined(String reason) {
+        return new PaymentResult(false, null, reason);
+    }
+}
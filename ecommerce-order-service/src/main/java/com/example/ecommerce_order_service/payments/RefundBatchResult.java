@@ -0,0 +1,16 @@
+package com.example.ecommerce_order_service.payments;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+
+// Provider's answer for a settlement batch: refunds it paid out and refunds it rejected, with the reason
+@Getter
+@AllArgsConstructor
+public class RefundBatchResult {
+    private String reference; // Provider's ID of the batch
+    private Set<Long> settledRefundIds;
+    private Map<Long, String> rejectedRefunds;
+}
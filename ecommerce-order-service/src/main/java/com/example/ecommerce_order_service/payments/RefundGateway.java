@@ -0,0 +1,14 @@
+package com.example.ecommerce_order_service.payments;
+
+import java.util.List;
+
+/**
+ * Settles refunds with the payment provider, a batch per call rather than one call per refund.
+ *
+ * A refund whose batch call failed or timed out is submitted again in a later batch, so implementations
+ * must be idempotent on RefundInstruction.refundId. Refunds missing from the result are retried too;
+ * an exception fails the whole call and every refund in it is retried.
+ */
+public interface RefundGateway {
+    RefundBatchResult settle(String batchId, List<RefundInstruction> refunds);
+}
@@ -0,0 +1,14 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.entities.Money;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RefundInstruction {
+    private Long refundId; // Idempotency key, the same in every batch the refund is submitted in
+    private Long orderId;
+    private Long paymentId; // null if the order was not paid through the pay endpoint
+    private Money amount;
+}
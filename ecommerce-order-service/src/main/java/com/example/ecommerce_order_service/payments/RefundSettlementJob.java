@@ -0,0 +1,177 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.entities.Refund;
+import com.example.ecommerce_order_service.entities.RefundStatus;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.RefundRepository;
+import com.example.ecommerce_order_service.services.IOrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Settles pending refunds in batches: claims up to batch-size due refunds under a new batch ID, makes one
+ * RefundGateway call for all of them and applies the outcome to refunds and orders in one transaction.
+ * Full batches are settled back to back, then the job waits linger-ms, so a burst of refunds (e.g. after
+ * a promotion) costs one gateway call per batch instead of one per refund.
+ *
+ * A failed call puts the whole batch back with exponential backoff until max-attempts, after which its
+ * refunds are failed and their reservations released. Batches left SUBMITTED by an instance that died
+ * mid-call are released after claim-timeout; the gateway deduplicates by refund ID.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.refunds.settlement-enabled", havingValue = "true", matchIfMissing = true)
+public class RefundSettlementJob {
+    private final RefundRepository refundRepository;
+    private final IOrderService orderService;
+    private final RefundGateway refundGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMetrics orderMetrics;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+
+    public RefundSettlementJob(RefundRepository refundRepository,
+                               @Qualifier("OrderServiceImpl") IOrderService orderService,
+                               RefundGateway refundGateway,
+                               TransactionTemplate transactionTemplate,
+                               OrderMetrics orderMetrics,
+                               @Value("${orders.refunds.batch-size:500}") int batchSize,
+                               @Value("${orders.refunds.max-attempts:10}") int maxAttempts,
+                               @Value("${orders.refunds.initial-backoff:10s}") Duration initialBackoff,
+                               @Value("${orders.refunds.max-backoff:10m}") Duration maxBackoff,
+                               @Value("${orders.refunds.claim-timeout:5m}") Duration claimTimeout) {
+        this.refundRepository = refundRepository;
+        this.orderService = orderService;
+        this.refundGateway = refundGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.orderMetrics = orderMetrics;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.refunds.linger-ms:1000}")
+    public void settlePendingRefunds() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = transactionTemplate.execute(status -> refundRepository.releaseExpiredClaims(
+                RefundStatus.SUBMITTED, RefundStatus.PENDING, now.minus(claimTimeout), now));
+        if (released != null && released > 0) {
+            log.warn("⚠️ Released {} refunds submitted more than {} ago", released, claimTimeout);
+        }
+
+        while (settleBatch() == batchSize) {
+            log.debug("Refund batch of {} settled, continuing", batchSize);
+        }
+    }
+
+    // Returns the number of refunds submitted, batchSize if more may be waiting
+    int settleBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = refundRepository.findDueIds(RefundStatus.PENDING, now, Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        String batchId = UUID.randomUUID().toString();
+        transactionTemplate.execute(status -> refundRepository.claim(due, RefundStatus.PENDING, RefundStatus.SUBMITTED, batchId, now));
+        List<Refund> batch = refundRepository.findByBatchIdOrderById(batchId);
+        if (batch.isEmpty()) {
+            return due.size(); // all taken by another instance, look again
+        }
+
+        List<RefundInstruction> instructions = new ArrayList<>(batch.size());
+        for (Refund refund : batch) {
+            instructions.add(new RefundInstruction(refund.getId(), refund.getOrderId(), refund.getPaymentId(), refund.getAmount()));
+        }
+
+        long start = System.nanoTime();
+        RefundBatchResult result;
+        try {
+            result = refundGateway.settle(batchId, instructions);
+        } catch (RuntimeException e) {
+            orderMetrics.recordRefundBatch(batch.size(), System.nanoTime() - start);
+            log.warn("⚠️ Refund batch {} of {} refunds failed: {}", batchId, batch.size(), e.getMessage());
+            retryOrFail(batch, "Refund gateway error: " + e.getMessage());
+            return 0; // stop draining until the next run rather than hammer a failing gateway
+        }
+        orderMetrics.recordRefundBatch(batch.size(), System.nanoTime() - start);
+
+        Set<Long> settled = new HashSet<>();
+        Map<Long, String> rejected = new HashMap<>();
+        List<Refund> unanswered = new ArrayList<>();
+        for (Refund refund : batch) {
+            if (result.getSettledRefundIds().contains(refund.getId())) {
+                settled.add(refund.getId());
+            } else if (result.getRejectedRefunds().containsKey(refund.getId())) {
+                rejected.put(refund.getId(), "Refund rejected: " + result.getRejectedRefunds().get(refund.getId()));
+            } else {
+                unanswered.add(refund);
+            }
+        }
+
+        orderService.applyRefundSettlement(result.getReference(), settled, rejected);
+        LocalDateTime settledAt = LocalDateTime.now();
+        for (Refund refund : batch) {
+            if (settled.contains(refund.getId())) {
+                orderMetrics.recordRefundSettled(Duration.between(refund.getCreatedAt(), settledAt).toMillis());
+            }
+        }
+        orderMetrics.recordRefundsFailed(rejected.size());
+        if (!unanswered.isEmpty()) {
+            retryOrFail(unanswered, "No result from the refund gateway.");
+        }
+        return due.size();
+    }
+
+    private void retryOrFail(List<Refund> refunds, String reason) {
+        List<Long> retry = new ArrayList<>();
+        Map<Long, String> exhausted = new HashMap<>();
+        int attempts = 0;
+        for (Refund refund : refunds) {
+            if (refund.getAttempts() + 1 >= maxAttempts) {
+                exhausted.put(refund.getId(), reason + " Gave up after " + (refund.getAttempts() + 1) + " attempts.");
+            } else {
+                retry.add(refund.getId());
+                attempts = Math.max(attempts, refund.getAttempts() + 1);
+            }
+        }
+
+        if (!retry.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime nextAttemptAt = now.plus(backoff(attempts));
+            transactionTemplate.execute(status -> refundRepository.reschedule(retry, RefundStatus.SUBMITTED, RefundStatus.PENDING,
+                    nextAttemptAt, reason, now));
+        }
+        if (!exhausted.isEmpty()) {
+            orderService.applyRefundSettlement(null, Set.of(), exhausted);
+            orderMetrics.recordRefundsFailed(exhausted.size());
+        }
+    }
+
+    // initialBackoff * 2^(attempt - 1), capped at maxBackoff, then a random point in its upper half
+    private Duration backoff(int attempt) {
+        long delay = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 30));
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.exceptions.PaymentGatewayException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the payment provider, used when no other PaymentGateway bean is defined. Approves
+ * every positive amount after a fixed latency; a failure rate above 0 makes that share of calls throw,
+ * to exercise retries and the circuit breaker.
+ */
+public class StubPaymentGateway implements PaymentGateway {
+    private final Duration latency;
+    private final double failureRate;
+
+    public StubPaymentGateway(Duration latency, double failureRate) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public PaymentResult charge(PaymentCharge charge) {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Interrupted");
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException("Simulated gateway failure");
+        }
+        if (charge.getAmount().getMinorUnits() <= 0) {
+            return PaymentResult.declined("Amount must be positive.");
+        }
+        return PaymentResult.approved("stub-" + charge.getPaymentId() + "-" + UUID.randomUUID());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.exceptions.PaymentGatewayException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local stand-in for the provider's batch refund API, used when no other RefundGateway bean is defined.
+ * Each call costs a fixed latency plus a per-refund latency, which is what makes batching pay off;
+ * every positive amount is settled.
+ */
+public class StubRefundGateway implements RefundGateway {
+    private final Duration callLatency;
+    private final Duration perRefundLatency;
+
+    public StubRefundGateway(Duration callLatency, Duration perRefundLatency) {
+        this.callLatency = callLatency;
+        this.perRefundLatency = perRefundLatency;
+    }
+
+    @Override
+    public RefundBatchResult settle(String batchId, List<RefundInstruction> refunds) {
+        Duration latency = callLatency.plus(perRefundLatency.multipliedBy(refunds.size()));
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Interrupted");
+            }
+        }
+
+        Set<Long> settled = new HashSet<>();
+        Map<Long, String> rejected = new HashMap<>();
+        for (RefundInstruction refund : refunds) {
+            if (refund.getAmount().getMinorUnits() > 0) {
+                settled.add(refund.getRefundId());
+            } else {
+                rejected.put(refund.getRefundId(), "Amount must be positive.");
+            }
+        }
+        return new RefundBatchResult("stub-batch-" + batchId, settled, rejected);
+    }
+}
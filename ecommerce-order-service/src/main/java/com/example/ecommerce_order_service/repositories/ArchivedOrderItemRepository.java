@@ -0,0 +1,27 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.DTO.OrderItemProjection;
+import com.example.ecommerce_order_service.entities.ArchivedOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+    // Item rows for a set of archived orders in a single query
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderItemProjection(i.orderId, i.id, i.productId, i.quantity, i.priceMinor) " +
+            "from ArchivedOrderItem i where i.orderId in :orderIds order by i.id")
+    List<OrderItemProjection> findProjectionsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Copies the items of the given orders into the archive with one INSERT ... SELECT
+    @Modifying
+    @Query("insert into ArchivedOrderItem (id, orderId, productId, quantity, priceMinor, refundedQuantity) " +
+            "select i.id, i.order.id, i.productId, i.quantity, i.priceMinor, i.refundedQuantity " +
+            "from OrderItem i where i.order.id in :orderIds")
+    int copyFromOrderItems(@Param("orderIds") Collection<Long> orderIds);
+}
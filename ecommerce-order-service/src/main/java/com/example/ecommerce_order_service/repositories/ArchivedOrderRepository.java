@@ -0,0 +1,57 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.entities.ArchivedOrder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    // Single archived order DTO by ID (items are loaded separately)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from ArchivedOrder o where o.id = :orderId")
+    Optional<OrderResponse> findOrderResponseById(@Param("orderId") Long orderId);
+
+    // Archived order DTOs by User ID, in the same (orderDate, id) order as the hot listing
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from ArchivedOrder o where o.userId = :userId order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByUserId(@Param("userId") Long userId);
+
+    // First keyset page of a user's archived orders, ordered by (orderDate, id)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from ArchivedOrder o where o.userId = :userId order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByUserId(@Param("userId") Long userId, Limit limit);
+
+    // Next keyset page of a user's archived orders after the given (orderDate, id) position
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from ArchivedOrder o where o.userId = :userId " +
+            "and (o.orderDate > :orderDate or (o.orderDate = :orderDate and o.id > :orderId)) order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByUserIdAfter(@Param("userId") Long userId, @Param("orderDate") LocalDateTime orderDate,
+                                                        @Param("orderId") Long orderId, Limit limit);
+
+    // Cursor-backed stream of a user's archived orders for NDJSON exports (must be consumed inside a transaction and closed)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from ArchivedOrder o where o.userId = :userId order by o.orderDate, o.id")
+    Stream<OrderResponse> streamOrderResponsesByUserId(@Param("userId") Long userId);
+
+    // Copies the given orders into the archive with one INSERT ... SELECT
+    @Modifying
+    @Query("insert into ArchivedOrder (id, userId, orderDate, totalAmountMinor, currency, refundedAmountMinor, orderStatus, archivedAt) " +
+            "select o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.refundedAmountMinor, o.orderStatus, local datetime " +
+            "from Order o where o.id in :orderIds")
+    int copyFromOrders(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,9 +1,14 @@
 package com.example.ecommerce_order_service.repositories;
 
+import com.example.ecommerce_order_service.DTO.OrderItemProjection;
 import com.example.ecommerce_order_service.entities.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,6 +16,21 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     // Find all items for a given order
     List<OrderItem> findByOrderId(Long orderId);
 
+    // Item rows for a set of orders in a single query (avoids one lazy SELECT per order)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderItemProjection(i.order.id, i.id, i.productId, i.quantity, i.priceMinor) " +
+            "from OrderItem i where i.order.id in :orderIds order by i.id")
+    List<OrderItemProjection> findProjectionsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
     // Delete all items for a given order
     void deleteByOrderId(Long orderId);
+
+    // Deletes the given items of one order in one statement; items of other orders are left alone
+    @Modifying
+    @Query("delete from OrderItem i where i.order.id = :orderId and i.id in :orderItemIds")
+    int deleteByOrderIdAndIdIn(@Param("orderId") Long orderId, @Param("orderItemIds") Collection<Long> orderItemIds);
+
+    // Deletes the items of the given orders in one statement
+    @Modifying
+    @Query("delete from OrderItem i where i.order.id in :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -1,15 +1,29 @@
 package com.example.ecommerce_order_service.repositories;
 
 import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.DTO.OrderState;
 import com.example.ecommerce_order_service.entities.Order;
 import com.example.ecommerce_order_service.entities.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderSearchRepository {
     // Find orders by User ID
     List<Order> findByUserId(Long userId);
 
@@ -17,8 +31,113 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Find orders by Status
     List<Order> findByOrderStatus(OrderStatus orderStatus);
 
+    // Orders locked for a refund change, in ID order so concurrent lockers never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Order o where o.id in :orderIds order by o.id")
+    List<Order> findAllForUpdateByIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Single order DTO by ID (items are loaded separately)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.id = :orderId")
+    Optional<OrderResponse> findOrderResponseById(@Param("orderId") Long orderId);
+
+    // Order DTOs by User ID (items are loaded separately with one IN query)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.userId = :userId order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByUserId(@Param("userId") Long userId);
+
+    // Order DTOs by Status (items are loaded separately with one IN query)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.orderStatus = :orderStatus order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByOrderStatus(@Param("orderStatus") OrderStatus orderStatus);
+
+    // First keyset page of a user's orders, ordered by (orderDate, id)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.userId = :userId order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByUserId(@Param("userId") Long userId, Limit limit);
+
+    // Next keyset page of a user's orders after the given (orderDate, id) position
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.userId = :userId " +
+            "and (o.orderDate > :orderDate or (o.orderDate = :orderDate and o.id > :orderId)) order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByUserIdAfter(@Param("userId") Long userId, @Param("orderDate") LocalDateTime orderDate,
+                                                        @Param("orderId") Long orderId, Limit limit);
+
+    // First keyset page of orders with the given status, ordered by (orderDate, id)
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.orderStatus = :orderStatus order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByOrderStatus(@Param("orderStatus") OrderStatus orderStatus, Limit limit);
+
+    // Next keyset page of orders with the given status after the given (orderDate, id) position
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.orderStatus = :orderStatus " +
+            "and (o.orderDate > :orderDate or (o.orderDate = :orderDate and o.id > :orderId)) order by o.orderDate, o.id")
+    List<OrderResponse> findOrderResponsesByOrderStatusAfter(@Param("orderStatus") OrderStatus orderStatus, @Param("orderDate") LocalDateTime orderDate,
+                                                             @Param("orderId") Long orderId, Limit limit);
+
+    // Cursor-backed streams for NDJSON exports (must be consumed inside a transaction and closed)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.userId = :userId order by o.orderDate, o.id")
+    Stream<OrderResponse> streamOrderResponsesByUserId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderResponse(o.id, o.userId, o.orderDate, o.totalAmountMinor, o.currency, o.orderStatus) " +
+            "from Order o where o.orderStatus = :orderStatus order by o.orderDate, o.id")
+    Stream<OrderResponse> streamOrderResponsesByOrderStatus(@Param("orderStatus") OrderStatus orderStatus);
+
+    // Status and version of an order, read without locks before a conditional transition
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderState(o.id, o.userId, o.orderStatus, o.version, o.totalAmountMinor, o.currency) " +
+            "from Order o where o.id = :orderId")
+    Optional<OrderState> findStateById(@Param("orderId") Long orderId);
+
+    // States of the given orders that are currently in one of the statuses
+    @Query("select new com.example.ecommerce_order_service.DTO.OrderState(o.id, o.userId, o.orderStatus, o.version, o.totalAmountMinor, o.currency) " +
+            "from Order o where o.id in :orderIds and o.orderStatus in :statuses")
+    List<OrderState> findStatesByIdInAndOrderStatusIn(@Param("orderIds") Collection<Long> orderIds, @Param("statuses") Collection<OrderStatus> statuses);
+
+    // Takes the order's row lock for an item edit, only while it is in one of the statuses; 0 if it is not
+    @Modifying
+    @Query("update Order o set o.version = o.version + 1 where o.id = :orderId and o.orderStatus in :statuses")
+    int lockForItemEdit(@Param("orderId") Long orderId, @Param("statuses") Collection<OrderStatus> statuses);
+
+    // Sets an order's total to the sum of its items, after they were changed in the same transaction
+    @Modifying
+    @Query("update Order o set o.totalAmountMinor = " +
+            "(select coalesce(sum(i.priceMinor * i.quantity), 0L) from OrderItem i where i.order.id = :orderId), " +
+            "o.version = o.version + 1 where o.id = :orderId")
+    int recomputeTotalAmount(@Param("orderId") Long orderId);
+
+    // Compare-and-set status change: only applies if the order was not modified since its version was read.
+    // paidAt is only written while still unset, so pass null unless the order is being (or was) paid.
+    @Modifying
+    @Query("update Order o set o.orderStatus = :orderStatus, o.paidAt = coalesce(o.paidAt, :paidAt), o.version = o.version + 1 " +
+            "where o.id = :orderId and o.version = :version")
+    int updateOrderStatusIfVersion(@Param("orderId") Long orderId, @Param("version") Long version, @Param("orderStatus") OrderStatus orderStatus,
+                                   @Param("paidAt") LocalDateTime paidAt);
+
+    // IDs among the given orders that are currently in one of the statuses
+    @Query("select o.id from Order o where o.id in :orderIds and o.orderStatus in :statuses")
+    List<Long> findIdsByIdInAndOrderStatusIn(@Param("orderIds") Collection<Long> orderIds, @Param("statuses") Collection<OrderStatus> statuses);
+
+    // Bulk status change in a single UPDATE, only for orders currently in one of the previous statuses; paidAt as above
+    @Modifying
+    @Query("update Order o set o.orderStatus = :orderStatus, o.paidAt = coalesce(o.paidAt, :paidAt), o.version = o.version + 1 " +
+            "where o.id in :orderIds and o.orderStatus in :previousStatuses")
+    int updateOrderStatusByIdIn(@Param("orderIds") Collection<Long> orderIds, @Param("orderStatus") OrderStatus orderStatus,
+                                @Param("previousStatuses") Collection<OrderStatus> previousStatuses, @Param("paidAt") LocalDateTime paidAt);
+
+    // Next chunk of orders that are in one of the statuses since before the cutoff and have no refund pending
+    @Query("select o.id from Order o where o.orderStatus in :statuses and o.orderDate < :before " +
+            "and o.pendingRefundMinor = 0 and o.id > :afterId order by o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses, @Param("before") LocalDateTime before,
+                                 @Param("afterId") Long afterId, Limit limit);
+
+    // Deletes the given orders in one statement; their items must be deleted first
+    @Modifying
+    @Query("delete from Order o where o.id in :orderIds")
+    int deleteByIdIn(@Param("orderIds") Collection<Long> orderIds);
+
     // Check if an order exists by ID
     boolean existsById(Long id);
-
-    OrderResponse getOrderById(Long orderId);
 }
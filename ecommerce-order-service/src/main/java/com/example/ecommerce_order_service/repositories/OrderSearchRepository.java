@@ -0,0 +1,14 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.entities.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Custom fragment of OrderRepository for dynamic searches projected straight into DTOs
+public interface OrderSearchRepository {
+    // Order DTOs matching the specification, ordered by (orderDate, id) like the keyset listings; items are loaded separately
+    List<OrderResponse> findOrderResponses(Specification<Order> specification, Limit limit);
+}
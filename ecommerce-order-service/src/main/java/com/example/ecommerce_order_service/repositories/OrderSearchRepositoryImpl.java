@@ -0,0 +1,43 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.entities.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Same constructor projection as the @Query listings, so searches never load Order entities
+class OrderSearchRepositoryImpl implements OrderSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderResponse> findOrderResponses(Specification<Order> specification, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderResponse> query = cb.createQuery(OrderResponse.class);
+        Root<Order> order = query.from(Order.class);
+
+        query.select(cb.construct(OrderResponse.class, order.get("id"), order.get("userId"), order.get("orderDate"),
+                order.get("totalAmountMinor"), order.get("currency"), order.get("orderStatus")));
+        Predicate predicate = specification.toPredicate(order, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(order.get("orderDate")), cb.asc(order.get("id")));
+
+        TypedQuery<OrderResponse> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// Composable filters for order searches, combined with Specification.where(...).and(...)
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> hasUserId(Long userId) {
+        return (order, query, cb) -> cb.equal(order.get("userId"), userId);
+    }
+
+    public static Specification<Order> hasStatusIn(Collection<OrderStatus> statuses) {
+        return (order, query, cb) -> order.get("orderStatus").in(statuses);
+    }
+
+    public static Specification<Order> placedFrom(LocalDateTime from) {
+        return (order, query, cb) -> cb.greaterThanOrEqualTo(order.<LocalDateTime>get("orderDate"), from);
+    }
+
+    public static Specification<Order> placedBefore(LocalDateTime to) {
+        return (order, query, cb) -> cb.lessThan(order.<LocalDateTime>get("orderDate"), to);
+    }
+
+    public static Specification<Order> totalAtLeast(long amountMinor, String currency) {
+        return (order, query, cb) -> cb.and(cb.equal(order.get("currency"), currency),
+                cb.greaterThanOrEqualTo(order.<Long>get("totalAmountMinor"), amountMinor));
+    }
+
+    public static Specification<Order> totalAtMost(long amountMinor, String currency) {
+        return (order, query, cb) -> cb.and(cb.equal(order.get("currency"), currency),
+                cb.lessThanOrEqualTo(order.<Long>get("totalAmountMinor"), amountMinor));
+    }
+
+    // IN subquery rather than a join, so an order with the product twice is still returned once and
+    // the database can drive the lookup from the product_id index
+    public static Specification<Order> containsProduct(Long productId) {
+        return (order, query, cb) -> {
+            Subquery<Long> orderIds = query.subquery(Long.class);
+            Root<OrderItem> item = orderIds.from(OrderItem.class);
+            orderIds.select(item.get("order").<Long>get("id")).where(cb.equal(item.get("productId"), productId));
+            return order.get("id").in(orderIds);
+        };
+    }
+
+    // Keyset position: orders after (orderDate, id) in the listing order
+    public static Specification<Order> after(LocalDateTime orderDate, Long orderId) {
+        return (order, query, cb) -> cb.or(
+                cb.greaterThan(order.<LocalDateTime>get("orderDate"), orderDate),
+                cb.and(cb.equal(order.<LocalDateTime>get("orderDate"), orderDate), cb.greaterThan(order.<Long>get("id"), orderId)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.PaymentIntent;
+import com.example.ecommerce_order_service.entities.PaymentStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, Long> {
+    Optional<PaymentIntent> findByActiveOrderId(Long orderId);
+
+    Optional<PaymentIntent> findByIdAndOrderId(Long id, Long orderId);
+
+    // IDs of PENDING intents whose next attempt is due, oldest first
+    @Query("select p.id from PaymentIntent p where p.status = :status and p.nextAttemptAt <= :now order by p.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") PaymentStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    // SUCCEEDED intents whose payment-confirmed event was not acknowledged yet
+    @Query("select p from PaymentIntent p where p.status = :status and p.confirmedAt is null and p.updatedAt < :before order by p.id")
+    List<PaymentIntent> findUnconfirmed(@Param("status") PaymentStatus status, @Param("before") LocalDateTime before, Limit limit);
+
+    // Compare-and-set PENDING -> PROCESSING; 0 rows means another worker claimed it or it is not due
+    @Modifying
+    @Query("update PaymentIntent p set p.status = :to, p.claimedAt = :now, p.updatedAt = :now " +
+            "where p.id = :id and p.status = :from and p.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("from") PaymentStatus from, @Param("to") PaymentStatus to, @Param("now") LocalDateTime now);
+
+    // Hands a claimed intent back for a later attempt (retryable error, or the gateway is not taking calls)
+    @Modifying
+    @Query("update PaymentIntent p set p.status = :to, p.attempts = :attempts, p.nextAttemptAt = :nextAttemptAt, " +
+            "p.failureReason = :reason, p.updatedAt = :now where p.id = :id and p.status = :from")
+    int reschedule(@Param("id") Long id, @Param("from") PaymentStatus from, @Param("to") PaymentStatus to,
+                   @Param("attempts") int attempts, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update PaymentIntent p set p.status = :to, p.attempts = :attempts, p.gatewayReference = :reference, " +
+            "p.failureReason = null, p.updatedAt = :now where p.id = :id and p.status = :from")
+    int markSucceeded(@Param("id") Long id, @Param("from") PaymentStatus from, @Param("to") PaymentStatus to,
+                      @Param("attempts") int attempts, @Param("reference") String reference, @Param("now") LocalDateTime now);
+
+    // Also frees the order's active slot so the customer can pay again
+    @Modifying
+    @Query("update PaymentIntent p set p.status = :to, p.activeOrderId = null, p.attempts = :attempts, " +
+            "p.failureReason = :reason, p.updatedAt = :now where p.id = :id and p.status = :from")
+    int markFailed(@Param("id") Long id, @Param("from") PaymentStatus from, @Param("to") PaymentStatus to,
+                   @Param("attempts") int attempts, @Param("reason") String reason, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update PaymentIntent p set p.confirmedAt = :now where p.id = :id")
+    int markConfirmed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Claims held longer than the lease belong to a worker that died or was shut down mid-call
+    @Modifying
+    @Query("update PaymentIntent p set p.status = :to, p.nextAttemptAt = :now, p.updatedAt = :now " +
+            "where p.status = :from and p.claimedAt < :claimedBefore")
+    int releaseExpiredClaims(@Param("from") PaymentStatus from, @Param("to") PaymentStatus to,
+                             @Param("claimedBefore") LocalDateTime claimedBefore, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.ProcessedEvent;
+
+import java.util.List;
+
+// Custom fragment of ProcessedEventRepository for inserts that tolerate a concurrent consumer recording the same event
+public interface ProcessedEventInsertRepository {
+    // Inserts the events in one batch, skipping any whose key is already stored instead of failing the transaction
+    void insertIgnoringDuplicates(List<ProcessedEvent> events);
+}
@@ -0,0 +1,41 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.ProcessedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.List;
+
+// MySQL's INSERT IGNORE waits for a concurrent insert of the same key and then skips the row; other databases
+// (H2 in tests) get the standard MERGE that only inserts when not matched
+class ProcessedEventInsertRepositoryImpl implements ProcessedEventInsertRepository {
+    private static final String INSERT_IGNORE = "insert ignore into processed_events (event_key, processed_at) values (?, ?)";
+    private static final String MERGE = "merge into processed_events p " +
+            "using (select cast(? as varchar(64)) as event_key, cast(? as timestamp) as processed_at) e " +
+            "on p.event_key = e.event_key " +
+            "when not matched then insert (event_key, processed_at) values (e.event_key, e.processed_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    ProcessedEventInsertRepositoryImpl(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.insertSql = product.startsWith("MySQL") || product.startsWith("MariaDB") ? INSERT_IGNORE : MERGE;
+    }
+
+    @Override
+    public void insertIgnoringDuplicates(List<ProcessedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(insertSql, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getEventKey());
+            statement.setTimestamp(2, Timestamp.valueOf(event.getProcessedAt()));
+        });
+    }
+}
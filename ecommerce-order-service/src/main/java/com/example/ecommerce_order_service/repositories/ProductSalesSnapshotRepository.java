@@ -0,0 +1,22 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.ProductSalesSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSalesSnapshotRepository extends JpaRepository<ProductSalesSnapshot, ProductSalesSnapshot.Key> {
+
+    // Every instance's snapshots of the hours from epochHour on
+    List<ProductSalesSnapshot> findByEpochHourGreaterThanEqual(long epochHour);
+
+    // Drops hours that have left the window in one statement, of all instances
+    @Modifying
+    @Query("delete from ProductSalesSnapshot s where s.epochHour < :epochHour")
+    int deleteOlderThan(@Param("epochHour") long epochHour);
+}
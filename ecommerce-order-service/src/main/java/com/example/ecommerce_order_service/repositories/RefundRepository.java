@@ -0,0 +1,52 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.Refund;
+import com.example.ecommerce_order_service.entities.RefundStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RefundRepository extends JpaRepository<Refund, Long> {
+    @EntityGraph(attributePaths = "items")
+    List<Refund> findByOrderIdOrderById(Long orderId);
+
+    @EntityGraph(attributePaths = "items")
+    List<Refund> findByIdIn(Collection<Long> ids);
+
+    List<Refund> findByBatchIdOrderById(String batchId);
+
+    // IDs of PENDING refunds that are due, oldest first
+    @Query("select r.id from Refund r where r.status = :status and r.nextAttemptAt <= :now order by r.id")
+    List<Long> findDueIds(@Param("status") RefundStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+    // Compare-and-set PENDING -> SUBMITTED under a new batch ID; rows claimed by another instance are skipped
+    @Modifying
+    @Query("update Refund r set r.status = :to, r.batchId = :batchId, r.submittedAt = :now, r.updatedAt = :now " +
+            "where r.id in :ids and r.status = :from")
+    int claim(@Param("ids") Collection<Long> ids, @Param("from") RefundStatus from, @Param("to") RefundStatus to,
+              @Param("batchId") String batchId, @Param("now") LocalDateTime now);
+
+    // Puts refunds of a failed batch call back in the queue for a later batch
+    @Modifying
+    @Query("update Refund r set r.status = :to, r.attempts = r.attempts + 1, r.nextAttemptAt = :nextAttemptAt, " +
+            "r.failureReason = :reason, r.updatedAt = :now where r.id in :ids and r.status = :from")
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("from") RefundStatus from, @Param("to") RefundStatus to,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("reason") String reason,
+                   @Param("now") LocalDateTime now);
+
+    // Batches submitted longer ago than the claim timeout belong to an instance that died mid-call
+    @Modifying
+    @Query("update Refund r set r.status = :to, r.nextAttemptAt = :now, r.updatedAt = :now " +
+            "where r.status = :from and r.submittedAt < :submittedBefore")
+    int releaseExpiredClaims(@Param("from") RefundStatus from, @Param("to") RefundStatus to,
+                             @Param("submittedBefore") LocalDateTime submittedBefore, @Param("now") LocalDateTime now);
+}
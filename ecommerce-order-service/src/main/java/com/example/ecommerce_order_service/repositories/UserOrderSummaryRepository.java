@@ -0,0 +1,61 @@
+package com.example.ecommerce_order_service.repositories;
+
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.entities.UserOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+
+    // Adds the deltas in place, so concurrent changes for the same user never overwrite each other.
+    // lastOrderDate only moves forward; pass null to leave it unchanged.
+    @Modifying
+    @Query("update UserOrderSummary s set " +
+            "s.createdCount = s.createdCount + :created, " +
+            "s.paidCount = s.paidCount + :paid, " +
+            "s.shippedCount = s.shippedCount + :shipped, " +
+            "s.deliveredCount = s.deliveredCount + :delivered, " +
+            "s.canceledCount = s.canceledCount + :canceled, " +
+            "s.partiallyRefundedCount = s.partiallyRefundedCount + :partiallyRefunded, " +
+            "s.refundedCount = s.refundedCount + :refunded, " +
+            "s.totalSpentMinor = s.totalSpentMinor + :spentMinor, " +
+            "s.lastOrderDate = case when :orderDate is not null and (s.lastOrderDate is null or s.lastOrderDate < :orderDate) " +
+            "then :orderDate else s.lastOrderDate end " +
+            "where s.userId = :userId")
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("created") long created, @Param("paid") long paid, @Param("shipped") long shipped,
+                   @Param("delivered") long delivered, @Param("canceled") long canceled,
+                   @Param("partiallyRefunded") long partiallyRefunded, @Param("refunded") long refunded,
+                   @Param("spentMinor") long spentMinor, @Param("orderDate") LocalDateTime orderDate);
+
+    // Recomputes every user's row from the orders and orders_archive tables in one statement
+    @Modifying
+    @Query("insert into UserOrderSummary (userId, createdCount, paidCount, shippedCount, deliveredCount, canceledCount, " +
+            "partiallyRefundedCount, refundedCount, totalSpentMinor, lastOrderDate) " +
+            "select o.userId, " +
+            "sum(case when o.orderStatus = :created then 1 else 0 end), " +
+            "sum(case when o.orderStatus = :paid then 1 else 0 end), " +
+            "sum(case when o.orderStatus = :shipped then 1 else 0 end), " +
+            "sum(case when o.orderStatus = :delivered then 1 else 0 end), " +
+            "sum(case when o.orderStatus = :canceled then 1 else 0 end), " +
+            "sum(case when o.orderStatus = :partiallyRefunded then 1 else 0 end), " +
+            "sum(case when o.orderStatus = :refunded then 1 else 0 end), " +
+            "sum(case when o.orderStatus in (:paid, :shipped, :delivered, :partiallyRefunded, :refunded) " +
+            "then o.totalAmountMinor - o.refundedAmountMinor else 0 end), " +
+            "max(o.orderDate) " +
+            "from (select h.userId as userId, h.orderStatus as orderStatus, h.totalAmountMinor as totalAmountMinor, " +
+            "h.refundedAmountMinor as refundedAmountMinor, h.orderDate as orderDate from Order h " +
+            "union all " +
+            "select a.userId, a.orderStatus, a.totalAmountMinor, a.refundedAmountMinor, a.orderDate from ArchivedOrder a) o " +
+            "group by o.userId")
+    int insertFromOrders(@Param("created") OrderStatus created, @Param("paid") OrderStatus paid,
+                         @Param("shipped") OrderStatus shipped, @Param("delivered") OrderStatus delivered,
+                         @Param("canceled") OrderStatus canceled, @Param("partiallyRefunded") OrderStatus partiallyRefunded,
+                         @Param("refunded") OrderStatus refunded);
+}
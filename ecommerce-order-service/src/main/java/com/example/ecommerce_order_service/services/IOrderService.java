@@ -5,29 +5,58 @@ import com.example.ecommerce_order_service.entities.Order;
 import com.example.ecommerce_order_service.entities.OrderStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 public interface IOrderService {
     Order createOrder(long userId, List<OrderItemRequest> orderItems); // Create a New Order
 
+    List<BulkOrderResult> createOrders(List<BulkOrderRequest> orderRequests); // Creates a chunk of orders in one transaction, one result per request
+
     List<OrderResponse> getOrdersByUserId(Long userId); // Get Orders by User ID
 
+    OrderPage getOrdersByUserId(Long userId, String cursor, int limit); // Keyset page of a user's orders, cursor is null for the first page
+
+    void streamOrdersByUserId(Long userId, Consumer<OrderResponse> consumer); // Streams all of a user's orders with bounded memory
+
+    UserOrderSummaryResponse getOrderSummary(Long userId); // Order counts by status, total spent and last order date, read from the precomputed summary
+
+    int rebuildOrderSummaries(); // Recomputes every user's summary from the orders table and its archive, returns the number of users
+
     OrderResponse getOrderById(Long orderId); // Get Order by ID
 
     List<OrderResponse> getOrdersByStatus(OrderStatus orderStatus); // Retrieves all orders based on status (CREATED, PAID, SHIPPED, DELIVERED)
 
+    OrderPage getOrdersByStatus(OrderStatus orderStatus, String cursor, int limit); // Keyset page of orders by status, cursor is null for the first page
+
+    void streamOrdersByStatus(OrderStatus orderStatus, Consumer<OrderResponse> consumer); // Streams all orders with a status with bounded memory
+
+    OrderPage searchOrders(OrderSearchCriteria criteria, String cursor, int limit); // Keyset page of orders matching all given filters, cursor is null for the first page
+
     void cancelOrder(Long orderId); // Allows users to cancel an order if it’s not shipped
 
     List<OrderItemResponse> getOrderItemsByOrderId(Long orderId); // Fetches all items belonging to an order
 
-    void removeOrderItem(Long orderId, Long orderItemId); // Removes an item from an order
+    void removeOrderItem(Long orderId, Long orderItemId); // Removes an item from an order, as a one-item editOrderItems
+
+    OrderResponse editOrderItems(Long orderId, OrderItemsEditRequest edit); // Adds, removes and re-quantifies items at once while the order's status allows it
+
+    OrderResponse updateOrderStatus(Long orderId, OrderStatus orderStatus); // Updates order status (PAID, SHIPPED, DELIVERED) if the current status allows it
+
+    int updateOrderStatuses(Map<OrderStatus, List<Long>> orderIdsByStatus); // Idempotent bulk transitions for event consumers: skips already processed events, one conditional UPDATE per status, returns rows changed
+
+    PaymentIntentResponse requestPayment(Long orderId, PaymentRequest paymentRequest); // Records a PENDING payment (or returns the order's active one); it is charged asynchronously by PaymentProcessor
+
+    PaymentIntentResponse getPayment(Long orderId, Long paymentId); // Current status of a payment of an order
 
-    Order updateOrderStatus(Long orderId, OrderStatus orderStatus); // Updates order status (PAID, SHIPPED, DELIVERED)
+    RefundResponse processRefund(Long orderId, RefundRequest refundRequest); // Records a PENDING refund of items, an amount, or the rest of the order and reserves it; settled in batches by RefundSettlementJob
 
-    void processPayment(Long orderId, PaymentRequest paymentRequest); // Calls ecommerce-payment-service to handle payment
+    List<RefundResponse> getRefunds(Long orderId); // All refunds of an order with their status
 
-    void processRefund(Long orderId, RefundRequest refundRequest); // Calls payment service for a refund
+    int applyRefundSettlement(String gatewayReference, Collection<Long> settledRefundIds, Map<Long, String> rejectedRefunds); // Applies a settlement batch's outcome: settled refunds move the order to (PARTIALLY_)REFUNDED, rejected ones release their reservation
 
     boolean orderExists(Long orderId); // Ensures an order exists before performing actions
 
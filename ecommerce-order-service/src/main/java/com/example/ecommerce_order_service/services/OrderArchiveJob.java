@@ -0,0 +1,129 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.ArchivedOrderItemRepository;
+import com.example.ecommerce_order_service.repositories.ArchivedOrderRepository;
+import com.example.ecommerce_order_service.repositories.OrderItemRepository;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves orders that have been in a final status for longer than orders.archive.min-age (by order date)
+ * from orders and order_item to orders_archive and order_item_archive, so the hot tables, their indexes
+ * and their share of the buffer pool only grow with live orders.
+ *
+ * Works through the candidates in chunks of chunk-size orders. Each chunk is copied and deleted in its own
+ * short transaction that locks only that chunk's rows, with chunk-pause between chunks. Orders with a refund
+ * pending are skipped and picked up by a later run. User summaries are unaffected, archived orders still count.
+ */
+@Slf4j
+@Component
+public class OrderArchiveJob {
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMetrics orderMetrics;
+    private final Set<OrderStatus> statuses;
+    private final Duration minAge;
+    private final int chunkSize;
+    private final Duration chunkPause;
+
+    public OrderArchiveJob(OrderRepository orderRepository,
+                           OrderItemRepository orderItemRepository,
+                           ArchivedOrderRepository archivedOrderRepository,
+                           ArchivedOrderItemRepository archivedOrderItemRepository,
+                           TransactionTemplate transactionTemplate,
+                           OrderMetrics orderMetrics,
+                           @Value("${orders.archive.statuses:DELIVERED,CANCELED,REFUNDED}") List<OrderStatus> statuses,
+                           @Value("${orders.archive.min-age:365d}") Duration minAge,
+                           @Value("${orders.archive.chunk-size:500}") int chunkSize,
+                           @Value("${orders.archive.chunk-pause:50ms}") Duration chunkPause) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderItemRepository = archivedOrderItemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.orderMetrics = orderMetrics;
+        this.statuses = EnumSet.copyOf(statuses);
+        this.minAge = minAge;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+    }
+
+    // Returns the number of orders archived
+    @Scheduled(cron = "${orders.archive.cron:-}")
+    public int archiveOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        long start = System.nanoTime();
+        int archived = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> candidates = orderRepository.findArchivableIds(statuses, cutoff, afterId, Limit.of(chunkSize));
+            if (candidates.isEmpty()) {
+                break;
+            }
+            afterId = candidates.get(candidates.size() - 1);
+
+            Integer moved = transactionTemplate.execute(tx -> archiveChunk(candidates, cutoff));
+            archived += moved == null ? 0 : moved;
+            orderMetrics.recordOrdersArchived(moved == null ? 0 : moved);
+            if (candidates.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+
+        log.info("Archived {} orders placed before {} in {} ms", archived, cutoff, (System.nanoTime() - start) / 1_000_000);
+        return archived;
+    }
+
+    // Locks the chunk's orders and checks them again, since a refund may have started after they were selected
+    private int archiveChunk(List<Long> candidates, LocalDateTime cutoff) {
+        List<Long> orderIds = orderRepository.findAllForUpdateByIdIn(candidates).stream()
+                .filter(order -> isArchivable(order, cutoff))
+                .map(Order::getId)
+                .toList();
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        archivedOrderRepository.copyFromOrders(orderIds);
+        archivedOrderItemRepository.copyFromOrderItems(orderIds);
+        orderItemRepository.deleteByOrderIdIn(orderIds);
+        return orderRepository.deleteByIdIn(orderIds);
+    }
+
+    private boolean isArchivable(Order order, LocalDateTime cutoff) {
+        return statuses.contains(order.getOrderStatus()) && order.getOrderDate().isBefore(cutoff)
+                && order.getPendingRefundMinor() == 0;
+    }
+
+    // Leaves room for OLTP traffic (and replicas to catch up) between chunks; false if interrupted
+    private boolean pause() {
+        if (chunkPause.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Order archiving interrupted, the rest is archived by the next run");
+            return false;
+        }
+    }
+}
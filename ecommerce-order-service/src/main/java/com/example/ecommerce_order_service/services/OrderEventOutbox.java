@@ -0,0 +1,45 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderEvent;
+import com.example.ecommerce_order_service.entities.OutboxEvent;
+import com.example.ecommerce_order_service.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Appends order events to the outbox table; must join the transaction that makes the change
+@Component
+@RequiredArgsConstructor
+public class OrderEventOutbox {
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void append(OrderEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void appendAll(List<OrderEvent> events) {
+        List<OutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            outboxEvents.add(toOutboxEvent(event));
+        }
+        outboxEventRepository.saveAll(outboxEvents);
+    }
+
+    private OutboxEvent toOutboxEvent(OrderEvent event) {
+        try {
+            return new OutboxEvent(null, event.getOrderId(), event.getEventType().name(),
+                    objectMapper.writeValueAsString(event), LocalDateTime.now(), null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order event", e);
+        }
+    }
+}
@@ -1,28 +1,92 @@
 package com.example.ecommerce_order_service.services;
 
 import com.example.ecommerce_order_service.DTO.*;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.entities.Money;
 import com.example.ecommerce_order_service.entities.Order;
 import com.example.ecommerce_order_service.entities.OrderItem;
 import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.entities.PaymentIntent;
+import com.example.ecommerce_order_service.entities.Refund;
+import com.example.ecommerce_order_service.entities.RefundItem;
+import com.example.ecommerce_order_service.entities.RefundStatus;
+import com.example.ecommerce_order_service.entities.UserOrderSummary;
+import com.example.ecommerce_order_service.exceptions.ConcurrentOrderUpdateException;
+import com.example.ecommerce_order_service.exceptions.InsufficientStockException;
+import com.example.ecommerce_order_service.exceptions.InvalidOrderStateException;
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import com.example.ecommerce_order_service.exceptions.PaymentProcessingException;
+import com.example.ecommerce_order_service.exceptions.RefundProcessingException;
+import com.example.ecommerce_order_service.exceptions.ResourceNotFoundException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.ArchivedOrderItemRepository;
+import com.example.ecommerce_order_service.repositories.ArchivedOrderRepository;
 import com.example.ecommerce_order_service.repositories.OrderItemRepository;
 import com.example.ecommerce_order_service.repositories.OrderRepository;
+import com.example.ecommerce_order_service.repositories.OrderSpecifications;
+import com.example.ecommerce_order_service.repositories.PaymentIntentRepository;
+import com.example.ecommerce_order_service.repositories.RefundRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service("OrderServiceImpl")
 @Slf4j
 @AllArgsConstructor
+@Timed(value = "orders.service", histogram = true) // One timer per public method, tagged with class and method
 public class OrderServiceImpl implements IOrderService {
 
+    private static final int STREAM_BATCH_SIZE = 100;
+    private static final int MAX_TRANSITION_ATTEMPTS = 5;
+    private static final Comparator<OrderResponse> BY_DATE_AND_ID =
+            Comparator.comparing(OrderResponse::getOrderDate).thenComparing(OrderResponse::getOrderId);
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
+    private final OrderCache orderCache;
+    private final ProcessedEventStore processedEventStore;
+    private final OrderEventOutbox orderEventOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderMetrics orderMetrics;
+    private final OrderSummaryStore orderSummaryStore;
+    private final Currency orderCurrency; // Currency of new orders and of the per-user spend totals
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefundRepository refundRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final ArchivedOrderItemRepository archivedOrderItemRepository;
+    private final InventoryReservations inventoryReservations;
+    private final OrderReadCoalescer orderReadCoalescer;
 
     @Override
     @Transactional
@@ -31,157 +95,906 @@ public class OrderServiceImpl implements IOrderService {
             throw new IllegalArgumentException("Order items cannot be empty");
         }
 
-        // create a new order instance
-        Order order = new Order();
-        order.setUserId(userId);
-        order.setOrderDate(LocalDateTime.now());
-        order.setOrderStatus(OrderStatus.CREATED);
-
-        // calculate total price
-        double  totalAmount = 0;
-        List<OrderItem> items = new ArrayList<>();
+        // reserve stock for all items (or fail the order), then save order to the database
+        Order order = buildOrder(userId, orderItems);
+        inventoryReservations.reserveForTransaction(unitsByProduct(order.getOrderItems()));
+        order = orderRepository.save(order);
+        orderEventOutbox.append(OrderEvent.created(order));
+
+        OrderSummaryDelta summaryDelta = new OrderSummaryDelta();
+        summaryDelta.orderCreated(order.getOrderDate());
+        orderSummaryStore.apply(userId, summaryDelta);
+        orderReadCoalescer.forgetUserOrdersAfterCommit(userId);
+        eventPublisher.publishEvent(ProductSalesEvent.created(List.of(order)));
+        orderMetrics.recordOrderCreated(orderItems.size());
+        return order;
+    }
 
-        for (OrderItemRequest itemRequest : orderItems) {
-            OrderItem item = new OrderItem();
-            item.setProductId(itemRequest.getProductId());
-            item.setQuantity(itemRequest.getQuantity());
-            item.setPrice(itemRequest.getPrice());
-            items.add(item);
-            totalAmount += item.getPrice() * itemRequest.getQuantity();
+    @Override
+    @Transactional
+    public List<BulkOrderResult> createOrders(List<BulkOrderRequest> orderRequests) {
+        List<BulkOrderResult> results = new ArrayList<>(orderRequests.size());
+        List<Order> orders = new ArrayList<>(orderRequests.size());
+
+        // reject invalid orders individually so they don't roll back the rest of the chunk
+        for (BulkOrderRequest request : orderRequests) {
+            if (request.getUserId() == null || request.getOrderItems() == null || request.getOrderItems().isEmpty()) {
+                results.add(new BulkOrderResult(0, null, "REJECTED", "Order must have a userId and at least one item."));
+                orders.add(null);
+                continue;
+            }
+            Order order;
+            try {
+                order = buildOrder(request.getUserId(), request.getOrderItems());
+                inventoryReservations.reserveForTransaction(unitsByProduct(order.getOrderItems()));
+            } catch (IllegalArgumentException | ArithmeticException | InsufficientStockException e) {
+                results.add(new BulkOrderResult(0, null, "REJECTED", e.getMessage()));
+                orders.add(null);
+                continue;
+            }
+            results.add(new BulkOrderResult(0, null, OrderStatus.CREATED.getStatus(), null));
+            orders.add(order);
+            orderMetrics.recordOrderCreated(request.getOrderItems().size());
         }
 
-        order.setTotalAmount(totalAmount);
-        order.setOrderItems(items);
+        List<Order> validOrders = orders.stream().filter(Objects::nonNull).toList();
+        orderRepository.saveAll(validOrders);
+        orderEventOutbox.appendAll(validOrders.stream().map(OrderEvent::created).toList());
 
-        // save order to the database
-        return orderRepository.save(order);
+        Map<Long, OrderSummaryDelta> summaryDeltas = new HashMap<>();
+        for (Order order : validOrders) {
+            summaryDeltas.computeIfAbsent(order.getUserId(), userId -> new OrderSummaryDelta()).orderCreated(order.getOrderDate());
+        }
+        orderSummaryStore.applyAll(summaryDeltas);
+        summaryDeltas.keySet().forEach(orderReadCoalescer::forgetUserOrdersAfterCommit);
+        if (!validOrders.isEmpty()) {
+            eventPublisher.publishEvent(ProductSalesEvent.created(validOrders));
+        }
+
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.get(i) != null) {
+                results.get(i).setOrderId(orders.get(i).getId());
+            }
+        }
+        return results;
     }
 
     @Override
     public List<OrderResponse> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId)
-                .stream()
-                .map(this::mapToOrderResponse)
-                .toList();
+        return orderReadCoalescer.userOrders(userId, null, 0, () -> loadOrdersByUserId(userId));
     }
 
     @Override
-    public OrderResponse getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    public OrderPage getOrdersByUserId(Long userId, String cursor, int limit) {
+        // Identical polls of the same page share one set of queries
+        return orderReadCoalescer.userOrders(userId, cursor, limit, () -> loadOrdersByUserId(userId, cursor, limit));
+    }
+
+    private List<OrderResponse> loadOrdersByUserId(Long userId) {
+        // Archived orders are included, merged into the same (orderDate, id) order
+        List<OrderResponse> orders = attachOrderItems(orderRepository.findOrderResponsesByUserId(userId));
+        List<OrderResponse> archived = attachArchivedOrderItems(archivedOrderRepository.findOrderResponsesByUserId(userId));
+        return archived.isEmpty() ? orders : merge(orders, archived, Integer.MAX_VALUE);
+    }
 
-        return mapToOrderResponse(order);
+    private OrderPage loadOrdersByUserId(Long userId, String cursor, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+        if (cursor == null) {
+            return toOrderPage(orderRepository.findOrderResponsesByUserId(userId, fetchLimit),
+                    archivedOrderRepository.findOrderResponsesByUserId(userId, fetchLimit), limit);
+        }
+
+        // The cursor is a position in (orderDate, id) order, so it applies to both tables alike
+        OrderCursor after = OrderCursor.decode(cursor);
+        return toOrderPage(
+                orderRepository.findOrderResponsesByUserIdAfter(userId, after.getOrderDate(), after.getOrderId(), fetchLimit),
+                archivedOrderRepository.findOrderResponsesByUserIdAfter(userId, after.getOrderDate(), after.getOrderId(), fetchLimit),
+                limit);
+    }
+
+    @Override
+    @Transactional
+    public void streamOrdersByUserId(Long userId, Consumer<OrderResponse> consumer) {
+        try (Stream<OrderResponse> orders = orderRepository.streamOrderResponsesByUserId(userId);
+             Stream<OrderResponse> archived = archivedOrderRepository.streamOrderResponsesByUserId(userId)) {
+            forEachWithOrderItems(orders, archived, consumer);
+        }
+    }
+
+    @Override
+    public OrderResponse getOrderById(Long orderId) {
+        OrderResponse order = cachedOrderResponse(orderId);
+        if (order == null) {
+            throw new RuntimeException("Order not found");
+        }
+        return order;
     }
 
     @Override
     public List<OrderResponse> getOrdersByStatus(OrderStatus orderStatus) {
-        return orderRepository.findByOrderStatus(orderStatus)
-                .stream()
-                .map(this::mapToOrderResponse)
-                .toList();
+        return attachOrderItems(orderRepository.findOrderResponsesByOrderStatus(orderStatus));
+    }
+
+    @Override
+    public OrderPage getOrdersByStatus(OrderStatus orderStatus, String cursor, int limit) {
+        Limit fetchLimit = Limit.of(limit + 1);
+        if (cursor == null) {
+            return toOrderPage(orderRepository.findOrderResponsesByOrderStatus(orderStatus, fetchLimit), limit);
+        }
+
+        OrderCursor after = OrderCursor.decode(cursor);
+        return toOrderPage(orderRepository.findOrderResponsesByOrderStatusAfter(
+                orderStatus, after.getOrderDate(), after.getOrderId(), fetchLimit), limit);
     }
 
     @Override
     @Transactional
-    public void cancelOrder(Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    public void streamOrdersByStatus(OrderStatus orderStatus, Consumer<OrderResponse> consumer) {
+        try (Stream<OrderResponse> orders = orderRepository.streamOrderResponsesByOrderStatus(orderStatus)) {
+            forEachWithOrderItems(orders, consumer);
+        }
+    }
 
-        if(order.getOrderStatus() == OrderStatus.SHIPPED ||
-                order.getOrderStatus() == OrderStatus.DELIVERED){
-            throw new RuntimeException("Cannot cancel an order that has already been shipped or delivered.");
+    @Override
+    public OrderPage searchOrders(OrderSearchCriteria criteria, String cursor, int limit) {
+        if (criteria.isEmpty()) {
+            throw new OrderValidationException("At least one search filter is required.");
+        }
+
+        Specification<Order> specification = searchSpecification(criteria);
+        if (cursor != null) {
+            OrderCursor after = OrderCursor.decode(cursor);
+            specification = specification.and(OrderSpecifications.after(after.getOrderDate(), after.getOrderId()));
         }
+        return toOrderPage(orderRepository.findOrderResponses(specification, Limit.of(limit + 1)), limit);
+    }
 
-        order.setOrderStatus(OrderStatus.CANCELED);
-        orderRepository.save(order);
+    @Override
+    public void cancelOrder(Long orderId) {
+        // SHIPPED and DELIVERED orders cannot be canceled (see OrderStatus.previousStatuses)
+        transitionStatus(orderId, OrderStatus.CANCELED, state -> { });
     }
 
     @Override
     public List<OrderItemResponse> getOrderItemsByOrderId(Long orderId) {
-        return orderItemRepository.findByOrderId(orderId)
-                .stream()
-                .map(this::mapToOrderItemResponse)
-                .toList();
+        // Same projection as the order lookup (and usually a cache hit), which also knows the items' currency
+        OrderResponse order = cachedOrderResponse(orderId);
+        return order == null ? List.of() : order.getOrderItems();
     }
 
     @Override
     @Transactional
     public void removeOrderItem(Long orderId, Long orderItemId) {
-        OrderItem orderItem = orderItemRepository.findById(orderItemId)
-                .orElseThrow(() -> new RuntimeException("OrderItem not found"));
+        // a one-item edit, so the status, payment and ownership checks, stock, sales and caches all follow the same rules
+        editOrderItems(orderId, new OrderItemsEditRequest(null, List.of(orderItemId), null));
+    }
+
+    @Override
+    @Transactional
+    public OrderResponse editOrderItems(Long orderId, OrderItemsEditRequest edit) {
+        List<OrderItemRequest> added = edit.getAdd() == null ? List.of() : edit.getAdd();
+        Set<Long> removed = edit.getRemove() == null ? Set.of() : new HashSet<>(edit.getRemove());
+        List<OrderItemQuantityRequest> requantified = edit.getQuantities() == null ? List.of() : edit.getQuantities();
+        if (added.isEmpty() && removed.isEmpty() && requantified.isEmpty()) {
+            throw new OrderValidationException("An edit needs at least one item to add, remove or re-quantify.");
+        }
+
+        // the order's row lock keeps status changes and other edits of it out until this one commits
+        if (orderRepository.lockForItemEdit(orderId, OrderStatus.itemEditableStatuses()) == 0) {
+            OrderState state = orderRepository.findStateById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order #" + orderId + " not found."));
+            throw new InvalidOrderStateException("Items of order #" + orderId + " cannot be changed while it is " + state.getOrderStatus() + ".");
+        }
+        if (paymentIntentRepository.findByActiveOrderId(orderId).isPresent()) {
+            throw new InvalidOrderStateException("Items of order #" + orderId + " cannot be changed while a payment is in progress.");
+        }
+        OrderState state = orderRepository.findStateById(orderId).orElseThrow();
+
+        Map<Long, OrderItem> items = new HashMap<>();
+        orderItemRepository.findByOrderId(orderId).forEach(item -> items.put(item.getId(), item));
+        for (Long orderItemId : removed) {
+            requireItemOfOrder(items, orderId, orderItemId);
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItemQuantityRequest change : requantified) {
+            requireItemOfOrder(items, orderId, change.getOrderItemId());
+            if (change.getQuantity() <= 0) {
+                throw new OrderValidationException("Quantity of item #" + change.getOrderItemId() + " must be positive, remove the item instead.");
+            }
+            if (removed.contains(change.getOrderItemId()) || quantities.put(change.getOrderItemId(), change.getQuantity()) != null) {
+                throw new OrderValidationException("Item #" + change.getOrderItemId() + " is changed more than once.");
+            }
+        }
+        if (removed.size() == items.size() && added.isEmpty()) {
+            throw new OrderValidationException("An order needs at least one item, cancel it instead.");
+        }
+
+        Order order = orderRepository.getReferenceById(orderId);
+        List<OrderItem> newItems = new ArrayList<>(added.size());
+        try {
+            for (OrderItemRequest itemRequest : added) {
+                newItems.add(buildOrderItem(itemRequest, order));
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new OrderValidationException(e.getMessage());
+        }
+
+        // net units per product, so moving units between items of one product reserves nothing
+        Map<Long, Long> unitsByProduct = new HashMap<>();
+        for (OrderItem item : newItems) {
+            unitsByProduct.merge(item.getProductId(), Long.valueOf(item.getQuantity()), Long::sum);
+        }
+        for (Long orderItemId : removed) {
+            OrderItem item = items.get(orderItemId);
+            unitsByProduct.merge(item.getProductId(), Long.valueOf(-item.getQuantity()), Long::sum);
+        }
+        for (Map.Entry<Long, Integer> change : quantities.entrySet()) {
+            OrderItem item = items.get(change.getKey());
+            unitsByProduct.merge(item.getProductId(), Long.valueOf(change.getValue() - item.getQuantity()), Long::sum);
+            item.setQuantity(change.getValue());
+        }
+        Map<Long, Long> reserved = new HashMap<>();
+        Map<Long, Long> released = new HashMap<>();
+        unitsByProduct.forEach((productId, units) -> {
+            if (units > 0) {
+                reserved.put(productId, units);
+            } else if (units < 0) {
+                released.put(productId, -units);
+            }
+        });
+        inventoryReservations.reserveForTransaction(reserved);
+        inventoryReservations.releaseAfterCommit(released);
+
+        // one DELETE for the removed items, batched UPDATEs and INSERTs for the others, then the total from the items in SQL
+        if (!removed.isEmpty()) {
+            orderItemRepository.deleteByOrderIdAndIdIn(orderId, removed);
+        }
+        orderItemRepository.saveAll(newItems);
+        orderItemRepository.flush();
+        long totalAmountMinor = recomputeTotalAmount(state);
+
+        publishEditedProductSales(orderId, reserved, 1);
+        publishEditedProductSales(orderId, released, -1);
+
+        orderEventOutbox.append(OrderEvent.itemsEdited(orderId, state.getUserId(), Money.ofMinor(totalAmountMinor, state.getCurrency())));
+        orderCache.evictAfterCommit(orderId);
+        orderReadCoalescer.forgetOrderAfterCommit(orderId);
+        orderReadCoalescer.forgetUserOrdersAfterCommit(state.getUserId());
+        return loadOrderResponse(orderId);
+    }
+
+    // Sets the order's total to the sum of its items in SQL and moves the user's summary by the difference;
+    // every item change takes this path so the total, the summary and the items cannot drift apart
+    private long recomputeTotalAmount(OrderState before) {
+        orderRepository.recomputeTotalAmount(before.getOrderId());
+        long totalAmountMinor = orderRepository.findStateById(before.getOrderId()).orElseThrow().getTotalAmountMinor();
+        OrderSummaryDelta summaryDelta = new OrderSummaryDelta();
+        summaryDelta.totalChanged(before.getOrderStatus(), totalAmountMinor - before.getTotalAmountMinor());
+        orderSummaryStore.apply(before.getUserId(), summaryDelta);
+        return totalAmountMinor;
+    }
+
+    private static void requireItemOfOrder(Map<Long, OrderItem> items, Long orderId, Long orderItemId) {
+        if (orderItemId == null || !items.containsKey(orderItemId)) {
+            throw new OrderValidationException("Item #" + orderItemId + " does not belong to order #" + orderId + ".");
+        }
+    }
 
-        if(orderItem.getOrder().getId() != orderId){
-            throw new IllegalArgumentException("Order item does not belong to the specified order.");
+    private void publishEditedProductSales(Long orderId, Map<Long, Long> unitsByProduct, int sign) {
+        if (unitsByProduct.isEmpty()) {
+            return;
         }
+        List<OrderItemProjection> items = new ArrayList<>(unitsByProduct.size());
+        unitsByProduct.forEach((productId, units) -> items.add(new OrderItemProjection(orderId, null, productId, Math.toIntExact(units), 0L)));
+        eventPublisher.publishEvent(ProductSalesEvent.edited(orderId, items, sign));
+    }
 
-        orderItemRepository.delete(orderItem);
+    @Override
+    public OrderResponse updateOrderStatus(Long orderId, OrderStatus orderStatus) {
+        transitionStatus(orderId, orderStatus, state -> { });
+        return loadOrderResponse(orderId);
     }
 
     @Override
     @Transactional
-    public Order updateOrderStatus(Long orderId, OrderStatus orderStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setOrderStatus(orderStatus);
-        return orderRepository.save(order);
+    public int updateOrderStatuses(Map<OrderStatus, List<Long>> orderIdsByStatus) {
+        orderIdsByStatus.keySet().forEach(this::requireSettableStatus);
+        int updated = 0;
+        for (Map.Entry<OrderStatus, List<Long>> transition : orderIdsByStatus.entrySet()) {
+            OrderStatus status = transition.getKey();
+            List<Long> pending = processedEventStore.filterUnprocessed(status, transition.getValue());
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            // conditional UPDATE: a late duplicate can never move an order backwards (e.g. SHIPPED -> PAID)
+            List<OrderState> eligibleStates = orderRepository.findStatesByIdInAndOrderStatusIn(pending, status.previousStatuses());
+            List<Long> eligible = eligibleStates.stream().map(OrderState::getOrderId).toList();
+            LocalDateTime paidAt = status == OrderStatus.PAID ? LocalDateTime.now() : null;
+            int changed = eligible.isEmpty() ? 0 : orderRepository.updateOrderStatusByIdIn(eligible, status, status.previousStatuses(), paidAt);
+
+            // if a concurrent writer got to some rows first, only publish for the rows that now carry the new status
+            List<Long> changedIds = changed == eligible.size()
+                    ? eligible
+                    : orderRepository.findIdsByIdInAndOrderStatusIn(eligible, EnumSet.of(status));
+            orderEventOutbox.appendAll(changedIds.stream().map(orderId -> OrderEvent.statusChanged(orderId, status)).toList());
+            orderSummaryStore.applyAll(summaryDeltas(eligibleStates, changedIds, status));
+            publishProductSales(eligibleStates, changedIds, status);
+            if (status == OrderStatus.CANCELED) {
+                releaseStock(changedIds);
+            }
+
+            processedEventStore.markProcessed(status, pending);
+            processedEventStore.recordRejectedByGuard(pending.size() - changed);
+            pending.forEach(orderCache::evictAfterCommit);
+            pending.forEach(orderReadCoalescer::forgetOrderAfterCommit);
+            updated += changed;
+        }
+        return updated;
     }
 
     @Override
     @Transactional
-    public void processPayment(Long orderId, PaymentRequest paymentRequest) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    public PaymentIntentResponse requestPayment(Long orderId, PaymentRequest paymentRequest) {
+        OrderState state = orderRepository.findStateById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order #" + orderId + " not found."));
+
+        // Paying again while a payment is pending or succeeded returns that payment instead of charging twice
+        Optional<PaymentIntent> active = paymentIntentRepository.findByActiveOrderId(orderId);
+        if (active.isPresent()) {
+            return PaymentIntentResponse.from(active.get());
+        }
+
+        if (!state.getOrderStatus().canTransitionTo(OrderStatus.PAID)) {
+            throw new InvalidOrderStateException("Order #" + orderId + " cannot be paid while it is " + state.getOrderStatus() + ".");
+        }
+        if (paymentRequest.getAmount() == null) {
+            throw new PaymentProcessingException("Payment amount is required.");
+        }
+
+        // Amounts are compared exactly in minor units
+        Money orderTotal = state.getTotalAmount();
+        Money amount;
+        try {
+            amount = Money.of(paymentRequest.getAmount(), orderTotal.getCurrency());
+        } catch (IllegalArgumentException e) {
+            throw new PaymentProcessingException(e.getMessage());
+        }
+        if (!amount.isAtLeast(orderTotal)) {
+            throw new PaymentProcessingException("Insufficient payment amount.");
+        }
+
+        PaymentIntent intent;
+        try {
+            // flushed now so a concurrent request for the same order fails here on the active-order unique index
+            intent = paymentIntentRepository.saveAndFlush(
+                    PaymentIntent.pending(orderId, amount, paymentRequest.getPaymentMethod(), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            throw new ConcurrentOrderUpdateException("A payment for order #" + orderId + " is already in progress, please retry.");
+        }
+
+        // Charged by PaymentProcessor once this transaction commits
+        eventPublisher.publishEvent(new PaymentRequestedEvent(intent.getId()));
+        return PaymentIntentResponse.from(intent);
+    }
+
+    @Override
+    public PaymentIntentResponse getPayment(Long orderId, Long paymentId) {
+        return paymentIntentRepository.findByIdAndOrderId(paymentId, orderId)
+                .map(PaymentIntentResponse::from)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment #" + paymentId + " of order #" + orderId + " not found."));
+    }
 
-        if(order.getOrderStatus() != OrderStatus.CREATED){
-            throw new IllegalArgumentException("Order is not in a valid state for payment.");
+    @Override
+    @Transactional
+    public RefundResponse processRefund(Long orderId, RefundRequest refundRequest) {
+        // Locked so concurrent refunds of one order see each other's reservations
+        Order order = orderRepository.findAllForUpdateByIdIn(List.of(orderId)).stream().findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Order #" + orderId + " not found."));
+        if (!order.isRefundable()) {
+            throw new RefundProcessingException("Cannot refund order #" + orderId + " while it is " + order.getOrderStatus() + ".");
         }
 
-        // Simulate calling the payment service
-        boolean paymentSuccessful = paymentRequest.getAmount()
-                .compareTo(BigDecimal.valueOf(order.getTotalAmount())) >= 0;
+        Refund refund = new Refund();
+        boolean itemRefund = refundRequest.getItems() != null && !refundRequest.getItems().isEmpty();
+        long amountMinor;
+        if (itemRefund && refundRequest.getRefundAmount() != null) {
+            throw new RefundProcessingException("A refund is either of items or of an amount, not both.");
+        } else if (itemRefund) {
+            amountMinor = reserveRefundItems(order, refundRequest.getItems(), refund);
+        } else if (refundRequest.getRefundAmount() != null) {
+            try {
+                amountMinor = Money.toMinorUnits(refundRequest.getRefundAmount(), order.getTotalAmount().getCurrency());
+            } catch (IllegalArgumentException e) {
+                throw new RefundProcessingException(e.getMessage());
+            }
+        } else {
+            // Everything not refunded yet, including the items' remaining units
+            amountMinor = order.getRefundableMinor();
+            List<RefundItemRequest> remaining = order.getOrderItems().stream()
+                    .filter(item -> item.getQuantity() > item.getRefundedQuantity())
+                    .map(item -> new RefundItemRequest(item.getId(), item.getQuantity() - item.getRefundedQuantity()))
+                    .toList();
+            reserveRefundItems(order, remaining, refund);
+        }
 
-        if(!paymentSuccessful){
-            throw new IllegalArgumentException("Insufficient payment amount.");
+        if (amountMinor <= 0) {
+            throw new RefundProcessingException("Nothing left to refund on order #" + orderId + ".");
+        }
+        if (amountMinor > order.getRefundableMinor()) {
+            throw new RefundProcessingException("Refund of " + Money.ofMinor(amountMinor, order.getCurrency())
+                    + " exceeds the refundable " + Money.ofMinor(order.getRefundableMinor(), order.getCurrency()) + ".");
         }
+        order.setPendingRefundMinor(order.getPendingRefundMinor() + amountMinor);
+
+        LocalDateTime now = LocalDateTime.now();
+        refund.setOrderId(orderId);
+        refund.setPaymentId(refundRequest.getPaymentId() != null ? refundRequest.getPaymentId()
+                : paymentIntentRepository.findByActiveOrderId(orderId).map(PaymentIntent::getId).orElse(null));
+        refund.setAmountMinor(amountMinor);
+        refund.setCurrency(order.getCurrency());
+        refund.setReason(refundRequest.getReason());
+        refund.setStatus(RefundStatus.PENDING);
+        refund.setNextAttemptAt(now);
+        refund.setCreatedAt(now);
+        refund.setUpdatedAt(now);
+        return RefundResponse.from(refundRepository.save(refund));
+    }
 
-        order.setOrderStatus(OrderStatus.PAID);
-        orderRepository.save(order);
+    @Override
+    public List<RefundResponse> getRefunds(Long orderId) {
+        return refundRepository.findByOrderIdOrderById(orderId).stream().map(RefundResponse::from).toList();
     }
 
     @Override
     @Transactional
-    public void processRefund(Long orderId, RefundRequest refundRequest) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    public int applyRefundSettlement(String gatewayReference, Collection<Long> settledRefundIds, Map<Long, String> rejectedRefunds) {
+        Set<Long> refundIds = new HashSet<>(settledRefundIds);
+        refundIds.addAll(rejectedRefunds.keySet());
+        // Only refunds still in a batch; anything else was already applied
+        List<Refund> refunds = refundRepository.findByIdIn(refundIds).stream()
+                .filter(refund -> refund.getStatus() == RefundStatus.SUBMITTED)
+                .toList();
+        if (refunds.isEmpty()) {
+            return 0;
+        }
 
-        if(order.getOrderStatus() != OrderStatus.PAID){
-            throw new IllegalArgumentException("Cannot process refund for an unpaid order.");
+        Map<Long, Order> orders = new HashMap<>();
+        orderRepository.findAllForUpdateByIdIn(refunds.stream().map(Refund::getOrderId).collect(Collectors.toSet()))
+                .forEach(order -> orders.put(order.getId(), order));
+        Map<Long, OrderItem> rejectedItems = new HashMap<>();
+        orderItemRepository.findAllById(refunds.stream()
+                        .filter(refund -> rejectedRefunds.containsKey(refund.getId()))
+                        .flatMap(refund -> refund.getItems().stream())
+                        .map(RefundItem::getOrderItemId)
+                        .collect(Collectors.toSet()))
+                .forEach(item -> rejectedItems.put(item.getId(), item));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, OrderSummaryDelta> summaryDeltas = new HashMap<>();
+        for (Refund refund : refunds) {
+            Order order = orders.get(refund.getOrderId());
+            order.setPendingRefundMinor(order.getPendingRefundMinor() - refund.getAmountMinor());
+            refund.setUpdatedAt(now);
+
+            if (!settledRefundIds.contains(refund.getId())) {
+                // Rejected: release the reservation so the amount and items can be refunded again
+                refund.setStatus(RefundStatus.FAILED);
+                refund.setFailureReason(rejectedRefunds.get(refund.getId()));
+                for (RefundItem line : refund.getItems()) {
+                    OrderItem item = rejectedItems.get(line.getOrderItemId());
+                    if (item != null) {
+                        item.setRefundedQuantity(item.getRefundedQuantity() - line.getQuantity());
+                    }
+                }
+                continue;
+            }
+
+            refund.setStatus(RefundStatus.SUCCEEDED);
+            refund.setGatewayReference(gatewayReference);
+            refund.setFailureReason(null);
+            refund.setSettledAt(now);
+
+            OrderStatus from = order.getOrderStatus();
+            order.setRefundedAmountMinor(order.getRefundedAmountMinor() + refund.getAmountMinor());
+            OrderStatus to = order.getRefundedAmountMinor() >= order.getTotalAmountMinor()
+                    ? OrderStatus.REFUNDED : OrderStatus.PARTIALLY_REFUNDED;
+            OrderSummaryDelta summaryDelta = summaryDeltas.computeIfAbsent(order.getUserId(), userId -> new OrderSummaryDelta());
+            summaryDelta.totalChanged(from, -refund.getAmountMinor());
+            // An order canceled while the refund was pending keeps its status
+            if (from != to && from.canTransitionTo(to)) {
+                order.setOrderStatus(to);
+                summaryDelta.statusChanged(from, to, order.getTotalAmountMinor() - order.getRefundedAmountMinor());
+                orderEventOutbox.append(OrderEvent.statusChanged(order.getId(), to));
+            }
+            orderCache.evictAfterCommit(order.getId());
+            orderReadCoalescer.forgetOrderAfterCommit(order.getId());
         }
+        orderSummaryStore.applyAll(summaryDeltas);
+        return refunds.size();
+    }
+
+    @Override
+    public UserOrderSummaryResponse getOrderSummary(Long userId) {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, 0L);
+        }
+
+        return orderSummaryStore.find(userId)
+                .map(summary -> {
+                    counts.put(OrderStatus.CREATED, summary.getCreatedCount());
+                    counts.put(OrderStatus.PAID, summary.getPaidCount());
+                    counts.put(OrderStatus.SHIPPED, summary.getShippedCount());
+                    counts.put(OrderStatus.DELIVERED, summary.getDeliveredCount());
+                    counts.put(OrderStatus.CANCELED, summary.getCanceledCount());
+                    counts.put(OrderStatus.PARTIALLY_REFUNDED, summary.getPartiallyRefundedCount());
+                    counts.put(OrderStatus.REFUNDED, summary.getRefundedCount());
+                    return new UserOrderSummaryResponse(userId, counts, totalOrders(summary),
+                            Money.ofMinor(summary.getTotalSpentMinor(), orderCurrency), summary.getLastOrderDate());
+                })
+                .orElseGet(() -> new UserOrderSummaryResponse(userId, counts, 0, Money.zero(orderCurrency), null));
+    }
+
+    @Override
+    public int rebuildOrderSummaries() {
+        return orderSummaryStore.rebuild();
     }
 
     @Override
     public boolean orderExists(Long orderId) {
-        return orderRepository.existsById(orderId);
+        return orderRepository.existsById(orderId) || archivedOrderRepository.existsById(orderId);
     }
 
     @Override
     public boolean isOrderOwnedByUser(Long orderId, Long userId) {
-        return orderRepository.findById(orderId)
-                .map(order -> order.getUserId().equals(userId))
-                .orElse(false);
+        OrderResponse order = cachedOrderResponse(orderId);
+        return order != null && order.getUserId().equals(userId);
     }
 
+    // Concurrent lookups of one order share a single trip through the cache tiers, a miss included
+    private OrderResponse cachedOrderResponse(Long orderId) {
+        return orderReadCoalescer.order(orderId, () -> orderCache.get(orderId, this::loadOrderResponse));
+    }
 
-    // Helper Methods to Convert Entities to DTOs
-    private OrderResponse mapToOrderResponse(Order order) {
-        return new OrderResponse(order.getId(), order.getUserId(), order.getOrderDate(),
-                order.getTotalAmount(), order.getOrderStatus(),
-                order.getOrderItems().stream().map(this::mapToOrderItemResponse).toList());
+    // Cache loader: order row plus its items as two projection queries, then the same from the archive
+    // if the order is not in orders; null if the order does not exist
+    private OrderResponse loadOrderResponse(Long orderId) {
+        long start = System.nanoTime();
+        Optional<OrderResponse> order = orderRepository.findOrderResponseById(orderId);
+        if (order.isPresent()) {
+            OrderResponse hot = attachOrderItems(List.of(order.get())).get(0);
+            orderMetrics.recordOrderRead(false, System.nanoTime() - start);
+            return hot;
+        }
+
+        OrderResponse archived = archivedOrderRepository.findOrderResponseById(orderId)
+                .map(archivedOrder -> attachArchivedOrderItems(List.of(archivedOrder)).get(0))
+                .orElse(null);
+        if (archived != null) {
+            orderMetrics.recordOrderRead(true, System.nanoTime() - start);
+        }
+        return archived;
     }
 
-    private OrderItemResponse mapToOrderItemResponse(OrderItem orderItem) {
-        return new OrderItemResponse(orderItem.getId(), orderItem.getProductId(),
-                orderItem.getQuantity(), orderItem.getPrice());
+
+    private Order buildOrder(long userId, List<OrderItemRequest> orderItems) {
+        // create a new order instance
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderDate(LocalDateTime.now());
+        order.setOrderStatus(OrderStatus.CREATED);
+        order.setCurrency(orderCurrency.getCurrencyCode());
+
+        // calculate total price in minor units, exact and without allocating per item
+        long totalAmountMinor = 0;
+        List<OrderItem> items = new ArrayList<>(orderItems.size());
+
+        for (OrderItemRequest itemRequest : orderItems) {
+            OrderItem item = buildOrderItem(itemRequest, order);
+            items.add(item);
+            totalAmountMinor = Math.addExact(totalAmountMinor, Math.multiplyExact(item.getPriceMinor(), itemRequest.getQuantity()));
+        }
+
+        order.setTotalAmountMinor(totalAmountMinor);
+        order.setOrderItems(items);
+        return order;
+    }
+
+    private OrderItem buildOrderItem(OrderItemRequest itemRequest, Order order) {
+        if (itemRequest.getPrice() == null) {
+            throw new IllegalArgumentException("Order item price is required.");
+        }
+        // stock is reserved per product, so every item needs one and a positive quantity
+        if (itemRequest.getProductId() == null || itemRequest.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Order item needs a productId and a positive quantity.");
+        }
+        OrderItem item = new OrderItem();
+        item.setProductId(itemRequest.getProductId());
+        item.setQuantity(itemRequest.getQuantity());
+        item.setPriceMinor(Money.toMinorUnits(itemRequest.getPrice(), orderCurrency));
+        item.setOrder(order);
+        return item;
+    }
+
+    // Adds the refund's item lines and reserves the units on the order's items, returns their value
+    private long reserveRefundItems(Order order, List<RefundItemRequest> requestedItems, Refund refund) {
+        Map<Long, OrderItem> items = new HashMap<>();
+        order.getOrderItems().forEach(item -> items.put(item.getId(), item));
+
+        long amountMinor = 0;
+        for (RefundItemRequest requested : requestedItems) {
+            OrderItem item = items.get(requested.getOrderItemId());
+            if (item == null) {
+                throw new RefundProcessingException("Item #" + requested.getOrderItemId() + " does not belong to order #" + order.getId() + ".");
+            }
+            int refundable = item.getQuantity() - item.getRefundedQuantity();
+            if (requested.getQuantity() <= 0 || requested.getQuantity() > refundable) {
+                throw new RefundProcessingException("Item #" + item.getId() + " has " + refundable
+                        + " refundable units, cannot refund " + requested.getQuantity() + ".");
+            }
+            item.setRefundedQuantity(item.getRefundedQuantity() + requested.getQuantity());
+
+            long lineMinor = Math.multiplyExact(item.getPriceMinor(), requested.getQuantity());
+            refund.getItems().add(new RefundItem(null, refund, item.getId(), requested.getQuantity(), lineMinor));
+            amountMinor = Math.addExact(amountMinor, lineMinor);
+        }
+        return amountMinor;
+    }
+
+    /**
+     * Optimistic status transition: reads status and version without locks, checks the state machine and
+     * the precondition, then applies the change with one compare-and-set UPDATE. Losing a race retries in a
+     * fresh transaction (a new snapshot), so no row lock is held across the read.
+     */
+    private void transitionStatus(Long orderId, OrderStatus target, Consumer<OrderState> precondition) {
+        requireSettableStatus(target);
+        for (int attempt = 1; attempt <= MAX_TRANSITION_ATTEMPTS; attempt++) {
+            Boolean applied = transactionTemplate.execute(tx -> {
+                OrderState state = orderRepository.findStateById(orderId)
+                        .orElseThrow(() -> new RuntimeException("Order not found"));
+
+                if (!state.getOrderStatus().canTransitionTo(target)) {
+                    throw new InvalidOrderStateException("Order #" + orderId + " cannot move from "
+                            + state.getOrderStatus() + " to " + target + ".");
+                }
+                precondition.accept(state);
+
+                // Canceling a paid order records the payment too, in case it predates paid_at
+                boolean paid = target == OrderStatus.PAID || state.getOrderStatus() == OrderStatus.PAID;
+                if (orderRepository.updateOrderStatusIfVersion(orderId, state.getVersion(), target, paid ? LocalDateTime.now() : null) == 0) {
+                    return false;
+                }
+                orderEventOutbox.append(OrderEvent.statusChanged(orderId, target));
+
+                OrderSummaryDelta summaryDelta = new OrderSummaryDelta();
+                summaryDelta.statusChanged(state.getOrderStatus(), target, state.getTotalAmountMinor());
+                orderSummaryStore.apply(state.getUserId(), summaryDelta);
+                publishProductSales(List.of(state), List.of(orderId), target);
+                if (target == OrderStatus.CANCELED) {
+                    releaseStock(List.of(orderId));
+                }
+
+                orderCache.evictAfterCommit(orderId);
+                orderReadCoalescer.forgetOrderAfterCommit(orderId);
+                return true;
+            });
+
+            if (Boolean.TRUE.equals(applied)) {
+                return;
+            }
+            log.debug("Order #{} changed concurrently, retrying transition to {} (attempt {})", orderId, target, attempt);
+        }
+        throw new ConcurrentOrderUpdateException("Order #" + orderId + " was modified concurrently, please retry.");
+    }
+
+    // The refund statuses follow the settled amounts, so only applyRefundSettlement may set them
+    private void requireSettableStatus(OrderStatus target) {
+        if (target.isSetByRefund()) {
+            throw new InvalidOrderStateException("Orders become " + target + " when a refund settles, not by a status update.");
+        }
+    }
+
+    // Summary changes of the orders that actually moved to the new status, grouped by user
+    private Map<Long, OrderSummaryDelta> summaryDeltas(List<OrderState> states, List<Long> changedIds, OrderStatus status) {
+        Set<Long> changed = changedIds.size() == states.size() ? null : Set.copyOf(changedIds);
+        Map<Long, OrderSummaryDelta> deltas = new HashMap<>();
+        for (OrderState state : states) {
+            if (changed == null || changed.contains(state.getOrderId())) {
+                deltas.computeIfAbsent(state.getUserId(), userId -> new OrderSummaryDelta())
+                        .statusChanged(state.getOrderStatus(), status, state.getTotalAmountMinor());
+            }
+        }
+        return deltas;
+    }
+
+    // A canceled order's units go back in stock once the cancellation commits
+    private void releaseStock(List<Long> orderIds) {
+        if (orderIds.isEmpty() || !inventoryReservations.isEnabled()) {
+            return;
+        }
+        Map<Long, Long> units = new HashMap<>();
+        for (OrderItemProjection item : orderItemRepository.findProjectionsByOrderIdIn(orderIds)) {
+            units.merge(item.getProductId(), Long.valueOf(item.getQuantity()), Long::sum);
+        }
+        inventoryReservations.releaseAfterCommit(units);
+    }
+
+    // Units per product, summed over items of the same product
+    private static Map<Long, Long> unitsByProduct(List<OrderItem> items) {
+        Map<Long, Long> units = new HashMap<>();
+        for (OrderItem item : items) {
+            units.merge(item.getProductId(), Long.valueOf(item.getQuantity()), Long::sum);
+        }
+        return units;
+    }
+
+    // Product analytics count an order's units once it is paid, and take them back if a paid order is canceled
+    private void publishProductSales(List<OrderState> states, List<Long> changedIds, OrderStatus status) {
+        if (status == OrderStatus.PAID && !changedIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductSalesEvent.paid(changedIds));
+        } else if (status == OrderStatus.CANCELED) {
+            Set<Long> changed = Set.copyOf(changedIds);
+            List<Long> paidBefore = states.stream()
+                    .filter(state -> state.getOrderStatus() == OrderStatus.PAID && changed.contains(state.getOrderId()))
+                    .map(OrderState::getOrderId)
+                    .toList();
+            if (!paidBefore.isEmpty()) {
+                eventPublisher.publishEvent(ProductSalesEvent.paymentCanceled(paidBefore));
+            }
+        }
+    }
+
+    private Specification<Order> searchSpecification(OrderSearchCriteria criteria) {
+        Specification<Order> specification = Specification.where(null);
+        if (criteria.getUserId() != null) {
+            specification = specification.and(OrderSpecifications.hasUserId(criteria.getUserId()));
+        }
+        if (criteria.getStatuses() != null && !criteria.getStatuses().isEmpty()) {
+            specification = specification.and(OrderSpecifications.hasStatusIn(criteria.getStatuses()));
+        }
+        if (criteria.getFrom() != null) {
+            specification = specification.and(OrderSpecifications.placedFrom(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            specification = specification.and(OrderSpecifications.placedBefore(criteria.getTo()));
+        }
+        if (criteria.getMinAmount() != null) {
+            specification = specification.and(OrderSpecifications.totalAtLeast(searchAmount(criteria.getMinAmount()), orderCurrency.getCurrencyCode()));
+        }
+        if (criteria.getMaxAmount() != null) {
+            specification = specification.and(OrderSpecifications.totalAtMost(searchAmount(criteria.getMaxAmount()), orderCurrency.getCurrencyCode()));
+        }
+        if (criteria.getProductId() != null) {
+            specification = specification.and(OrderSpecifications.containsProduct(criteria.getProductId()));
+        }
+        return specification;
+    }
+
+    private long searchAmount(BigDecimal amount) {
+        try {
+            return Money.toMinorUnits(amount, orderCurrency);
+        } catch (IllegalArgumentException e) {
+            throw new OrderValidationException(e.getMessage());
+        }
+    }
+
+    private static long totalOrders(UserOrderSummary summary) {
+        return summary.getCreatedCount() + summary.getPaidCount() + summary.getShippedCount()
+                + summary.getDeliveredCount() + summary.getCanceledCount()
+                + summary.getPartiallyRefundedCount() + summary.getRefundedCount();
+    }
+
+    // Pages are fetched with limit + 1 rows; the extra row only signals that another page exists
+    private OrderPage toOrderPage(List<OrderResponse> orders, int limit) {
+        if (orders.size() <= limit) {
+            return new OrderPage(attachOrderItems(orders), null);
+        }
+
+        List<OrderResponse> page = new ArrayList<>(orders.subList(0, limit));
+        return new OrderPage(attachOrderItems(page), OrderCursor.after(page.get(limit - 1)).encode());
+    }
+
+    // A page of hot and archived orders merged in (orderDate, id) order, each fetched with limit + 1 rows;
+    // the items of each come from their own table
+    private OrderPage toOrderPage(List<OrderResponse> orders, List<OrderResponse> archived, int limit) {
+        if (archived.isEmpty()) {
+            return toOrderPage(orders, limit);
+        }
+
+        List<OrderResponse> merged = merge(orders, archived, limit + 1);
+        List<OrderResponse> page = merged.size() <= limit ? merged : new ArrayList<>(merged.subList(0, limit));
+        Set<Long> archivedIds = archived.stream().map(OrderResponse::getOrderId).collect(Collectors.toSet());
+        attachOrderItems(page.stream().filter(order -> !archivedIds.contains(order.getOrderId())).toList());
+        attachArchivedOrderItems(page.stream().filter(order -> archivedIds.contains(order.getOrderId())).toList());
+        return new OrderPage(page, merged.size() <= limit ? null : OrderCursor.after(page.get(limit - 1)).encode());
+    }
+
+    // Merges two lists sorted by (orderDate, id), keeping at most limit orders
+    private static List<OrderResponse> merge(List<OrderResponse> first, List<OrderResponse> second, int limit) {
+        List<OrderResponse> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j == second.size() || (i < first.size() && BY_DATE_AND_ID.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    // Hands streamed orders to the consumer in small batches so items are still loaded with one IN query per batch
+    private void forEachWithOrderItems(Stream<OrderResponse> orders, Consumer<OrderResponse> consumer) {
+        List<OrderResponse> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        Iterator<OrderResponse> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == STREAM_BATCH_SIZE) {
+                attachOrderItems(batch).forEach(consumer);
+                batch.clear();
+            }
+        }
+        attachOrderItems(batch).forEach(consumer);
+    }
+
+    // Merges hot and archived streams in (orderDate, id) order, batched like above; the items of each come from their own table
+    private void forEachWithOrderItems(Stream<OrderResponse> orders, Stream<OrderResponse> archived, Consumer<OrderResponse> consumer) {
+        List<OrderResponse> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        List<OrderResponse> hotBatch = new ArrayList<>(STREAM_BATCH_SIZE);
+        List<OrderResponse> archivedBatch = new ArrayList<>(STREAM_BATCH_SIZE);
+        Iterator<OrderResponse> hot = orders.iterator();
+        Iterator<OrderResponse> cold = archived.iterator();
+        OrderResponse nextHot = hot.hasNext() ? hot.next() : null;
+        OrderResponse nextCold = cold.hasNext() ? cold.next() : null;
+        while (nextHot != null || nextCold != null) {
+            if (nextCold == null || (nextHot != null && BY_DATE_AND_ID.compare(nextHot, nextCold) <= 0)) {
+                batch.add(nextHot);
+                hotBatch.add(nextHot);
+                nextHot = hot.hasNext() ? hot.next() : null;
+            } else {
+                batch.add(nextCold);
+                archivedBatch.add(nextCold);
+                nextCold = cold.hasNext() ? cold.next() : null;
+            }
+            if (batch.size() == STREAM_BATCH_SIZE) {
+                attachOrderItems(hotBatch);
+                attachArchivedOrderItems(archivedBatch);
+                batch.forEach(consumer);
+                batch.clear();
+                hotBatch.clear();
+                archivedBatch.clear();
+            }
+        }
+        attachOrderItems(hotBatch);
+        attachArchivedOrderItems(archivedBatch);
+        batch.forEach(consumer);
+    }
+
+    // Loads the items of all given orders with one IN query instead of one lazy SELECT per order
+    private List<OrderResponse> attachOrderItems(List<OrderResponse> orders) {
+        return attachOrderItems(orders, orderItemRepository::findProjectionsByOrderIdIn);
+    }
+
+    private List<OrderResponse> attachArchivedOrderItems(List<OrderResponse> orders) {
+        return attachOrderItems(orders, archivedOrderItemRepository::findProjectionsByOrderIdIn);
+    }
+
+    private List<OrderResponse> attachOrderItems(List<OrderResponse> orders, Function<Collection<Long>, List<OrderItemProjection>> itemLoader) {
+        if (orders.isEmpty()) {
+            return orders;
+        }
+
+        Map<Long, OrderResponse> ordersById = new HashMap<>(orders.size() * 2);
+        for (OrderResponse order : orders) {
+            ordersById.put(order.getOrderId(), order);
+        }
+
+        for (OrderItemProjection item : itemLoader.apply(ordersById.keySet())) {
+            OrderResponse order = ordersById.get(item.getOrderId());
+            order.getOrderItems().add(item.toOrderItemResponse(order.getTotalAmount().getCurrency()));
+        }
+        return orders;
     }
 }
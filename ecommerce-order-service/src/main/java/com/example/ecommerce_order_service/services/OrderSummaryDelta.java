@@ -0,0 +1,62 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.entities.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Change to one user's order summary, accumulated over a transaction's order changes and applied as one UPDATE
+class OrderSummaryDelta {
+    private final long[] countsByStatus = new long[OrderStatus.values().length];
+    private long spentMinor; // Minor units of the order currency
+    private LocalDateTime lastOrderDate;
+
+    void orderCreated(LocalDateTime orderDate) {
+        countsByStatus[OrderStatus.CREATED.ordinal()]++;
+        if (lastOrderDate == null || lastOrderDate.isBefore(orderDate)) {
+            lastOrderDate = orderDate;
+        }
+    }
+
+    void statusChanged(OrderStatus from, OrderStatus to, long orderTotalMinor) {
+        countsByStatus[from.ordinal()]--;
+        countsByStatus[to.ordinal()]++;
+        spentMinor += (isSpent(to) ? orderTotalMinor : 0) - (isSpent(from) ? orderTotalMinor : 0);
+    }
+
+    void totalChanged(OrderStatus status, long changeMinor) {
+        if (isSpent(status)) {
+            spentMinor += changeMinor;
+        }
+    }
+
+    long count(OrderStatus status) {
+        return countsByStatus[status.ordinal()];
+    }
+
+    long spentMinor() {
+        return spentMinor;
+    }
+
+    LocalDateTime lastOrderDate() {
+        return lastOrderDate;
+    }
+
+    boolean isEmpty() {
+        if (spentMinor != 0 || lastOrderDate != null) {
+            return false;
+        }
+        for (long count : countsByStatus) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Money counts as spent once paid, and stops counting when the order is canceled. Settled refunds are
+    // subtracted with totalChanged, so an order counts with its total minus what was refunded.
+    static boolean isSpent(OrderStatus status) {
+        return status == OrderStatus.PAID || status == OrderStatus.SHIPPED || status == OrderStatus.DELIVERED
+                || status == OrderStatus.PARTIALLY_REFUNDED || status == OrderStatus.REFUNDED;
+    }
+}
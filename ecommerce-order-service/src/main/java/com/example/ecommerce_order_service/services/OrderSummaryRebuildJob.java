@@ -0,0 +1,17 @@
+package com.example.ecommerce_order_service.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Periodic full rebuild of the order summaries, off unless orders.summary.rebuild-cron is set
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryRebuildJob {
+    private final OrderSummaryStore orderSummaryStore;
+
+    @Scheduled(cron = "${orders.summary.rebuild-cron:-}")
+    public void rebuild() {
+        orderSummaryStore.rebuild();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.entities.UserOrderSummary;
+import com.example.ecommerce_order_service.repositories.UserOrderSummaryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps user_order_summary in step with the orders table. Order changes hand in per-user deltas
+ * that are applied as in-place increments in the same transaction as the change itself.
+ * {@link #rebuild()} recomputes every row from the orders table and its archive.
+ */
+@Slf4j
+@Component
+public class OrderSummaryStore {
+    private final UserOrderSummaryRepository summaryRepository;
+    private final TransactionTemplate newTransaction;
+    // Users known to have a summary row, so the common path is a single UPDATE
+    private final Cache<Long, Boolean> knownUsers = Caffeine.newBuilder().maximumSize(100_000).build();
+
+    public OrderSummaryStore(UserOrderSummaryRepository summaryRepository, PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void apply(Long userId, OrderSummaryDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        ensureRowExists(userId);
+
+        int updated = summaryRepository.applyDelta(userId,
+                delta.count(OrderStatus.CREATED), delta.count(OrderStatus.PAID), delta.count(OrderStatus.SHIPPED),
+                delta.count(OrderStatus.DELIVERED), delta.count(OrderStatus.CANCELED),
+                delta.count(OrderStatus.PARTIALLY_REFUNDED), delta.count(OrderStatus.REFUNDED),
+                delta.spentMinor(), delta.lastOrderDate());
+        if (updated == 0) {
+            // Only possible if the row was deleted after the check, i.e. by a concurrent rebuild
+            knownUsers.invalidate(userId);
+            log.warn("Order summary of user #{} disappeared during an update, it is corrected by the next rebuild", userId);
+        }
+    }
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void applyAll(Map<Long, OrderSummaryDelta> deltasByUser) {
+        deltasByUser.forEach(this::apply);
+    }
+
+    public Optional<UserOrderSummary> find(Long userId) {
+        return summaryRepository.findById(userId);
+    }
+
+    // Deletes and recomputes all rows in one transaction; best run off-peak as it reads every order, archived ones included
+    @Transactional
+    public int rebuild() {
+        summaryRepository.deleteAllInBatch();
+        int users = summaryRepository.insertFromOrders(OrderStatus.CREATED, OrderStatus.PAID, OrderStatus.SHIPPED,
+                OrderStatus.DELIVERED, OrderStatus.CANCELED, OrderStatus.PARTIALLY_REFUNDED, OrderStatus.REFUNDED);
+        knownUsers.invalidateAll();
+        log.info("Rebuilt order summaries for {} users", users);
+        return users;
+    }
+
+    /**
+     * The row is created in its own short transaction before the UPDATE: inserting it from the caller's
+     * transaction would serialize first orders behind each other, and an UPDATE that misses would leave a
+     * gap lock the insert then waits on. A concurrent creator winning the race is fine.
+     */
+    private void ensureRowExists(Long userId) {
+        if (knownUsers.getIfPresent(userId) != null) {
+            return;
+        }
+        if (!summaryRepository.existsById(userId)) {
+            try {
+                newTransaction.executeWithoutResult(tx -> summaryRepository.save(new UserOrderSummary(userId)));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Order summary of user #{} created concurrently", userId);
+            }
+        }
+        knownUsers.put(userId, Boolean.TRUE);
+    }
+}
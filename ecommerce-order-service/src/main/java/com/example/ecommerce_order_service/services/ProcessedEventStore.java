@@ -0,0 +1,119 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.ProcessedEventStats;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.entities.ProcessedEvent;
+import com.example.ecommerce_order_service.repositories.ProcessedEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks which (orderId, status) events have been applied.
+ * The processed_events table is the source of truth and is written in the same transaction as the
+ * status change. In front of it sits a direct-mapped array of packed keys (8 bytes per slot, no
+ * per-entry objects): a colliding key simply overwrites the slot, so the filter can forget events
+ * but never reports one that was not processed.
+ */
+@Component
+public class ProcessedEventStore {
+    private final ProcessedEventRepository processedEventRepository;
+    private final AtomicLongArray recentKeys;
+    private final int mask;
+
+    private final LongAdder skippedInMemory = new LongAdder();
+    private final LongAdder skippedFromTable = new LongAdder();
+    private final LongAdder rejectedByGuard = new LongAdder();
+
+    public ProcessedEventStore(ProcessedEventRepository processedEventRepository,
+                               @Value("${orders.events.processed-cache-size:65536}") int cacheSize) {
+        this.processedEventRepository = processedEventRepository;
+        int capacity = Integer.highestOneBit(Math.max(1, cacheSize - 1)) << 1;
+        this.recentKeys = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    // Returns the order IDs whose event for this status has not been applied yet
+    public List<Long> filterUnprocessed(OrderStatus status, Collection<Long> orderIds) {
+        List<Long> candidates = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            if (recentlyProcessed(packedKey(orderId, status))) {
+                skippedInMemory.increment();
+            } else {
+                candidates.add(orderId);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        Map<String, Long> orderIdsByKey = new HashMap<>(candidates.size() * 2);
+        for (Long orderId : candidates) {
+            orderIdsByKey.put(eventKey(orderId, status), orderId);
+        }
+        for (ProcessedEvent processed : processedEventRepository.findAllById(orderIdsByKey.keySet())) {
+            Long orderId = orderIdsByKey.remove(processed.getEventKey());
+            remember(packedKey(orderId, status));
+            skippedFromTable.increment();
+        }
+        return new ArrayList<>(orderIdsByKey.values());
+    }
+
+    // Records the events in the current transaction; the in-memory filter only learns them after commit.
+    // Another consumer may have applied and recorded the same event since filterUnprocessed, so existing keys are skipped
+    public void markProcessed(OrderStatus status, Collection<Long> orderIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessedEvent> events = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            events.add(new ProcessedEvent(eventKey(orderId, status), now));
+        }
+        processedEventRepository.insertIgnoringDuplicates(events);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    orderIds.forEach(orderId -> remember(packedKey(orderId, status)));
+                }
+            });
+        } else {
+            orderIds.forEach(orderId -> remember(packedKey(orderId, status)));
+        }
+    }
+
+    public void recordRejectedByGuard(int count) {
+        rejectedByGuard.add(count);
+    }
+
+    public ProcessedEventStats stats() {
+        return new ProcessedEventStats(skippedInMemory.sum(), skippedFromTable.sum(), rejectedByGuard.sum());
+    }
+
+    private boolean recentlyProcessed(long key) {
+        return recentKeys.get(slot(key)) == key;
+    }
+
+    private void remember(long key) {
+        recentKeys.set(slot(key), key);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    // Never 0 for a real order ID, so empty slots cannot match
+    private static long packedKey(Long orderId, OrderStatus status) {
+        return (orderId << 3) | status.ordinal();
+    }
+
+    private static String eventKey(Long orderId, OrderStatus status) {
+        return orderId + ":" + status.getStatus();
+    }
+}
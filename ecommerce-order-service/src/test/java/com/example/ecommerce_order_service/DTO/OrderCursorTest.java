@@ -0,0 +1,40 @@
+package com.example.ecommerce_order_service.DTO;
+
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderCursorTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_456_000), 4242L);
+
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        assertThat(decoded.getOrderDate()).isEqualTo(cursor.getOrderDate());
+        assertThat(decoded.getOrderId()).isEqualTo(4242L);
+        // URL-safe without padding, so it can be passed as a query parameter as is
+        assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void rejectsMalformedAndTamperedCursorsAsInvalidInput() {
+        String valid = new OrderCursor(LocalDateTime.of(2025, 1, 1, 12, 0), 42L).encode();
+
+        for (String cursor : new String[]{"not a cursor!", "", valid.substring(0, valid.length() / 2), encode("2025-01-01T12:00"),
+                encode("2025-01-01T12:00|forty-two"), encode("yesterday|42"), encode("|42")}) {
+            assertThatThrownBy(() -> OrderCursor.decode(cursor)).as(cursor).isInstanceOf(OrderValidationException.class);
+        }
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.ecommerce_order_service.analytics;
+
+import com.example.ecommerce_order_service.DTO.OrderItemProjection;
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.ProductSalesPoint;
+import com.example.ecommerce_order_service.DTO.ProductSalesResponse;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.OrderItemRepository;
+import com.example.ecommerce_order_service.repositories.ProductSalesSnapshotRepository;
+import com.example.ecommerce_order_service.services.IOrderService;
+import com.example.ecommerce_order_service.services.OrderEventOutbox;
+import com.example.ecommerce_order_service.services.OrderServiceImpl;
+import com.example.ecommerce_order_service.services.OrderSummaryStore;
+import com.example.ecommerce_order_service.services.ProcessedEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Runs without a test transaction so the analytics see each order change after it commits, as in production
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class, ProductSalesAnalyticsTest.AnalyticsConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class ProductSalesAnalyticsTest {
+
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-02T10:30:00Z"), ZoneOffset.UTC);
+
+    @TestConfiguration
+    static class AnalyticsConfig {
+        @Bean
+        ProductSalesAnalytics productSalesAnalytics(OrderItemRepository orderItemRepository,
+                                                    ProductSalesSnapshotRepository snapshotRepository,
+                                                    TransactionTemplate transactionTemplate) {
+            return new ProductSalesAnalytics(orderItemRepository, snapshotRepository, transactionTemplate, WINDOW, CLOCK, "test");
+        }
+    }
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private ProductSalesAnalytics analytics;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductSalesSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAll();
+    }
+
+    @Test
+    void countsUnitsOrderedAndSoldAndRestoresThemFromTheSnapshot() {
+        Order first = orderService.createOrder(1L, List.of(item(100L, 2), item(200L, 1)));
+        Order second = orderService.createOrder(2L, List.of(item(100L, 1), item(300L, 5)));
+        Order third = orderService.createOrder(3L, List.of(item(300L, 4)));
+        orderService.updateOrderStatus(first.getId(), OrderStatus.PAID);
+        orderService.updateOrderStatuses(Map.of(OrderStatus.PAID, List.of(second.getId(), third.getId())));
+        // Paid before, so its units are taken back from the units sold
+        orderService.cancelOrder(third.getId());
+
+        assertThat(analytics.topProducts(SalesMeasure.ORDERED, 24, 10))
+                .extracting(ProductSalesResponse::getProductId, ProductSalesResponse::getUnitsOrdered, ProductSalesResponse::getUnitsSold)
+                .containsExactly(tuple(300L, 9L, 5L), tuple(100L, 3L, 3L), tuple(200L, 1L, 1L));
+        assertThat(analytics.topProducts(SalesMeasure.SOLD, 1, 2)).extracting(ProductSalesResponse::getProductId)
+                .containsExactly(300L, 100L);
+        assertThat(analytics.series(100L, 3)).extracting(ProductSalesPoint::getUnitsOrdered).containsExactly(0L, 0L, 3L);
+
+        assertThat(analytics.saveSnapshot()).isEqualTo(1);
+        ProductSalesAnalytics restarted = instance("test");
+        assertThat(restarted.restore()).isEqualTo(1);
+        assertThat(restarted.topProducts(SalesMeasure.SOLD, 24, 10)).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(analytics.topProducts(SalesMeasure.SOLD, 24, 10));
+    }
+
+    @Test
+    void replicasSaveTheirOwnSnapshotsOfAnHourAndARestartSumsThem() {
+        ProductSalesAnalytics first = instance("replica-1");
+        ProductSalesAnalytics second = instance("replica-2");
+        first.record(SalesMeasure.ORDERED, 1, List.of(projection(100L, 2), projection(200L, 1)));
+        second.record(SalesMeasure.ORDERED, 1, List.of(projection(100L, 3)));
+        assertThat(first.saveSnapshot()).isEqualTo(1);
+        assertThat(second.saveSnapshot()).isEqualTo(1);
+        assertThat(snapshotRepository.count()).isEqualTo(2);
+
+        ProductSalesAnalytics restarted = instance("replica-1");
+        assertThat(restarted.restore()).isEqualTo(2);
+        assertThat(restarted.topProducts(SalesMeasure.ORDERED, 1, 10))
+                .extracting(ProductSalesResponse::getProductId, ProductSalesResponse::getUnitsOrdered)
+                .containsExactly(tuple(100L, 5L), tuple(200L, 1L));
+
+        // Saving again writes its own counts only, so the other replica's units are not counted twice on the next restart
+        restarted.record(SalesMeasure.ORDERED, 1, List.of(projection(200L, 4)));
+        assertThat(restarted.saveSnapshot()).isEqualTo(1);
+        ProductSalesAnalytics another = instance("replica-3");
+        assertThat(another.restore()).isEqualTo(2);
+        assertThat(another.series(100L, 1)).extracting(ProductSalesPoint::getUnitsOrdered).containsExactly(5L);
+        assertThat(another.series(200L, 1)).extracting(ProductSalesPoint::getUnitsOrdered).containsExactly(5L);
+    }
+
+    @Test
+    void countersKeepEveryProductAcrossResizes() {
+        ProductCounters counters = new ProductCounters();
+        for (long productId = 0; productId < 5000; productId++) {
+            counters.add(productId, productId, productId % 7);
+        }
+
+        ProductCounters copy = ProductCounters.fromBytes(counters.toBytes());
+        assertThat(copy.size()).isEqualTo(5000);
+        assertThat(copy.ordered(0)).isZero();
+        assertThat(copy.ordered(4321)).isEqualTo(4321);
+        assertThat(copy.sold(4321)).isEqualTo(4321 % 7);
+        assertThat(copy.top(SalesMeasure.ORDERED, 3)).containsExactly(4999L, 4998L, 4997L);
+        // Ties go to the lower product ID
+        assertThat(copy.top(SalesMeasure.SOLD, 2)).containsExactly(6L, 13L);
+    }
+
+    private ProductSalesAnalytics instance(String instanceId) {
+        return new ProductSalesAnalytics(orderItemRepository, snapshotRepository, transactionTemplate, WINDOW, CLOCK, instanceId);
+    }
+
+    private static OrderItemProjection projection(long productId, int quantity) {
+        return new OrderItemProjection(1L, null, productId, quantity, 999L);
+    }
+
+    private static OrderItemRequest item(long productId, int quantity) {
+        return new OrderItemRequest(productId, quantity, new BigDecimal("9.99"));
+    }
+}
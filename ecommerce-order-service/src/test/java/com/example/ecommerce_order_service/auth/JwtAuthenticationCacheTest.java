@@ -0,0 +1,99 @@
+package com.example.ecommerce_order_service.auth;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtAuthenticationCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:30:00Z");
+    private static final Duration MAX_TTL = Duration.ofMinutes(10);
+
+    // Caffeine reads the ticker to time entries out; the clock stays at NOW, when every entry is created
+    private final AtomicLong ticker = new AtomicLong();
+    private final JwtAuthenticationCache cache = new JwtAuthenticationCache(100, MAX_TTL, ticker::get, Clock.fixed(NOW, ZoneOffset.UTC));
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void keepsAnEntryUntilTheTokenExpiresAndVerifiesItOnceMeanwhile() {
+        Function<String, JwtAuthentication> verifier = verifier(NOW.plus(Duration.ofMinutes(2)));
+
+        JwtAuthentication first = cache.get("token", verifier);
+        advance(Duration.ofSeconds(119));
+        assertThat(cache.get("token", verifier)).isSameAs(first);
+        assertThat(verifications).hasValue(1);
+
+        advance(Duration.ofSeconds(1));
+        assertThat(cache.get("token", verifier)).isNotSameAs(first);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void keepsAnEntryNoLongerThanTheMaxTtl() {
+        Function<String, JwtAuthentication> verifier = verifier(NOW.plus(Duration.ofHours(1)));
+
+        cache.get("token", verifier);
+        advance(MAX_TTL.minusSeconds(1));
+        cache.get("token", verifier);
+        assertThat(verifications).hasValue(1);
+
+        advance(Duration.ofSeconds(1));
+        cache.get("token", verifier);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void keepsATokenWithoutExpiryForTheMaxTtl() {
+        Function<String, JwtAuthentication> verifier = verifier(null);
+
+        cache.get("token", verifier);
+        advance(MAX_TTL.minusSeconds(1));
+        cache.get("token", verifier);
+        assertThat(verifications).hasValue(1);
+
+        advance(Duration.ofSeconds(1));
+        cache.get("token", verifier);
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void neverCachesAnExpiredOrInvalidToken() {
+        // Expired by the time it is cached, e.g. verified with some clock skew allowed
+        Function<String, JwtAuthentication> expired = verifier(NOW.minusSeconds(1));
+        cache.get("expired", expired);
+        cache.get("expired", expired);
+        assertThat(verifications).hasValue(2);
+
+        Function<String, JwtAuthentication> invalid = token -> {
+            verifications.incrementAndGet();
+            throw new ExpiredJwtException(null, null, "JWT expired");
+        };
+        assertThatThrownBy(() -> cache.get("invalid", invalid)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> cache.get("invalid", invalid)).isInstanceOf(JwtException.class);
+        assertThat(verifications).hasValue(4);
+    }
+
+    private Function<String, JwtAuthentication> verifier(Instant expiresAt) {
+        return token -> {
+            verifications.incrementAndGet();
+            return new JwtAuthentication(User.withUsername("alice").password("").roles("USER").build(), List.of(), expiresAt);
+        };
+    }
+
+    private void advance(Duration duration) {
+        ticker.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ecommerce_order_service.auth;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.config.SecurityConfig;
+import com.example.ecommerce_order_service.conrollers.OrderController;
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.metrics.SqlStatementCounter;
+import com.example.ecommerce_order_service.services.IOrderService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The order API behind the real security chain, so the filter's outcome is seen as the client sees it
+@WebMvcTest(OrderController.class)
+@Import({SecurityConfig.class, JwtUtil.class, JwtAuthenticationCache.class, JwtAuthenticationEntryPoint.class, OrderMetrics.class,
+        SimpleMeterRegistry.class, SqlStatementCounter.class})
+class JwtFilterTest {
+
+    @MockitoBean(name = "OrderServiceImpl")
+    private IOrderService orderService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @BeforeEach
+    void setUp() {
+        authenticationCache.invalidateAll();
+        when(orderService.getOrderById(1L)).thenReturn(new OrderResponse(1L, 7L, LocalDateTime.now(),
+                Money.ofMinor(1000, "EUR"), OrderStatus.CREATED, new ArrayList<>()));
+    }
+
+    @Test
+    void verifiesEachTokenOnceAcrossRequests() throws Exception {
+        String token = token(Instant.now().plus(Duration.ofHours(1)));
+        long verified = verifications();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/orders/1").header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+        }
+        assertThat(verifications()).isEqualTo(verified + 1);
+    }
+
+    @Test
+    void rejectsExpiredAndInvalidTokensWithoutCachingThem() throws Exception {
+        String expired = token(Instant.now().minus(Duration.ofMinutes(1)));
+        String forged = token(Instant.now().plus(Duration.ofHours(1))) + "x";
+        long verified = verifications();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/orders/1").header("Authorization", "Bearer " + expired)).andExpect(status().isUnauthorized());
+            mockMvc.perform(get("/api/orders/1").header("Authorization", "Bearer " + forged)).andExpect(status().isUnauthorized());
+        }
+        // Every request verified its token again: a failed verification leaves nothing in the cache
+        assertThat(verifications()).isEqualTo(verified + 4);
+    }
+
+    private String token(Instant expiresAt) {
+        return Jwts.builder()
+                .subject("alice")
+                .claim("roles", List.of("USER"))
+                .expiration(Date.from(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .compact();
+    }
+
+    private long verifications() {
+        return meterRegistry.get("orders.jwt.verification").timer().count();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.ecommerce_order_service.cache;
+
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderCacheTest {
+
+    private InMemoryDistributedOrderCache distributedCache;
+    private OrderCache orderCache;
+    private AtomicInteger loads;
+    private Function<Long, OrderResponse> loader;
+
+    @BeforeEach
+    void setUp() {
+        distributedCache = new InMemoryDistributedOrderCache();
+        orderCache = new OrderCache(distributedCache, 100, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return new OrderResponse(id, 1L, LocalDateTime.now(), 1000L, "USD", OrderStatus.CREATED);
+        };
+    }
+
+    @Test
+    void loadsOnceAndServesRepeatReadsFromCache() {
+        orderCache.get(1L, loader);
+        orderCache.get(1L, loader);
+        orderCache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+        assertThat(orderCache.stats().getLocalHits()).isEqualTo(2);
+        assertThat(orderCache.stats().getLocalMisses()).isEqualTo(1);
+        assertThat(distributedCache.get(1L)).isNotNull();
+    }
+
+    @Test
+    void evictionForcesReloadFromBothTiers() {
+        orderCache.get(1L, loader);
+
+        orderCache.evict(1L);
+        orderCache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void localMissIsServedByDistributedTier() {
+        OrderResponse shared = new OrderResponse(2L, 1L, LocalDateTime.now(), 500L, "USD", OrderStatus.PAID);
+        distributedCache.put(2L, shared);
+
+        assertThat(orderCache.get(2L, loader)).usingRecursiveComparison().isEqualTo(shared);
+        assertThat(loads).hasValue(0);
+        assertThat(orderCache.stats().getDistributedHits()).isEqualTo(1);
+    }
+
+    @Test
+    void readersGetCopiesTheyCannotUseToChangeTheCache() {
+        OrderResponse first = orderCache.get(4L, loader);
+        first.setOrderStatus(OrderStatus.CANCELED);
+
+        OrderResponse second = orderCache.get(4L, loader);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getOrderStatus()).isEqualTo(OrderStatus.CREATED);
+        assertThatThrownBy(() -> second.getOrderItems().add(null)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void missingOrdersAreNotCached() {
+        orderCache.get(3L, id -> null);
+
+        assertThat(orderCache.get(3L, loader)).isNotNull();
+        assertThat(loads).hasValue(1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ecommerce_order_service.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseBulkheadFilterTest {
+
+    private static final int MAX_CONCURRENT_REQUESTS = 2;
+
+    private final DatabaseBulkheadFilter filter = new DatabaseBulkheadFilter(MAX_CONCURRENT_REQUESTS, Duration.ofMillis(50));
+
+    @Test
+    void shedsRequestsBeyondTheLimitWith503AndRetryAfter() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(MAX_CONCURRENT_REQUESTS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger handled = new AtomicInteger();
+        FilterChain blockingChain = (request, response) -> {
+            handled.incrementAndGet();
+            inFlight.countDown();
+            await(release);
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS)) {
+            List<Future<MockHttpServletResponse>> holders = new ArrayList<>();
+            for (int i = 0; i < MAX_CONCURRENT_REQUESTS; i++) {
+                holders.add(executor.submit(() -> filter(blockingChain)));
+            }
+            assertThat(inFlight.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Every permit is held, so this one waits out the acquire timeout and never reaches the chain
+            MockHttpServletResponse shed = filter(blockingChain);
+            assertThat(shed.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            assertThat(shed.getErrorMessage()).isEqualTo("Order service is at capacity, retry later");
+            assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+            assertThat(handled).hasValue(MAX_CONCURRENT_REQUESTS);
+
+            release.countDown();
+            for (Future<MockHttpServletResponse> holder : holders) {
+                assertThat(holder.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+            }
+        }
+
+        // The permits are back once the requests holding them complete
+        assertThat(filter((request, response) -> handled.incrementAndGet()).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(handled).hasValue(MAX_CONCURRENT_REQUESTS + 1);
+    }
+
+    @Test
+    void releasesThePermitWhenTheRequestFails() throws Exception {
+        FilterChain failingChain = (request, response) -> {
+            throw new IllegalStateException("database down");
+        };
+        for (int i = 0; i < MAX_CONCURRENT_REQUESTS + 1; i++) {
+            assertThatThrownBy(() -> filter(failingChain)).isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(filter((request, response) -> { }).getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void leavesRequestsOutsideTheOrderApiAlone() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(MAX_CONCURRENT_REQUESTS);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS)) {
+            for (int i = 0; i < MAX_CONCURRENT_REQUESTS; i++) {
+                executor.submit(() -> filter((request, response) -> {
+                    inFlight.countDown();
+                    await(release);
+                }));
+            }
+            assertThat(inFlight.await(10, TimeUnit.SECONDS)).isTrue();
+
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> { });
+            assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+            release.countDown();
+        }
+    }
+
+    private MockHttpServletResponse filter(FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/1"), response, chain);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.ecommerce_order_service.conrollers;
+
+import com.example.ecommerce_order_service.DTO.BulkOrderRequest;
+import com.example.ecommerce_order_service.DTO.BulkOrderResult;
+import com.example.ecommerce_order_service.DTO.OrderCursor;
+import com.example.ecommerce_order_service.DTO.OrderItemResponse;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.auth.JwtAuthenticationCache;
+import com.example.ecommerce_order_service.auth.JwtAuthenticationEntryPoint;
+import com.example.ecommerce_order_service.auth.JwtUtil;
+import com.example.ecommerce_order_service.config.SecurityConfig;
+import com.example.ecommerce_order_service.entities.Money;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.metrics.SqlStatementCounter;
+import com.example.ecommerce_order_service.services.IOrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = OrderController.class, properties = {"orders.page.max-size=100", "orders.bulk.chunk-size=2"})
+@Import({SecurityConfig.class, JwtUtil.class, JwtAuthenticationCache.class, JwtAuthenticationEntryPoint.class, OrderMetrics.class,
+        SimpleMeterRegistry.class, SqlStatementCounter.class})
+@WithMockUser(roles = "USER")
+class OrderControllerTest {
+
+    @MockitoBean(name = "OrderServiceImpl")
+    private IOrderService orderService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void rejectsPageSizesOutsideOneToTheMaximum() throws Exception {
+        mockMvc.perform(get("/api/orders/user/7").param("limit", "101")).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Page size must be between 1 and 100"));
+        mockMvc.perform(get("/api/orders/status/PAID").param("limit", "0")).andExpect(status().isBadRequest());
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void answersAMalformedCursorWith400() throws Exception {
+        // The service decodes the cursor, as the real one does
+        when(orderService.getOrdersByUserId(eq(7L), any(String.class), anyInt())).thenAnswer(invocation -> {
+            OrderCursor.decode(invocation.getArgument(1));
+            return null;
+        });
+
+        mockMvc.perform(get("/api/orders/user/7").param("cursor", "not-a-cursor")).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: not-a-cursor"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamsOneJsonOrderPerLine() throws Exception {
+        List<OrderResponse> orders = List.of(order(1L), order(2L));
+        doAnswer(invocation -> {
+            orders.forEach(invocation.getArgument(1, Consumer.class));
+            return null;
+        }).when(orderService).streamOrdersByUserId(eq(7L), any());
+
+        String body = mockMvc.perform(get("/api/orders/user/7/stream"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertThat(line.get("orderId").asLong()).isEqualTo(i + 1L);
+            assertThat(line.get("orderItems")).hasSize(1);
+        }
+    }
+
+    @Test
+    void createsBulkOrdersInChunksOfTheChunkSize() throws Exception {
+        List<Integer> chunkSizes = recordBulkChunks();
+        String body = String.join("\n", bulkOrder(1), bulkOrder(2), bulkOrder(3), bulkOrder(4), bulkOrder(5)) + "\n";
+
+        List<JsonNode> results = postBulk(MediaType.APPLICATION_NDJSON, body);
+
+        assertThat(chunkSizes).containsExactly(2, 2, 1);
+        assertThat(results).extracting(result -> result.get("index").asLong()).containsExactly(0L, 1L, 2L, 3L, 4L);
+        assertThat(results).extracting(result -> result.get("status").asText()).containsOnly("CREATED");
+
+        // A JSON array is read the same way
+        chunkSizes.clear();
+        assertThat(postBulk(MediaType.APPLICATION_JSON, "[" + bulkOrder(1) + "," + bulkOrder(2) + "," + bulkOrder(3) + "]")).hasSize(3);
+        assertThat(chunkSizes).containsExactly(2, 1);
+    }
+
+    @Test
+    void reportsAMalformedTrailingLineAfterTheOrdersBeforeIt() throws Exception {
+        List<Integer> chunkSizes = recordBulkChunks();
+        String body = String.join("\n", bulkOrder(1), bulkOrder(2), bulkOrder(3), "{\"userId\": 4, \"orderItems\": [");
+
+        List<JsonNode> results = postBulk(MediaType.APPLICATION_NDJSON, body);
+
+        // The full chunk and the partial one read before the bad line are still created
+        assertThat(chunkSizes).containsExactly(2, 1);
+        assertThat(results).hasSize(4);
+        assertThat(results.subList(0, 3)).extracting(result -> result.get("status").asText()).containsOnly("CREATED");
+        JsonNode error = results.get(3);
+        assertThat(error.get("index").asLong()).isEqualTo(3L);
+        assertThat(error.get("status").asText()).isEqualTo("REJECTED");
+        assertThat(error.get("orderId").isNull()).isTrue();
+        assertThat(error.get("message").asText()).startsWith("Malformed order: ");
+    }
+
+    // Answers every chunk with CREATED results and records the chunk sizes
+    private List<Integer> recordBulkChunks() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        AtomicLong orderIds = new AtomicLong();
+        when(orderService.createOrders(any())).thenAnswer(invocation -> {
+            List<BulkOrderRequest> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return chunk.stream().map(request -> new BulkOrderResult(0, orderIds.incrementAndGet(), "CREATED", null)).toList();
+        });
+        return chunkSizes;
+    }
+
+    private List<JsonNode> postBulk(MediaType contentType, String body) throws Exception {
+        String response = mockMvc.perform(post("/api/orders/bulk").contentType(contentType).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static String bulkOrder(long userId) {
+        return "{\"userId\": " + userId + ", \"orderItems\": [{\"productId\": 100, \"quantity\": 1, \"price\": 9.99}]}";
+    }
+
+    private static OrderResponse order(long orderId) {
+        return new OrderResponse(orderId, 7L, LocalDateTime.of(2025, 1, 1, 12, 0), Money.ofMinor(1000, "USD"), OrderStatus.PAID,
+                List.of(new OrderItemResponse(orderId * 10, 100L, 1, Money.ofMinor(1000, "USD"))));
+    }
+}
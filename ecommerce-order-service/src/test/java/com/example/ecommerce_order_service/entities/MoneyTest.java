@@ -0,0 +1,43 @@
+package com.example.ecommerce_order_service.entities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    void totalsAreExactWhereDoublesDrift() {
+        // 0.1 + 0.2 as doubles is 0.30000000000000004, which is more than a payment of 0.30
+        Money total = Money.of(new BigDecimal("0.10"), USD).plus(Money.of(new BigDecimal("0.20"), USD));
+
+        assertThat(total.getMinorUnits()).isEqualTo(30);
+        assertThat(Money.of(new BigDecimal("0.3"), USD).isAtLeast(total)).isTrue();
+        assertThat(Money.of(new BigDecimal("0.29"), USD).isAtLeast(total)).isFalse();
+    }
+
+    @Test
+    void rejectsAmountsFinerThanTheMinorUnit() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("10.005"), USD))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(Money.of(new BigDecimal("10.050"), USD).getMinorUnits()).isEqualTo(1005);
+    }
+
+    @Test
+    void roundTripsThroughJsonAsDecimalAmountAndCurrency() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Money price = Money.ofMinor(1999, USD);
+
+        String json = objectMapper.writeValueAsString(price);
+
+        assertThat(json).isEqualTo("{\"amount\":19.99,\"currency\":\"USD\"}");
+        assertThat(objectMapper.readValue(json, Money.class)).isEqualTo(price);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ecommerce_order_service.inventory;
+
+import com.example.ecommerce_order_service.exceptions.InsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventoryReservationsTest {
+
+    private StubInventorySource inventorySource;
+    private InventoryReservations reservations;
+
+    @BeforeEach
+    void setUp() {
+        inventorySource = new StubInventorySource(0);
+        reservations = new InventoryReservations(inventorySource, true, 8);
+    }
+
+    @Test
+    void reservesEveryItemOfAnOrderOrNone() {
+        inventorySource.setStockLevel(1L, 5);
+        inventorySource.setStockLevel(2L, 1);
+
+        assertThatThrownBy(() -> reservations.reserve(Map.of(1L, 3L, 2L, 2L))).isInstanceOf(InsufficientStockException.class);
+        assertThat(reservations.available(1L)).isEqualTo(5);
+
+        reservations.reserve(Map.of(1L, 3L, 2L, 1L));
+        assertThat(reservations.available(1L)).isEqualTo(2);
+        assertThat(reservations.available(2L)).isZero();
+
+        reservations.release(Map.of(2L, 1L));
+        assertThat(reservations.available(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void syncPicksUpRestocksAndKeepsRecentReservations() {
+        inventorySource.setStockLevel(1L, 10);
+        reservations.reserve(Map.of(1L, 4L));
+
+        // Restocked before the inventory system has seen the order
+        inventorySource.setStockLevel(1L, 20);
+        reservations.sync();
+        assertThat(reservations.available(1L)).isEqualTo(16);
+
+        // Now the order is in its level
+        inventorySource.setStockLevel(1L, 16);
+        reservations.sync();
+        assertThat(reservations.available(1L)).isEqualTo(16);
+    }
+
+    @Test
+    void neverOversellsAHotProduct() throws Exception {
+        inventorySource.setStockLevel(42L, 1000);
+        AtomicInteger reserved = new AtomicInteger();
+
+        List<Future<?>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            for (int t = 0; t < 32; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        try {
+                            reservations.reserve(Map.of(42L, 1L));
+                            reserved.incrementAndGet();
+                        } catch (InsufficientStockException e) {
+                            // sold out
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        assertThat(reserved).hasValue(1000);
+        assertThat(reservations.available(42L)).isZero();
+    }
+}
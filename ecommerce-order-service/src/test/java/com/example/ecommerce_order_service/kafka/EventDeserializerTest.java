@@ -0,0 +1,37 @@
+package com.example.ecommerce_order_service.kafka;
+
+import com.example.ecommerce_order_service.DTO.PaymentConfirmedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventDeserializerTest {
+
+    @Test
+    void readsJsonAndCborRecordsByContentType() throws Exception {
+        PaymentConfirmedEvent event = new PaymentConfirmedEvent();
+        event.setOrderId(42L);
+        event.setStatus("PAID");
+
+        try (EventDeserializer deserializer = new EventDeserializer()) {
+            // As configured through spring.kafka.consumer.properties in application.properties
+            deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*",
+                    JsonDeserializer.VALUE_DEFAULT_TYPE, PaymentConfirmedEvent.class.getName()), false);
+
+            RecordHeaders cborHeaders = new RecordHeaders();
+            cborHeaders.add(EventFormat.HEADER, EventFormat.CBOR.getContentType().getBytes(StandardCharsets.UTF_8));
+            assertThat(deserializer.deserialize("payment-confirmed", cborHeaders, new CBORMapper().writeValueAsBytes(event)))
+                    .isEqualTo(event);
+            // No contentType header: JSON, as from producers that never set it
+            assertThat(deserializer.deserialize("payment-confirmed", new RecordHeaders(), new ObjectMapper().writeValueAsBytes(event)))
+                    .isEqualTo(event);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ecommerce_order_service.kafka;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.services.IOrderService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "eureka.client.enabled=false",
+        "orders.outbox.linger-ms=50"})
+@AutoConfigureTestDatabase
+@EmbeddedKafka(partitions = 3, topics = {"order-events", "payment-confirmed"})
+class OrderEventRelayTest {
+
+    @Autowired
+    @Qualifier("OrderServiceImpl")
+    private IOrderService orderService;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    void relaysOrderEventsInOrderPerOrderId() throws Exception {
+        Order order = orderService.createOrder(5L, List.of(new OrderItemRequest(1L, 2, new BigDecimal("10.0"))));
+        orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+        orderService.cancelOrder(order.getId());
+
+        List<String> eventTypes = new ArrayList<>();
+        try (Consumer<String, String> consumer = orderEventsConsumer()) {
+            embeddedKafka.consumeFromAnEmbeddedTopic(consumer, "order-events");
+            long deadline = System.currentTimeMillis() + 15_000;
+            while (eventTypes.size() < 3 && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (String.valueOf(order.getId()).equals(record.key())) {
+                        eventTypes.add(new String(record.headers().lastHeader("eventType").value(), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+
+        assertThat(eventTypes).containsExactly("ORDER_CREATED", "ORDER_STATUS_CHANGED", "ORDER_STATUS_CHANGED");
+    }
+
+    private Consumer<String, String> orderEventsConsumer() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("order-events-test", "false", embeddedKafka);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        return new KafkaConsumer<>(props);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.ecommerce_order_service.kafka;
+
+import com.example.ecommerce_order_service.DTO.PaymentConfirmedEvent;
+import com.example.ecommerce_order_service.config.KafkaConsumerConfig;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.services.IOrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {PaymentConfirmedListener.class, KafkaConsumerConfig.class, OrderMetrics.class, SimpleMeterRegistry.class},
+        properties = "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}")
+@ImportAutoConfiguration(KafkaAutoConfiguration.class)
+@EmbeddedKafka(partitions = 1, topics = "payment-confirmed")
+class PaymentConfirmedListenerTest {
+
+    @MockitoBean(name = "OrderServiceImpl")
+    private IOrderService orderService;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @Test
+    void appliesPaidEventsInDeduplicatedBatches() throws Exception {
+        Set<Long> paidOrderIds = ConcurrentHashMap.newKeySet();
+        Set<Long> duplicatesWithinBatch = ConcurrentHashMap.newKeySet();
+        when(orderService.updateOrderStatuses(anyMap())).thenAnswer(invocation -> {
+            Map<OrderStatus, List<Long>> orderIdsByStatus = invocation.getArgument(0);
+            List<Long> orderIds = orderIdsByStatus.get(OrderStatus.PAID);
+            Set<Long> seen = new HashSet<>();
+            orderIds.stream().filter(id -> !seen.add(id)).forEach(duplicatesWithinBatch::add);
+            paidOrderIds.addAll(orderIds);
+            return orderIds.size();
+        });
+
+        KafkaTemplate<String, PaymentConfirmedEvent> template = kafkaTemplate();
+        template.send("payment-confirmed", event(1L, "PAID"));
+        template.send("payment-confirmed", event(2L, "PAID"));
+        template.send("payment-confirmed", event(1L, "PAID"));
+        template.send("payment-confirmed", event(3L, "FAILED"));
+        template.flush();
+        // Same topic, one record in CBOR as written with orders.kafka.event-format=CBOR
+        KafkaTemplate<String, byte[]> binaryTemplate = binaryKafkaTemplate();
+        ProducerRecord<String, byte[]> cborRecord = new ProducerRecord<>("payment-confirmed", "4",
+                new ObjectMapper(new CBORFactory()).writeValueAsBytes(event(4L, "PAID")));
+        cborRecord.headers().add(EventFormat.HEADER, EventFormat.CBOR.getContentType().getBytes(StandardCharsets.UTF_8));
+        binaryTemplate.send(cborRecord);
+        binaryTemplate.flush();
+
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!paidOrderIds.containsAll(Set.of(1L, 2L, 4L)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(paidOrderIds).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(duplicatesWithinBatch).isEmpty();
+    }
+
+    private KafkaTemplate<String, PaymentConfirmedEvent> kafkaTemplate() {
+        Map<String, Object> props = KafkaTestUtils.producerProps(embeddedKafka);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    private KafkaTemplate<String, byte[]> binaryKafkaTemplate() {
+        Map<String, Object> props = KafkaTestUtils.producerProps(embeddedKafka);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    private static PaymentConfirmedEvent event(Long orderId, String status) {
+        PaymentConfirmedEvent event = new PaymentConfirmedEvent();
+        event.setOrderId(orderId);
+        event.setStatus(status);
+        return event;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.PaymentIntentResponse;
+import com.example.ecommerce_order_service.DTO.PaymentRequest;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.PaymentStatus;
+import com.example.ecommerce_order_service.exceptions.PaymentGatewayException;
+import com.example.ecommerce_order_service.exceptions.PaymentProcessingException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.kafka.EventCodec;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.PaymentIntentRepository;
+import com.example.ecommerce_order_service.services.IOrderService;
+import com.example.ecommerce_order_service.services.OrderEventOutbox;
+import com.example.ecommerce_order_service.services.OrderServiceImpl;
+import com.example.ecommerce_order_service.services.OrderSummaryStore;
+import com.example.ecommerce_order_service.services.ProcessedEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs without a test transaction so intents are committed and picked up by the worker pool as in production
+@DataJpaTest(properties = {
+        "orders.payments.initial-backoff=10ms",
+        "orders.payments.max-backoff=20ms",
+        "orders.payments.call-timeout=500ms",
+        "orders.payments.claim-timeout=5s",
+        "orders.payments.circuit-breaker.failure-threshold=10"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PaymentProcessor.class, EventCodec.class, PaymentProcessorTest.GatewayConfig.class, OrderServiceImpl.class, OrderCache.class,
+        OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class, ProcessedEventStore.class, OrderEventOutbox.class,
+        OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class, InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class PaymentProcessorTest {
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private PaymentProcessor paymentProcessor;
+
+    @Autowired
+    private PaymentIntentRepository paymentIntentRepository;
+
+    @Autowired
+    private ScriptedGateway gateway;
+
+    @MockitoBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @BeforeEach
+    void setUp() {
+        gateway.script.clear();
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, byte[]>>any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void retriesTransientFailuresThenPublishesConfirmation() throws Exception {
+        Order order = newOrder();
+        gateway.script.add(new PaymentGatewayException("503"));
+        gateway.script.add(new PaymentGatewayException("503"));
+
+        PaymentIntentResponse accepted = orderService.requestPayment(order.getId(), payment(order, "50.00"));
+        assertThat(accepted.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        // Paying again while the first payment is live returns it instead of charging twice
+        assertThat(orderService.requestPayment(order.getId(), payment(order, "50.00")).getPaymentId())
+                .isEqualTo(accepted.getPaymentId());
+
+        PaymentIntentResponse settled = awaitSettled(order.getId(), accepted.getPaymentId());
+        assertThat(settled.getStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+        assertThat(settled.getAttempts()).isEqualTo(3);
+
+        verify(kafkaTemplate, timeout(5000)).send(argThat((ProducerRecord<String, byte[]> record) ->
+                record.topic().equals("payment-confirmed") && record.key().equals(String.valueOf(order.getId()))
+                        && new String(record.value(), StandardCharsets.UTF_8).contains("\"PAID\"")));
+        awaitConfirmed(accepted.getPaymentId());
+    }
+
+    @Test
+    void declinedPaymentFailsAndFreesTheOrderForAnotherPayment() throws Exception {
+        Order order = newOrder();
+        gateway.script.add(PaymentResult.declined("insufficient funds"));
+
+        PaymentIntentResponse declined = awaitSettled(order.getId(),
+                orderService.requestPayment(order.getId(), payment(order, "50.00")).getPaymentId());
+        assertThat(declined.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(declined.getAttempts()).isEqualTo(1);
+        assertThat(declined.getFailureReason()).contains("insufficient funds");
+
+        PaymentIntentResponse retry = orderService.requestPayment(order.getId(), payment(order, "50.00"));
+        assertThat(retry.getPaymentId()).isNotEqualTo(declined.getPaymentId());
+        assertThat(awaitSettled(order.getId(), retry.getPaymentId()).getStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+    }
+
+    @Test
+    void rejectsAnAmountBelowTheOrderTotalWithoutRecordingAPayment() {
+        Order order = newOrder();
+
+        assertThatThrownBy(() -> orderService.requestPayment(order.getId(), payment(order, "49.99")))
+                .isInstanceOf(PaymentProcessingException.class);
+        assertThat(paymentIntentRepository.findByActiveOrderId(order.getId())).isEmpty();
+    }
+
+    private PaymentIntentResponse awaitSettled(Long orderId, Long paymentId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        PaymentIntentResponse payment = orderService.getPayment(orderId, paymentId);
+        while (!isSettled(payment.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            paymentProcessor.sweep(); // not scheduled in this slice
+            payment = orderService.getPayment(orderId, paymentId);
+        }
+        return payment;
+    }
+
+    private void awaitConfirmed(Long paymentId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (paymentIntentRepository.findById(paymentId).orElseThrow().getConfirmedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(paymentIntentRepository.findById(paymentId).orElseThrow().getConfirmedAt()).isNotNull();
+    }
+
+    private static boolean isSettled(PaymentStatus status) {
+        return status == PaymentStatus.SUCCEEDED || status == PaymentStatus.FAILED;
+    }
+
+    private Order newOrder() {
+        return orderService.createOrder(1L, List.of(new OrderItemRequest(1L, 2, new BigDecimal("25.0"))));
+    }
+
+    private static PaymentRequest payment(Order order, String amount) {
+        return new PaymentRequest(order.getId(), new BigDecimal(amount), "Credit Card");
+    }
+
+    // Plays back scripted results and exceptions, then approves
+    static class ScriptedGateway implements PaymentGateway {
+        final Queue<Object> script = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public PaymentResult charge(PaymentCharge charge) {
+            Object next = script.poll();
+            if (next instanceof RuntimeException e) {
+                throw e;
+            }
+            return next != null ? (PaymentResult) next : PaymentResult.approved("test-" + charge.getPaymentId());
+        }
+    }
+
+    @TestConfiguration
+    static class GatewayConfig {
+        @Bean
+        ScriptedGateway scriptedGateway() {
+            return new ScriptedGateway();
+        }
+    }
+}
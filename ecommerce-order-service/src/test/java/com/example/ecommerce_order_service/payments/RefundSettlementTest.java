@@ -0,0 +1,213 @@
+package com.example.ecommerce_order_service.payments;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.OrderItemResponse;
+import com.example.ecommerce_order_service.DTO.RefundItemRequest;
+import com.example.ecommerce_order_service.DTO.RefundRequest;
+import com.example.ecommerce_order_service.DTO.RefundResponse;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.entities.RefundStatus;
+import com.example.ecommerce_order_service.exceptions.InvalidOrderStateException;
+import com.example.ecommerce_order_service.exceptions.RefundProcessingException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.services.IOrderService;
+import com.example.ecommerce_order_service.services.OrderEventOutbox;
+import com.example.ecommerce_order_service.services.OrderServiceImpl;
+import com.example.ecommerce_order_service.services.OrderSummaryStore;
+import com.example.ecommerce_order_service.services.ProcessedEventStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs without a test transaction so refunds are committed before the settlement job reads them.
+// The scheduled run is pushed out of the way so only the tests' own calls settle refunds.
+@DataJpaTest(properties = {"orders.refunds.batch-size=50", "orders.refunds.linger-ms=3600000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RefundSettlementJob.class, RefundSettlementTest.GatewayConfig.class, OrderServiceImpl.class, OrderCache.class,
+        OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class, ProcessedEventStore.class, OrderEventOutbox.class,
+        OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class, InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class RefundSettlementTest {
+
+    private static final long USER_ID = 7070L;
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private RefundSettlementJob settlementJob;
+
+    @Autowired
+    private RecordingRefundGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        settlementJob.settlePendingRefunds(); // leftovers of other tests
+        gateway.batchSizes.clear();
+        gateway.rejectedOrderIds.clear();
+    }
+
+    @Test
+    void settlesRefundsOfManyOrdersInOneGatewayCall() {
+        Order partly = paidOrder();
+        Order fully = paidOrder();
+        Long itemId = itemOf(partly, 1L);
+
+        // 2 of the 3 units of product 1 (10.00 each), then everything that is left of the other order
+        RefundResponse itemRefund = orderService.processRefund(partly.getId(),
+                new RefundRequest(null, null, "damaged", List.of(new RefundItemRequest(itemId, 2))));
+        RefundResponse fullRefund = orderService.processRefund(fully.getId(), new RefundRequest(null, null, "returned", null));
+        assertThat(itemRefund.getAmount().getAmount()).isEqualByComparingTo("20.00");
+        assertThat(fullRefund.getAmount().getAmount()).isEqualByComparingTo("35.00");
+        assertThat(orderService.getOrderById(partly.getId()).getOrderStatus()).isEqualTo(OrderStatus.PAID); // until settled
+
+        settlementJob.settlePendingRefunds();
+
+        assertThat(gateway.batchSizes).containsExactly(2);
+        assertThat(orderService.getRefunds(partly.getId())).extracting(RefundResponse::getStatus).containsExactly(RefundStatus.SUCCEEDED);
+        assertThat(orderService.getOrderById(partly.getId()).getOrderStatus()).isEqualTo(OrderStatus.PARTIALLY_REFUNDED);
+        assertThat(orderService.getOrderById(fully.getId()).getOrderStatus()).isEqualTo(OrderStatus.REFUNDED);
+
+        // The summary counts what was kept: 35.00 - 20.00 of one order, nothing of the other
+        BigDecimal spent = orderService.getOrderSummary(USER_ID).getTotalSpent().getAmount();
+        orderService.rebuildOrderSummaries();
+        assertThat(orderService.getOrderSummary(USER_ID).getTotalSpent().getAmount()).isEqualByComparingTo(spent);
+    }
+
+    @Test
+    void neverReservesMoreThanIsRefundable() {
+        Order order = paidOrder();
+        Long itemId = itemOf(order, 1L);
+        orderService.processRefund(order.getId(), new RefundRequest(null, null, null, List.of(new RefundItemRequest(itemId, 3))));
+
+        // Pending refunds count: the 3 units and their 30.00 are taken although nothing is settled yet
+        assertThatThrownBy(() -> orderService.processRefund(order.getId(),
+                new RefundRequest(null, null, null, List.of(new RefundItemRequest(itemId, 1)))))
+                .isInstanceOf(RefundProcessingException.class);
+        assertThatThrownBy(() -> orderService.processRefund(order.getId(), new RefundRequest(null, new BigDecimal("5.01"), null, null)))
+                .isInstanceOf(RefundProcessingException.class);
+        assertThat(orderService.processRefund(order.getId(), new RefundRequest(null, new BigDecimal("5.00"), null, null))
+                .getStatus()).isEqualTo(RefundStatus.PENDING);
+    }
+
+    @Test
+    void rejectedRefundReleasesItsReservation() {
+        Order order = paidOrder();
+        gateway.rejectedOrderIds.add(order.getId());
+        orderService.processRefund(order.getId(), new RefundRequest(null, null, null, null));
+
+        settlementJob.settlePendingRefunds();
+
+        assertThat(orderService.getRefunds(order.getId())).singleElement()
+                .satisfies(refund -> assertThat(refund.getStatus()).isEqualTo(RefundStatus.FAILED));
+        assertThat(orderService.getOrderById(order.getId()).getOrderStatus()).isEqualTo(OrderStatus.PAID);
+
+        gateway.rejectedOrderIds.clear();
+        orderService.processRefund(order.getId(), new RefundRequest(null, null, null, null));
+        settlementJob.settlePendingRefunds();
+        assertThat(orderService.getOrderById(order.getId()).getOrderStatus()).isEqualTo(OrderStatus.REFUNDED);
+    }
+
+    @Test
+    void refundStatusesCannotBeSetByAStatusUpdate() {
+        Order order = paidOrder();
+
+        assertThatThrownBy(() -> orderService.updateOrderStatus(order.getId(), OrderStatus.REFUNDED))
+                .isInstanceOf(InvalidOrderStateException.class);
+        assertThatThrownBy(() -> orderService.updateOrderStatuses(Map.of(OrderStatus.PARTIALLY_REFUNDED, List.of(order.getId()))))
+                .isInstanceOf(InvalidOrderStateException.class);
+        assertThat(orderService.getOrderById(order.getId()).getOrderStatus()).isEqualTo(OrderStatus.PAID);
+    }
+
+    @Test
+    void refundsAnOrderCanceledAfterPayment() {
+        Order order = paidOrder();
+        orderService.cancelOrder(order.getId());
+
+        orderService.processRefund(order.getId(), new RefundRequest(null, null, "canceled", null));
+        settlementJob.settlePendingRefunds();
+
+        assertThat(orderService.getRefunds(order.getId())).extracting(RefundResponse::getStatus).containsExactly(RefundStatus.SUCCEEDED);
+        assertThat(orderService.getOrderById(order.getId()).getOrderStatus()).isEqualTo(OrderStatus.CANCELED);
+    }
+
+    @Test
+    void doesNotRefundAnOrderCanceledBeforePayment() {
+        Order order = orderService.createOrder(USER_ID, List.of(new OrderItemRequest(1L, 1, new BigDecimal("10.00"))));
+        orderService.cancelOrder(order.getId());
+
+        assertThatThrownBy(() -> orderService.processRefund(order.getId(), new RefundRequest(null, null, null, null)))
+                .isInstanceOf(RefundProcessingException.class);
+    }
+
+    private Order paidOrder() {
+        Order order = orderService.createOrder(USER_ID, List.of(new OrderItemRequest(1L, 3, new BigDecimal("10.00")),
+                new OrderItemRequest(2L, 1, new BigDecimal("5.00"))));
+        orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+        return order;
+    }
+
+    private Long itemOf(Order order, Long productId) {
+        return orderService.getOrderItemsByOrderId(order.getId()).stream()
+                .filter(item -> item.getProductId().equals(productId))
+                .map(OrderItemResponse::getOrderItemId)
+                .findFirst().orElseThrow();
+    }
+
+    // Settles everything except refunds of the listed orders, and records the size of every call
+    static class RecordingRefundGateway implements RefundGateway {
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final Set<Long> rejectedOrderIds = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public RefundBatchResult settle(String batchId, List<RefundInstruction> refunds) {
+            batchSizes.add(refunds.size());
+            Set<Long> settled = new HashSet<>();
+            Map<Long, String> rejected = new HashMap<>();
+            for (RefundInstruction refund : refunds) {
+                if (rejectedOrderIds.contains(refund.getOrderId())) {
+                    rejected.put(refund.getRefundId(), "card expired");
+                } else {
+                    settled.add(refund.getRefundId());
+                }
+            }
+            return new RefundBatchResult("batch-" + batchId, settled, rejected);
+        }
+    }
+
+    @TestConfiguration
+    static class GatewayConfig {
+        @Bean
+        RecordingRefundGateway recordingRefundGateway() {
+            return new RecordingRefundGateway();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.BulkOrderRequest;
+import com.example.ecommerce_order_service.DTO.BulkOrderResult;
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BulkOrderCreationTest {
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void rejectsInvalidOrdersOfAChunkOneByOneAndCreatesTheRest() {
+        List<BulkOrderRequest> chunk = List.of(
+                new BulkOrderRequest(1L, List.of(new OrderItemRequest(10L, 2, new BigDecimal("5.00")))),
+                new BulkOrderRequest(null, List.of(new OrderItemRequest(10L, 1, new BigDecimal("5.00")))),
+                new BulkOrderRequest(2L, List.of()),
+                new BulkOrderRequest(3L, List.of(new OrderItemRequest(11L, 1, null))),
+                new BulkOrderRequest(4L, List.of(new OrderItemRequest(12L, 1, new BigDecimal("9.999")))),
+                new BulkOrderRequest(5L, List.of(new OrderItemRequest(13L, 3, new BigDecimal("1.50")))));
+
+        List<BulkOrderResult> results = orderService.createOrders(chunk);
+
+        assertThat(results).extracting(BulkOrderResult::getStatus)
+                .containsExactly("CREATED", "REJECTED", "REJECTED", "REJECTED", "REJECTED", "CREATED");
+        assertThat(results).filteredOn(result -> "REJECTED".equals(result.getStatus()))
+                .allSatisfy(result -> {
+                    assertThat(result.getOrderId()).isNull();
+                    assertThat(result.getMessage()).isNotBlank();
+                });
+
+        List<Long> created = List.of(results.get(0).getOrderId(), results.get(5).getOrderId());
+        assertThat(orderRepository.findAllById(created))
+                .extracting(Order::getUserId, Order::getTotalAmountMinor)
+                .containsExactlyInAnyOrder(tuple(1L, 1000L), tuple(5L, 450L));
+        // Other test classes may leave orders behind, so only the rejected users are checked for none
+        for (long userId = 2; userId <= 4; userId++) {
+            assertThat(orderRepository.findOrderResponsesByUserId(userId)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.OrderPage;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.DTO.RefundRequest;
+import com.example.ecommerce_order_service.DTO.UserOrderSummaryResponse;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs without a test transaction so every chunk is committed on its own as in production
+@DataJpaTest(properties = {"orders.archive.min-age=30d", "orders.archive.chunk-size=1", "orders.archive.chunk-pause=0ms"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderArchiveJob.class, OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderArchiveJobTest {
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private OrderArchiveJob archiveJob;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archivesOldFinishedOrdersAndStillServesThem() {
+        long userId = 5150L;
+        Order delivered = newOrder(userId);
+        Order canceled = newOrder(userId);
+        Order open = newOrder(userId);
+        Order recent = newOrder(userId);
+        for (OrderStatus status : List.of(OrderStatus.PAID, OrderStatus.SHIPPED, OrderStatus.DELIVERED)) {
+            orderService.updateOrderStatus(delivered.getId(), status);
+            orderService.updateOrderStatus(recent.getId(), status);
+        }
+        orderService.cancelOrder(canceled.getId());
+        placedDaysAgo(40, delivered, canceled, open);
+        UserOrderSummaryResponse summary = orderService.getOrderSummary(userId);
+
+        assertThat(archiveJob.archiveOrders()).isEqualTo(2);
+
+        assertThat(orderRepository.findAllById(List.of(delivered.getId(), canceled.getId()))).isEmpty();
+        OrderResponse archived = orderService.getOrderById(delivered.getId());
+        assertThat(archived.getOrderStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(archived.getOrderItems()).hasSize(2);
+
+        // Listings merge both tables in (orderDate, id) order, also across page boundaries
+        assertThat(orderService.getOrdersByUserId(userId)).extracting(OrderResponse::getOrderId)
+                .containsExactly(delivered.getId(), canceled.getId(), open.getId(), recent.getId());
+        OrderPage first = orderService.getOrdersByUserId(userId, null, 1);
+        OrderPage second = orderService.getOrdersByUserId(userId, first.getNextCursor(), 2);
+        OrderPage last = orderService.getOrdersByUserId(userId, second.getNextCursor(), 2);
+        assertThat(first.getOrders()).extracting(OrderResponse::getOrderId).containsExactly(delivered.getId());
+        assertThat(second.getOrders()).extracting(OrderResponse::getOrderId).containsExactly(canceled.getId(), open.getId());
+        assertThat(second.getOrders().get(0).getOrderItems()).hasSize(2);
+        assertThat(last.getOrders()).extracting(OrderResponse::getOrderId).containsExactly(recent.getId());
+        assertThat(last.getNextCursor()).isNull();
+
+        // The NDJSON stream merges them the same way, with each order's items from its own table
+        List<OrderResponse> streamed = new ArrayList<>();
+        orderService.streamOrdersByUserId(userId, streamed::add);
+        assertThat(streamed).extracting(OrderResponse::getOrderId)
+                .containsExactly(delivered.getId(), canceled.getId(), open.getId(), recent.getId());
+        assertThat(streamed).allSatisfy(order -> assertThat(order.getOrderItems()).hasSize(2));
+
+        // Archived orders still count towards the user's summary, also when it is rebuilt
+        orderService.rebuildOrderSummaries();
+        UserOrderSummaryResponse rebuilt = orderService.getOrderSummary(userId);
+        assertThat(rebuilt.getOrderCounts()).isEqualTo(summary.getOrderCounts());
+        assertThat(rebuilt.getTotalSpent()).isEqualTo(summary.getTotalSpent());
+    }
+
+    @Test
+    void leavesOrdersWithAPendingRefundInPlace() {
+        Order order = newOrder(5151L);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+        orderService.processRefund(order.getId(), new RefundRequest(null, null, "returned", null));
+        orderService.updateOrderStatus(order.getId(), OrderStatus.SHIPPED);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.DELIVERED);
+        placedDaysAgo(40, order);
+
+        archiveJob.archiveOrders();
+
+        assertThat(orderRepository.existsById(order.getId())).isTrue();
+    }
+
+    private Order newOrder(long userId) {
+        return orderService.createOrder(userId, List.of(new OrderItemRequest(1L, 2, new BigDecimal("10.00")),
+                new OrderItemRequest(2L, 1, new BigDecimal("5.00"))));
+    }
+
+    private void placedDaysAgo(int days, Order... orders) {
+        Timestamp orderDate = Timestamp.valueOf(LocalDateTime.now().minusDays(days));
+        for (Order order : orders) {
+            jdbcTemplate.update("update orders set order_date = ? where order_id = ?", orderDate, order.getId());
+        }
+    }
+}
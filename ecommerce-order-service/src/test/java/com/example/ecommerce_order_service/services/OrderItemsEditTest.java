@@ -0,0 +1,121 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderItemQuantityRequest;
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.OrderItemResponse;
+import com.example.ecommerce_order_service.DTO.OrderItemsEditRequest;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.exceptions.InvalidOrderStateException;
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Runs without a test transaction so a rejected edit really rolls back and stock is released after commit
+@DataJpaTest(properties = "orders.inventory.enabled=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderItemsEditTest {
+
+    private static final long STOCK = 1_000_000; // orders.inventory.stub.default-stock
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private InventoryReservations inventoryReservations;
+
+    @Test
+    void addsRemovesAndRequantifiesItemsAndRecomputesTheTotal() {
+        Order order = orderService.createOrder(1L, List.of(item(101L, 2, "10.00"), item(102L, 1, "5.00"), item(103L, 1, "1.00")));
+        List<OrderItem> items = order.getOrderItems();
+
+        OrderResponse edited = orderService.editOrderItems(order.getId(), new OrderItemsEditRequest(
+                List.of(item(104L, 2, "2.50")),
+                List.of(items.get(2).getId()),
+                List.of(new OrderItemQuantityRequest(items.get(0).getId(), 3))));
+
+        assertThat(edited.getTotalAmount().getMinorUnits()).isEqualTo(4000);
+        assertThat(orderService.getOrderById(order.getId()).getOrderItems())
+                .extracting(OrderItemResponse::getProductId, OrderItemResponse::getQuantity)
+                .containsExactlyInAnyOrder(tuple(101L, 3), tuple(102L, 1), tuple(104L, 2));
+        assertThat(inventoryReservations.available(101L)).isEqualTo(STOCK - 3);
+        assertThat(inventoryReservations.available(103L)).isEqualTo(STOCK);
+        assertThat(inventoryReservations.available(104L)).isEqualTo(STOCK - 2);
+    }
+
+    @Test
+    void rejectsTheWholeEditIfOneItemIsNotOnTheOrder() {
+        Order order = orderService.createOrder(2L, List.of(item(201L, 1, "3.00"), item(202L, 1, "4.00")));
+        Order other = orderService.createOrder(2L, List.of(item(203L, 1, "5.00")));
+
+        assertThatThrownBy(() -> orderService.editOrderItems(order.getId(), new OrderItemsEditRequest(null,
+                List.of(order.getOrderItems().get(0).getId(), other.getOrderItems().get(0).getId()), null)))
+                .isInstanceOf(OrderValidationException.class);
+
+        assertThat(orderService.getOrderById(order.getId()).getOrderItems()).hasSize(2);
+        assertThat(orderService.getOrderById(other.getId()).getOrderItems()).hasSize(1);
+        assertThat(inventoryReservations.available(201L)).isEqualTo(STOCK - 1);
+    }
+
+    @Test
+    void rejectsEditsOnceTheStatusForbidsThem() {
+        Order order = orderService.createOrder(3L, List.of(item(301L, 1, "3.00"), item(302L, 1, "4.00")));
+        orderService.updateOrderStatuses(Map.of(OrderStatus.PAID, List.of(order.getId())));
+
+        assertThatThrownBy(() -> orderService.editOrderItems(order.getId(), new OrderItemsEditRequest(null,
+                List.of(order.getOrderItems().get(1).getId()), null)))
+                .isInstanceOf(InvalidOrderStateException.class)
+                .hasMessageContaining("PAID");
+        assertThat(orderService.getOrderById(order.getId()).getTotalAmount().getMinorUnits()).isEqualTo(700);
+    }
+
+    @Test
+    void removingASingleItemFollowsTheEditRules() {
+        Order order = orderService.createOrder(4L, List.of(item(401L, 2, "3.00"), item(402L, 1, "4.00")));
+        Long firstItemId = order.getOrderItems().get(0).getId();
+
+        orderService.removeOrderItem(order.getId(), firstItemId);
+        assertThat(orderService.getOrderById(order.getId()).getTotalAmount().getMinorUnits()).isEqualTo(400);
+        assertThat(inventoryReservations.available(401L)).isEqualTo(STOCK);
+
+        orderService.updateOrderStatuses(Map.of(OrderStatus.PAID, List.of(order.getId())));
+        Long lastItemId = order.getOrderItems().get(1).getId();
+        assertThatThrownBy(() -> orderService.removeOrderItem(order.getId(), lastItemId))
+                .isInstanceOf(InvalidOrderStateException.class)
+                .hasMessageContaining("PAID");
+        assertThat(orderService.getOrderById(order.getId()).getOrderItems()).hasSize(1);
+        assertThat(inventoryReservations.available(402L)).isEqualTo(STOCK - 1);
+    }
+
+    private static OrderItemRequest item(long productId, int quantity, String price) {
+        return new OrderItemRequest(productId, quantity, new BigDecimal(price));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderItemResponse;
+import com.example.ecommerce_order_service.DTO.OrderPage;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderListingTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void pagesBreakTiesBetweenOrdersOfTheSameDateById() {
+        List<Long> expected = new ArrayList<>();
+        expected.add(seedOrder(1L, OrderStatus.SHIPPED, START.minusMinutes(1)));
+        for (int i = 0; i < 5; i++) {
+            expected.add(seedOrder(1L, OrderStatus.SHIPPED, START));
+        }
+        expected.add(seedOrder(1L, OrderStatus.SHIPPED, START.plusMinutes(1)));
+        seedOrder(2L, OrderStatus.PAID, START);
+
+        // Every page boundary but the last falls between two orders of START
+        assertThat(pageThrough(cursor -> orderService.getOrdersByUserId(1L, cursor, 2))).containsExactlyElementsOf(expected);
+        assertThat(pageThrough(cursor -> orderService.getOrdersByStatus(OrderStatus.SHIPPED, cursor, 2))).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void rejectsAMalformedCursorAsInvalidInput() {
+        seedOrder(1L, OrderStatus.PAID, START);
+
+        assertThatThrownBy(() -> orderService.getOrdersByUserId(1L, "not a cursor", 10)).isInstanceOf(OrderValidationException.class);
+        assertThatThrownBy(() -> orderService.getOrdersByStatus(OrderStatus.PAID, "not a cursor", 10)).isInstanceOf(OrderValidationException.class);
+    }
+
+    @Test
+    void streamsEveryOrderWithItsItemsInPageOrder() {
+        long second = seedOrder(3L, OrderStatus.PAID, START, 11L, 12L);
+        long first = seedOrder(3L, OrderStatus.CREATED, START.minusDays(1), 10L);
+        long third = seedOrder(3L, OrderStatus.PAID, START, 13L);
+        entityManager.clear();
+
+        List<OrderResponse> streamed = new ArrayList<>();
+        orderService.streamOrdersByUserId(3L, streamed::add);
+
+        assertThat(streamed).extracting(OrderResponse::getOrderId).containsExactly(first, second, third);
+        assertThat(streamed.get(1).getOrderItems()).extracting(OrderItemResponse::getProductId).containsExactlyInAnyOrder(11L, 12L);
+
+        List<OrderResponse> paid = new ArrayList<>();
+        orderService.streamOrdersByStatus(OrderStatus.PAID, order -> {
+            if (order.getUserId() == 3L) {
+                paid.add(order);
+            }
+        });
+        assertThat(paid).extracting(OrderResponse::getOrderId).containsExactly(second, third);
+    }
+
+    private static List<Long> pageThrough(Function<String, OrderPage> listing) {
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = listing.apply(cursor);
+            assertThat(page.getOrders()).hasSizeLessThanOrEqualTo(2);
+            page.getOrders().forEach(order -> found.add(order.getOrderId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return found;
+    }
+
+    private long seedOrder(long userId, OrderStatus status, LocalDateTime orderDate, Long... productIds) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderDate(orderDate);
+        order.setOrderStatus(status);
+        order.setTotalAmountMinor(100L * productIds.length);
+        order.setCurrency("USD");
+
+        List<OrderItem> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            item.setPriceMinor(100);
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        entityManager.persist(order);
+        entityManager.flush();
+        return order.getId();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.cache.DistributedOrderCache;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs without a test transaction: reads inside a transaction are never coalesced
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, MoneyConfig.class, ProcessedEventStore.class,
+        OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class, InventoryReservations.class,
+        InventoryConfig.class, OrderReadCoalescingTest.BlockingCacheConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderReadCoalescingTest {
+
+    private static final int CALLERS = 50;
+
+    // Holds the first cache miss in the distributed tier until released, so every other caller arrives mid-load
+    @TestConfiguration
+    static class BlockingCacheConfig {
+        @Bean
+        BlockingDistributedCache distributedOrderCache() {
+            return new BlockingDistributedCache();
+        }
+    }
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private OrderReadCoalescer orderReadCoalescer;
+
+    @Autowired
+    private BlockingDistributedCache distributedCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void concurrentLookupsOfOneOrderIssueOneLoad() throws Exception {
+        Order order = orderService.createOrder(1L, List.of(new OrderItemRequest(100L, 2, new BigDecimal("9.99"))));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        double joined = count("order", "joined");
+        double loaded = count("order", "loaded");
+
+        List<Future<OrderResponse>> callers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CALLERS)) {
+            for (int i = 0; i < CALLERS; i++) {
+                callers.add(executor.submit(() -> orderService.getOrderById(order.getId())));
+            }
+            awaitCount("order", "joined", joined + CALLERS - 1);
+            distributedCache.release.countDown();
+
+            OrderResponse first = callers.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<OrderResponse> caller : callers) {
+                assertThat(caller.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            }
+        }
+
+        // One trip through the cache tiers: the order row and its items, once
+        assertThat(distributedCache.gets).hasValue(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(count("order", "loaded")).isEqualTo(loaded + 1);
+    }
+
+    @Test
+    void joinersShareTheLoadersFailureAndCreatedOrdersStartAFreshLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            Future<?> leader = executor.submit(() -> orderReadCoalescer.userOrders(7L, null, 10, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            loading.await(10, TimeUnit.SECONDS);
+            Future<?> joiner = executor.submit(() -> orderReadCoalescer.userOrders(7L, null, 10, () -> loads.incrementAndGet()));
+            awaitCount("user-orders", "joined", 1);
+
+            // A new order of the user's: later callers must not get the result of the load already running
+            orderReadCoalescer.forgetUserOrdersAfterCommit(7L);
+            assertThat(orderReadCoalescer.userOrders(7L, null, 10, () -> loads.incrementAndGet())).isEqualTo(2);
+
+            release.countDown();
+            assertThat(leader).failsWithin(10, TimeUnit.SECONDS).withThrowableThat().havingRootCause().withMessage("database down");
+            assertThat(joiner).failsWithin(10, TimeUnit.SECONDS).withThrowableThat().havingRootCause().withMessage("database down");
+        }
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void readersAfterAStatusChangeCommitsDoNotJoinALoadThatStartedBeforeIt() throws Exception {
+        Order order = orderService.createOrder(2L, List.of(new OrderItemRequest(100L, 1, new BigDecimal("9.99"))));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        double joined = count("order", "joined");
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<String> leader = executor.submit(() -> orderReadCoalescer.order(order.getId(), () -> {
+                loading.countDown();
+                await(release);
+                return "before commit";
+            }));
+            loading.await(10, TimeUnit.SECONDS);
+            Future<String> joiner = executor.submit(() -> orderReadCoalescer.order(order.getId(), () -> "joiner's own load"));
+            awaitCount("order", "joined", joined + 1);
+
+            // The load in flight read the order before this commit, so callers after it must load again
+            orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+            assertThat(orderReadCoalescer.order(order.getId(), () -> "after commit")).isEqualTo("after commit");
+
+            release.countDown();
+            assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo("before commit");
+            assertThat(joiner.get(10, TimeUnit.SECONDS)).isEqualTo("before commit");
+        }
+    }
+
+    private double count(String read, String outcome) {
+        return meterRegistry.get("orders.read.coalescing").tag("read", read).tag("outcome", outcome).counter().count();
+    }
+
+    private void awaitCount(String read, String outcome, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count(read, outcome) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(count(read, outcome)).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class BlockingDistributedCache implements DistributedOrderCache {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger gets = new AtomicInteger();
+
+        @Override
+        public OrderResponse get(Long orderId) {
+            gets.incrementAndGet();
+            await(release);
+            return null;
+        }
+
+        @Override
+        public void put(Long orderId, OrderResponse order) {
+        }
+
+        @Override
+        public void evict(Long orderId) {
+        }
+    }
+}
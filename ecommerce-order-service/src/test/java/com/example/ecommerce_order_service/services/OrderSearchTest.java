@@ -0,0 +1,115 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderPage;
+import com.example.ecommerce_order_service.DTO.OrderResponse;
+import com.example.ecommerce_order_service.DTO.OrderSearchCriteria;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderItem;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.exceptions.OrderValidationException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderSearchTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void appliesAllFiltersTogether() {
+        long match = seedOrder(1L, OrderStatus.PAID, START, 2500, 10L);
+        seedOrder(1L, OrderStatus.PAID, START.plusHours(1), 900, 10L);      // below minAmount
+        seedOrder(1L, OrderStatus.CREATED, START.plusHours(2), 2500, 10L);  // other status
+        seedOrder(2L, OrderStatus.SHIPPED, START.plusHours(3), 2500, 10L);  // other user
+        seedOrder(1L, OrderStatus.SHIPPED, START.minusDays(1), 2500, 10L);  // before the range
+        long shipped = seedOrder(1L, OrderStatus.SHIPPED, START.plusHours(4), 10000, 11L);
+
+        OrderSearchCriteria criteria = new OrderSearchCriteria(1L, EnumSet.of(OrderStatus.PAID, OrderStatus.SHIPPED),
+                START, START.plusDays(1), new BigDecimal("10.00"), null, null);
+
+        assertThat(orderService.searchOrders(criteria, null, 50).getOrders())
+                .extracting(OrderResponse::getOrderId)
+                .containsExactly(match, shipped);
+    }
+
+    @Test
+    void pagesThroughOrdersContainingAProductOnce() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(seedOrder(3L + i, OrderStatus.CREATED, START.plusMinutes(i % 3), 100, 42L, 42L));
+            seedOrder(3L + i, OrderStatus.CREATED, START.plusMinutes(i % 3), 100, 43L);
+        }
+        OrderSearchCriteria criteria = new OrderSearchCriteria(null, null, null, null, null, null, 42L);
+
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPage page = orderService.searchOrders(criteria, cursor, 3);
+            page.getOrders().forEach(order -> found.add(order.getOrderId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(found).containsExactlyInAnyOrderElementsOf(expected).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void rejectsASearchWithoutFilters() {
+        assertThatThrownBy(() -> orderService.searchOrders(new OrderSearchCriteria(), null, 50))
+                .isInstanceOf(OrderValidationException.class);
+    }
+
+    private long seedOrder(long userId, OrderStatus status, LocalDateTime orderDate, long totalAmountMinor, Long... productIds) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setOrderDate(orderDate);
+        order.setOrderStatus(status);
+        order.setTotalAmountMinor(totalAmountMinor);
+        order.setCurrency("USD");
+
+        List<OrderItem> items = new ArrayList<>();
+        for (Long productId : productIds) {
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setQuantity(1);
+            item.setPriceMinor(totalAmountMinor / productIds.length);
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        entityManager.persist(order);
+        entityManager.flush();
+        return order.getId();
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.exceptions.ConcurrentOrderUpdateException;
+import com.example.ecommerce_order_service.exceptions.InvalidOrderStateException;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import com.example.ecommerce_order_service.repositories.OrderRepository;
+import com.example.ecommerce_order_service.repositories.ProcessedEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs without a test transaction so every service call commits and threads really contend
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderStatusContentionTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @Autowired
+    private ProcessedEventRepository processedEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentCancelAndPaymentNeverBothSucceed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 50; round++) {
+                Order order = newOrder();
+                CyclicBarrier start = new CyclicBarrier(2);
+
+                Future<Boolean> cancel = executor.submit(() -> attempt(start, () -> orderService.cancelOrder(order.getId())));
+                Future<Boolean> pay = executor.submit(() -> attempt(start, () -> orderService.updateOrderStatus(order.getId(), OrderStatus.PAID)));
+
+                boolean canceled = cancel.get(10, TimeUnit.SECONDS);
+                boolean paid = pay.get(10, TimeUnit.SECONDS);
+                OrderStatus finalStatus = orderRepository.findById(order.getId()).orElseThrow().getOrderStatus();
+
+                // CREATED -> PAID -> CANCELED is a legal sequence, so both may succeed, but only in that order
+                if (canceled && paid) {
+                    assertThat(finalStatus).isEqualTo(OrderStatus.CANCELED);
+                } else {
+                    assertThat(canceled ^ paid).isTrue();
+                    assertThat(finalStatus).isEqualTo(canceled ? OrderStatus.CANCELED : OrderStatus.PAID);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void exactlyOneWriterWinsEachTransitionAndReportsThroughput() throws Exception {
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            orderIds.add(newOrder().getId());
+        }
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (Long orderId : orderIds) {
+                    try {
+                        orderService.updateOrderStatus(orderId, OrderStatus.PAID);
+                        applied.incrementAndGet();
+                    } catch (InvalidOrderStateException | ConcurrentOrderUpdateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("Contended status transitions: %d threads, %d attempts in %.2fs (%.0f attempts/s, %d applied)%n",
+                THREADS, applied.get() + rejected.get(), seconds, (applied.get() + rejected.get()) / seconds, applied.get());
+
+        assertThat(applied).hasValue(orderIds.size());
+        assertThat(orderRepository.findAllById(orderIds))
+                .allSatisfy(order -> {
+                    assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.PAID);
+                    assertThat(order.getVersion()).isEqualTo(1L);
+                });
+    }
+
+    @Test
+    void recordingAnEventAnotherConsumerAlreadyRecordedKeepsTheRestOfTheBatch() {
+        Order applied = newOrder();
+        Order pending = newOrder();
+        orderService.updateOrderStatuses(Map.of(OrderStatus.PAID, List.of(applied.getId())));
+
+        // a consumer that filtered its batch before the first one committed records the same event again
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                processedEventStore.markProcessed(OrderStatus.PAID, List.of(applied.getId(), pending.getId())));
+
+        // a store with an empty in-memory filter only sees the table
+        ProcessedEventStore restarted = new ProcessedEventStore(processedEventRepository, 16);
+        assertThat(restarted.filterUnprocessed(OrderStatus.PAID, List.of(applied.getId(), pending.getId()))).isEmpty();
+    }
+
+    private Order newOrder() {
+        return orderService.createOrder(1L, List.of(new OrderItemRequest(1L, 2, new BigDecimal("25.0"))));
+    }
+
+    private static boolean attempt(CyclicBarrier start, Runnable action) throws Exception {
+        start.await();
+        try {
+            action.run();
+            return true;
+        } catch (InvalidOrderStateException | ConcurrentOrderUpdateException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ecommerce_order_service.services;
+
+import com.example.ecommerce_order_service.DTO.OrderItemRequest;
+import com.example.ecommerce_order_service.DTO.OrderItemResponse;
+import com.example.ecommerce_order_service.DTO.UserOrderSummaryResponse;
+import com.example.ecommerce_order_service.cache.OrderCache;
+import com.example.ecommerce_order_service.cache.OrderReadCoalescer;
+import com.example.ecommerce_order_service.config.CacheConfig;
+import com.example.ecommerce_order_service.config.InventoryConfig;
+import com.example.ecommerce_order_service.config.MoneyConfig;
+import com.example.ecommerce_order_service.entities.Order;
+import com.example.ecommerce_order_service.entities.OrderStatus;
+import com.example.ecommerce_order_service.inventory.InventoryReservations;
+import com.example.ecommerce_order_service.metrics.OrderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// Runs without a test transaction so summary rows are created and updated exactly as in production
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderServiceImpl.class, OrderCache.class, OrderReadCoalescer.class, CacheConfig.class, MoneyConfig.class,
+        ProcessedEventStore.class, OrderEventOutbox.class, OrderSummaryStore.class, OrderMetrics.class, SimpleMeterRegistry.class,
+        InventoryReservations.class, InventoryConfig.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OrderSummaryStoreTest {
+
+    private static final long USER_ID = 4242L;
+
+    @Autowired
+    private IOrderService orderService;
+
+    @Test
+    void incrementalSummaryMatchesRebuildFromOrders() {
+        Order paid = orderService.createOrder(USER_ID, List.of(new OrderItemRequest(1L, 2, new BigDecimal("10.0")), new OrderItemRequest(2L, 1, new BigDecimal("5.0"))));
+        Order shipped = orderService.createOrder(USER_ID, List.of(new OrderItemRequest(3L, 1, new BigDecimal("40.0"))));
+        Order canceledAfterPayment = orderService.createOrder(USER_ID, List.of(new OrderItemRequest(4L, 3, new BigDecimal("1.0"))));
+        Order open = orderService.createOrder(USER_ID, List.of(new OrderItemRequest(5L, 1, new BigDecimal("7.0"))));
+
+        // items can only be removed while the order is open; the lower total is what the payment then adds to the spend
+        OrderItemResponse removedItem = orderService.getOrderItemsByOrderId(paid.getId()).stream()
+                .filter(item -> item.getProductId() == 2L).findFirst().orElseThrow();
+        orderService.removeOrderItem(paid.getId(), removedItem.getOrderItemId());
+
+        orderService.updateOrderStatus(paid.getId(), OrderStatus.PAID);
+        orderService.updateOrderStatuses(Map.of(OrderStatus.PAID, List.of(shipped.getId(), canceledAfterPayment.getId())));
+        orderService.updateOrderStatus(shipped.getId(), OrderStatus.SHIPPED);
+        orderService.cancelOrder(canceledAfterPayment.getId());
+
+        UserOrderSummaryResponse incremental = orderService.getOrderSummary(USER_ID);
+        assertThat(incremental.getOrderCounts()).containsEntry(OrderStatus.CREATED, 1L)
+                .containsEntry(OrderStatus.PAID, 1L)
+                .containsEntry(OrderStatus.SHIPPED, 1L)
+                .containsEntry(OrderStatus.CANCELED, 1L);
+        assertThat(incremental.getTotalOrders()).isEqualTo(4);
+        assertThat(incremental.getTotalSpent().getAmount()).isEqualTo(new BigDecimal("60.00"));
+        assertThat(incremental.getLastOrderDate()).isCloseTo(open.getOrderDate(), within(1, ChronoUnit.MILLIS));
+
+        orderService.rebuildOrderSummaries();
+        UserOrderSummaryResponse rebuilt = orderService.getOrderSummary(USER_ID);
+        assertThat(rebuilt.getOrderCounts()).isEqualTo(incremental.getOrderCounts());
+        assertThat(rebuilt.getTotalSpent()).isEqualTo(incremental.getTotalSpent());
+        assertThat(rebuilt.getLastOrderDate()).isEqualTo(incremental.getLastOrderDate());
+    }
+
+    @Test
+    void userWithoutOrdersHasAnEmptySummary() {
+        UserOrderSummaryResponse summary = orderService.getOrderSummary(987654L);
+
+        assertThat(summary.getTotalOrders()).isZero();
+        assertThat(summary.getOrderCounts()).containsEntry(OrderStatus.CREATED, 0L);
+        assertThat(summary.getLastOrderDate()).isNull();
+    }
+}